@@ -0,0 +1,229 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Random;
+
+import javalib.worldimages.AboveImage;
+import javalib.worldimages.AlignModeX;
+import javalib.worldimages.AlignModeY;
+import javalib.worldimages.BesideImage;
+import javalib.worldimages.EmptyImage;
+import javalib.worldimages.OutlineMode;
+import javalib.worldimages.OverlayOffsetAlign;
+import javalib.worldimages.RectangleImage;
+import javalib.worldimages.WorldImage;
+
+// a frozen copy of the maze as it was before any of the performance work,
+// so the benchmarks can time the true baseline next to the maze as it is now
+// the classes are renamed so they do not clash with the maze's own, and are
+// otherwise kept as they were: do not change them
+// the baseline takes the worklist apart from the front and finds
+// representatives by recursion, so it is only run on small boards
+class BaselineMaze {
+  // MazeGame.makeConnectedBoard as it was
+  static ArrayList<ArrayList<BaselineNode>> makeConnectedBoard(int x, int y, Random rand) {
+    // hashmap that represents what each node's representative is
+    HashMap<BaselineNode, BaselineNode> boardHash = new HashMap<BaselineNode, BaselineNode>();
+    // all of the edges in the board
+    ArrayList<BaselineEdge> allEdges = new ArrayList<BaselineEdge>();
+    ArrayList<ArrayList<BaselineNode>> resultBoard = new ArrayList<ArrayList<BaselineNode>>();
+    for (int i = 0; i < y; i += 1) {
+      ArrayList<BaselineNode> rowI = new ArrayList<BaselineNode>();
+      for (int j = 0; j < x; j += 1) {
+        BaselineNode temp = new BaselineNode();
+        rowI.add(temp);
+        // ensures that this node is added to the hashmap and maps to itself
+        boardHash.put(temp, temp);
+        // kruskalEdges starts with all of the edges in the list
+        if (i > 0) {
+          allEdges.add(temp.connect(resultBoard.get(i - 1).get(j), rand.nextInt(100)));
+        }
+        if (j > 0) {
+          allEdges.add(temp.connect(rowI.get(j - 1), rand.nextInt(100)));
+        }
+      }
+      resultBoard.add(rowI);
+    }
+
+    allEdges.sort(new BaselineCompareByWeight());
+    BaselineKruskalMaze kru = new BaselineKruskalMaze(boardHash, allEdges);
+    // creates a path through all of the cells, also filling the leftover field with
+    // all the unused connections between the neighbor nodes
+    kru.algorithm();
+    // removes all of the leftoverpaths that are not used in kruskal's algo
+    kru.removeAllLeftOver();
+
+    return resultBoard;
+  }
+
+  // drawMaze over a board made by makeConnectedBoard and handed around as an
+  // Object, so callers in other files never name BaselineNode
+  @SuppressWarnings("unchecked")
+  static WorldImage drawBoard(Object board, int squareSize) {
+    return BaselineMaze.drawMaze((ArrayList<ArrayList<BaselineNode>>) board, squareSize);
+  }
+
+  // MazeGame.drawMaze as it was, over the given board
+  static WorldImage drawMaze(ArrayList<ArrayList<BaselineNode>> mazeBoard, int squareSize) {
+    WorldImage bkg = new EmptyImage();
+    for (int i = 0; i < mazeBoard.size(); i += 1) {
+      WorldImage row = new EmptyImage();
+      for (int j = 0; j < mazeBoard.get(i).size(); j += 1) {
+        WorldImage cell = new RectangleImage(squareSize, squareSize, OutlineMode.SOLID,
+            Color.gray);
+        if (i == 0 && j == 0) {
+          cell = new RectangleImage(squareSize, squareSize, OutlineMode.SOLID, Color.green);
+        }
+        else if (i == mazeBoard.size() - 1 && j == mazeBoard.get(i).size() - 1) {
+          cell = new RectangleImage(squareSize, squareSize, OutlineMode.SOLID, Color.magenta);
+        }
+        if (j > 0 && !mazeBoard.get(i).get(j).isConnected(mazeBoard.get(i).get(j - 1))) {
+          cell = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE,
+              new RectangleImage(1, squareSize, OutlineMode.SOLID, Color.black), 0, 0, cell);
+        }
+        if (i > 0 && !mazeBoard.get(i).get(j).isConnected(mazeBoard.get(i - 1).get(j))) {
+          cell = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP,
+              new RectangleImage(squareSize, 1, OutlineMode.SOLID, Color.black), 0, 0, cell);
+        }
+        row = new BesideImage(row, cell);
+      }
+      bkg = new AboveImage(bkg, row);
+    }
+    return bkg;
+  }
+
+  // joins size nodes into one set in a random order with the HashUtils find
+  // and union as they were, returning how many unions happened
+  static int hashUtilsFindUnion(int size, long seed) {
+    BaselineHashUtils<BaselineNode> util = new BaselineHashUtils<BaselineNode>();
+    HashMap<BaselineNode, BaselineNode> reps = new HashMap<BaselineNode, BaselineNode>();
+    BaselineNode[] nodes = new BaselineNode[size];
+    for (int i = 0; i < size; i += 1) {
+      nodes[i] = new BaselineNode();
+      reps.put(nodes[i], nodes[i]);
+    }
+    Random rand = new Random(seed);
+    int unions = 0;
+    while (unions < size - 1) {
+      BaselineNode rep1 = util.find(reps, nodes[rand.nextInt(size)]);
+      BaselineNode rep2 = util.find(reps, nodes[rand.nextInt(size)]);
+      if (rep1 != rep2) {
+        util.union(reps, rep1, rep2);
+        unions += 1;
+      }
+    }
+    return unions;
+  }
+}
+
+// Node as it was
+class BaselineNode {
+  ArrayList<BaselineEdge> outedges = new ArrayList<BaselineEdge>();
+
+  BaselineEdge connect(BaselineNode other, int weight) {
+    BaselineEdge temp = new BaselineEdge(this, other, weight);
+    this.outedges.add(temp);
+    other.outedges.add(temp);
+    return temp;
+  }
+
+  boolean isConnected(BaselineNode other) {
+    for (BaselineEdge e : this.outedges) {
+      if (e.connectsThisToThat(this, other)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void remove(BaselineEdge e) {
+    this.outedges.remove(e);
+  }
+}
+
+// Edge as it was
+class BaselineEdge {
+  BaselineNode from;
+  BaselineNode to;
+  int weight;
+
+  BaselineEdge(BaselineNode from, BaselineNode to, int weight) {
+    this.from = from;
+    this.to = to;
+    this.weight = weight;
+  }
+
+  boolean connectsThisToThat(BaselineNode n1, BaselineNode n2) {
+    return (this.from.equals(n1) && this.to.equals(n2))
+        || (this.from.equals(n2) && this.to.equals(n1));
+  }
+
+  void removeThisEdge() {
+    this.from.remove(this);
+    this.to.remove(this);
+  }
+}
+
+// KruskalMaze as it was
+class BaselineKruskalMaze {
+  HashMap<BaselineNode, BaselineNode> representatives;
+  ArrayList<BaselineEdge> worklist;
+  ArrayList<BaselineEdge> leftOver;
+
+  BaselineKruskalMaze(HashMap<BaselineNode, BaselineNode> representatives,
+      ArrayList<BaselineEdge> worklist) {
+    this.representatives = representatives;
+    this.worklist = worklist;
+    this.leftOver = new ArrayList<BaselineEdge>();
+  }
+
+  ArrayList<BaselineEdge> algorithm() {
+    BaselineHashUtils<BaselineNode> util = new BaselineHashUtils<BaselineNode>();
+    ArrayList<BaselineEdge> resultEdges = new ArrayList<BaselineEdge>();
+    while (resultEdges.size() != this.representatives.size() - 1) {
+      BaselineEdge e = this.worklist.get(0);
+      if (util.find(this.representatives, e.from).equals(util.find(this.representatives, e.to))) {
+        this.leftOver.add(this.worklist.remove(0));
+      }
+      else {
+        resultEdges.add(e);
+        util.union(this.representatives, util.find(this.representatives, e.from),
+            util.find(this.representatives, e.to));
+        this.worklist.remove(0);
+      }
+    }
+    this.leftOver.addAll(this.worklist);
+    return resultEdges;
+  }
+
+  void removeAllLeftOver() {
+    for (BaselineEdge e : this.leftOver) {
+      e.removeThisEdge();
+    }
+  }
+}
+
+// HashUtils as it was
+class BaselineHashUtils<T> {
+  T find(HashMap<T, T> reps, T node) {
+    if (node.equals(reps.get(node))) {
+      return node;
+    }
+    else {
+      return this.find(reps, reps.get(node));
+    }
+  }
+
+  void union(HashMap<T, T> reps, T rep1, T rep2) {
+    reps.replace(rep1, rep2);
+  }
+}
+
+// CompareByWeight as it was
+class BaselineCompareByWeight implements Comparator<BaselineEdge> {
+  @Override
+  public int compare(BaselineEdge o1, BaselineEdge o2) {
+    return o1.weight - o2.weight;
+  }
+}
@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import mazebench.MazeOps;
+
+// the maze operations the benchmarks run, see MazeOps
+// it is in the unnamed package with the maze so it can use its classes
+public class MazeOpsImpl implements MazeOps {
+  // a game to call the MazeGame methods that do not depend on its maze
+  MazeGame helper = new MazeGame(new MazeGrid(1, 1), 1);
+
+  public Object makeConnectedBoard(int width, int height, long seed) {
+    return this.helper.makeConnectedBoard(width, height, new Random(seed));
+  }
+
+  public Object generateGrid(int width, int height, long seed) {
+    return MazeGrid.generate(width, height, new Random(seed));
+  }
+
+  public Object generateParallel(int width, int height, long seed) {
+    return new ParallelMazeGenerator().generate(width, height, seed);
+  }
+
+  public Object generateParallel(int width, int height, long seed, int threads) {
+    return new ParallelMazeGenerator(threads).generate(width, height, seed);
+  }
+
+  public Object prepareKruskal(int width, int height, long seed) {
+    ArrayList<Edge> edges = this.edgesOf(width, height, seed);
+    this.helper.sortEdges(edges);
+    return new KruskalMaze(width * height, edges);
+  }
+
+  public Object runKruskal(Object kruskal) {
+    return ((KruskalMaze) kruskal).algorithm();
+  }
+
+  public Object preparePackedKruskal(int width, int height, long seed) {
+    PackedEdges edges = MazeGrid.boardEdges(width, height, new Random(seed));
+    edges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    return new KruskalMaze(width * height, edges);
+  }
+
+  public Object runPackedKruskal(Object kruskal) {
+    return ((KruskalMaze) kruskal).packedAlgorithm();
+  }
+
+  public Object prepareEdges(int width, int height, long seed) {
+    return this.edgesOf(width, height, seed);
+  }
+
+  @SuppressWarnings("unchecked")
+  public Object sortEdges(Object edges) {
+    ArrayList<Edge> copy = new ArrayList<Edge>((ArrayList<Edge>) edges);
+    this.helper.sortEdges(copy);
+    return copy;
+  }
+
+  public Object preparePackedEdges(int width, int height, long seed) {
+    return MazeGrid.boardEdges(width, height, new Random(seed));
+  }
+
+  public Object countingSortEdges(Object edges) {
+    PackedEdges original = (PackedEdges) edges;
+    PackedEdges copy = new PackedEdges(original.size);
+    for (int e = 0; e < original.size; e += 1) {
+      copy.add(original.from[e], original.to[e], original.weight[e]);
+    }
+    copy.sortByWeight(MazeGame.WEIGHT_BOUND);
+    return copy;
+  }
+
+  public int hashUtilsFindUnion(int size, long seed) {
+    HashUtils<Node> util = new HashUtils<Node>();
+    HashMap<Node, Node> reps = new HashMap<Node, Node>();
+    Node[] nodes = new Node[size];
+    for (int i = 0; i < size; i += 1) {
+      nodes[i] = new Node(i);
+      reps.put(nodes[i], nodes[i]);
+    }
+    Random rand = new Random(seed);
+    int unions = 0;
+    while (unions < size - 1) {
+      Node rep1 = util.find(reps, nodes[rand.nextInt(size)]);
+      Node rep2 = util.find(reps, nodes[rand.nextInt(size)]);
+      if (rep1 != rep2) {
+        util.union(reps, rep1, rep2);
+        unions += 1;
+      }
+    }
+    return unions;
+  }
+
+  public int unionFindFindUnion(int size, long seed) {
+    UnionFind sets = new UnionFind(size);
+    Random rand = new Random(seed);
+    int unions = 0;
+    while (unions < size - 1) {
+      if (sets.union(rand.nextInt(size), rand.nextInt(size))) {
+        unions += 1;
+      }
+    }
+    return unions;
+  }
+
+  public Object makeGame(int width, int height, int squareSize, long seed) {
+    return new MazeGame(MazeGrid.generate(width, height, new Random(seed)), squareSize);
+  }
+
+  public Object drawMaze(Object game) {
+    return ((MazeGame) game).drawMaze();
+  }
+
+  public Object makeScene(Object game) {
+    return ((MazeGame) game).makeScene();
+  }
+
+  public Object rasterizeMaze(Object game) {
+    return ((MazeGame) game).rasterizeMaze();
+  }
+
+  public void exportPng(Object grid, int squareSize) throws IOException {
+    new MazeExporter((MazeGrid) grid, squareSize).writePng(OutputStream.nullOutputStream());
+  }
+
+  public void exportSvg(Object grid, int squareSize) throws IOException {
+    new MazeExporter((MazeGrid) grid, squareSize).writeSvg(Writer.nullWriter());
+  }
+
+  public Object solve(Object grid, int algorithm) {
+    return new MazeSolver((MazeGrid) grid, algorithm).solve();
+  }
+
+  public Object baselineMakeConnectedBoard(int width, int height, long seed) {
+    return BaselineMaze.makeConnectedBoard(width, height, new Random(seed));
+  }
+
+  public Object baselineDrawMaze(Object board, int squareSize) {
+    return BaselineMaze.drawBoard(board, squareSize);
+  }
+
+  public int baselineHashUtilsFindUnion(int size, long seed) {
+    return BaselineMaze.hashUtilsFindUnion(size, seed);
+  }
+
+  // returns every Edge of a board of the given size, connected to Nodes
+  ArrayList<Edge> edgesOf(int width, int height, long seed) {
+    PackedEdges packed = MazeGrid.boardEdges(width, height, new Random(seed));
+    Node[] nodes = new Node[width * height];
+    for (int i = 0; i < nodes.length; i += 1) {
+      nodes[i] = new Node(i);
+    }
+    ArrayList<Edge> edges = new ArrayList<Edge>(packed.size);
+    for (int e = 0; e < packed.size; e += 1) {
+      edges.add(nodes[packed.from[e]].connect(nodes[packed.to[e]], packed.weight[e]));
+    }
+    return edges;
+  }
+}
@@ -0,0 +1,63 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// how long the maze took before any of the performance work, from the
+// frozen copy in BaselineMaze, to compare with the same names in
+// GenerationBenchmarks and RenderBenchmarks
+// the baseline is quadratic in the number of edges, so it only gets the
+// small boards
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "-Xss64m", "-Djava.awt.headless=true" })
+public class BaselineBenchmarks {
+  static final long SEED = 0;
+
+  @Param({ "20x20", "100x60" })
+  public String size;
+
+  @Param({ "10" })
+  public int squareSize;
+
+  MazeOps ops;
+  BoardSize board;
+  Object baselineBoard;
+
+  @Setup
+  public void setUp() {
+    this.ops = MazeOps.load();
+    this.board = new BoardSize(this.size);
+    this.baselineBoard = this.ops.baselineMakeConnectedBoard(this.board.width,
+        this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object makeConnectedBoard() {
+    return this.ops.baselineMakeConnectedBoard(this.board.width, this.board.height, SEED);
+  }
+
+  @Benchmark
+  public int hashUtilsFindUnion() {
+    return this.ops.baselineHashUtilsFindUnion(this.board.width * this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object drawMaze() {
+    return this.ops.baselineDrawMaze(this.baselineBoard, this.squareSize);
+  }
+}
@@ -0,0 +1,13 @@
+package mazebench;
+
+// the width and height of a board, read from a benchmark parameter like "100x60"
+final class BoardSize {
+  final int width;
+  final int height;
+
+  BoardSize(String param) {
+    int x = param.indexOf('x');
+    this.width = Integer.parseInt(param.substring(0, x));
+    this.height = Integer.parseInt(param.substring(x + 1));
+  }
+}
@@ -0,0 +1,55 @@
+package mazebench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// how long it takes to export a maze to PNG and SVG, with the output thrown away
+// the mazes are made in parallel, since MazeGrid.generate needs every edge
+// of a 10000x10000 board in memory at once
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "-Djava.awt.headless=true" })
+public class ExportBenchmarks {
+  static final long SEED = 0;
+
+  @Param({ "1000x1000", "10000x10000" })
+  public String size;
+
+  @Param({ "1" })
+  public int squareSize;
+
+  MazeOps ops;
+  Object grid;
+
+  @Setup
+  public void setUp() {
+    this.ops = MazeOps.load();
+    BoardSize board = new BoardSize(this.size);
+    this.grid = this.ops.generateParallel(board.width, board.height, SEED);
+  }
+
+  @Benchmark
+  public void exportPng() throws IOException {
+    this.ops.exportPng(this.grid, this.squareSize);
+  }
+
+  @Benchmark
+  public void exportSvg() throws IOException {
+    this.ops.exportSvg(this.grid, this.squareSize);
+  }
+}
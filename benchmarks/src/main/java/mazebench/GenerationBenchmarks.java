@@ -0,0 +1,99 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// how long it takes to make a maze, whole and by phase
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class GenerationBenchmarks {
+  static final long SEED = 0;
+
+  @Param({ "20x20", "100x60", "1000x1000", "4000x4000" })
+  public String size;
+
+  MazeOps ops;
+  BoardSize board;
+  Object kruskal;
+  Object packedKruskal;
+  Object edges;
+  Object packedEdges;
+  Object grid;
+
+  @Setup
+  public void setUp() {
+    this.ops = MazeOps.load();
+    this.board = new BoardSize(this.size);
+    this.kruskal = this.ops.prepareKruskal(this.board.width, this.board.height, SEED);
+    this.packedKruskal = this.ops.preparePackedKruskal(this.board.width, this.board.height,
+        SEED);
+    this.edges = this.ops.prepareEdges(this.board.width, this.board.height, SEED);
+    this.packedEdges = this.ops.preparePackedEdges(this.board.width, this.board.height, SEED);
+    this.grid = this.ops.generateGrid(this.board.width, this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object makeConnectedBoard() {
+    return this.ops.makeConnectedBoard(this.board.width, this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object generateGrid() {
+    return this.ops.generateGrid(this.board.width, this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object generateParallel() {
+    return this.ops.generateParallel(this.board.width, this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object kruskalAlgorithm() {
+    return this.ops.runKruskal(this.kruskal);
+  }
+
+  @Benchmark
+  public Object kruskalPackedAlgorithm() {
+    return this.ops.runPackedKruskal(this.packedKruskal);
+  }
+
+  @Benchmark
+  public Object sortEdges() {
+    return this.ops.sortEdges(this.edges);
+  }
+
+  @Benchmark
+  public Object countingSortEdges() {
+    return this.ops.countingSortEdges(this.packedEdges);
+  }
+
+  @Benchmark
+  public int hashUtilsFindUnion() {
+    return this.ops.hashUtilsFindUnion(this.board.width * this.board.height, SEED);
+  }
+
+  @Benchmark
+  public int unionFindFindUnion() {
+    return this.ops.unionFindFindUnion(this.board.width * this.board.height, SEED);
+  }
+
+  @Benchmark
+  public Object solveBfs() {
+    return this.ops.solve(this.grid, 0);
+  }
+}
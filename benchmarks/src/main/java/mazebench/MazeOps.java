@@ -0,0 +1,95 @@
+package mazebench;
+
+import java.io.IOException;
+
+// what the benchmarks can do to a maze
+// the maze classes live in the unnamed package, which a named package (and
+// so JMH's generated code) cannot refer to, so the benchmarks reach them
+// through this interface, implemented by MazeOpsImpl in the unnamed package
+// the objects handed back are whatever maze class the method names
+public interface MazeOps {
+  // MazeGame.makeConnectedBoard, the whole Node graph
+  Object makeConnectedBoard(int width, int height, long seed);
+
+  // MazeGrid.generate, the bit grid
+  Object generateGrid(int width, int height, long seed);
+
+  // ParallelMazeGenerator.generate on the common pool
+  Object generateParallel(int width, int height, long seed);
+
+  // ParallelMazeGenerator.generate on a pool of the given number of threads,
+  // made for the maze and shut down after, like the generator does itself
+  Object generateParallel(int width, int height, long seed, int threads);
+
+  // a KruskalMaze over every Edge of a board, sorted
+  Object prepareKruskal(int width, int height, long seed);
+
+  // KruskalMaze.algorithm on a KruskalMaze from prepareKruskal
+  Object runKruskal(Object kruskal);
+
+  // a KruskalMaze over the PackedEdges of a board, sorted
+  Object preparePackedKruskal(int width, int height, long seed);
+
+  // KruskalMaze.packedAlgorithm on a KruskalMaze from preparePackedKruskal
+  Object runPackedKruskal(Object kruskal);
+
+  // every Edge of a board, in the order the weights were drawn
+  Object prepareEdges(int width, int height, long seed);
+
+  // MazeGame.sortEdges on a copy of the edges from prepareEdges
+  Object sortEdges(Object edges);
+
+  // the PackedEdges of a board, in the order the weights were drawn
+  Object preparePackedEdges(int width, int height, long seed);
+
+  // PackedEdges.sortByWeight on a copy of the edges from preparePackedEdges
+  Object countingSortEdges(Object edges);
+
+  // joins size nodes into one set in a random order with HashUtils find and
+  // union over a HashMap, returning how many unions happened
+  int hashUtilsFindUnion(int size, long seed);
+
+  // the same with a UnionFind
+  int unionFindFindUnion(int size, long seed);
+
+  // a MazeGame over a generated maze
+  Object makeGame(int width, int height, int squareSize, long seed);
+
+  // MazeGame.drawMaze
+  Object drawMaze(Object game);
+
+  // MazeGame.makeScene
+  Object makeScene(Object game);
+
+  // MazeGame.rasterizeMaze
+  Object rasterizeMaze(Object game);
+
+  // MazeExporter.writePng of a MazeGrid to a stream that throws the bytes away
+  void exportPng(Object grid, int squareSize) throws IOException;
+
+  // MazeExporter.writeSvg of a MazeGrid to a writer that throws the text away
+  void exportSvg(Object grid, int squareSize) throws IOException;
+
+  // MazeSolver.solve from the top left to the bottom right of a MazeGrid,
+  // with MazeSolver.BFS (0), DFS (1) or ASTAR (2)
+  Object solve(Object grid, int algorithm);
+
+  // the frozen baseline's makeConnectedBoard, see BaselineMaze
+  Object baselineMakeConnectedBoard(int width, int height, long seed);
+
+  // the frozen baseline's drawMaze of a board from baselineMakeConnectedBoard
+  Object baselineDrawMaze(Object board, int squareSize);
+
+  // hashUtilsFindUnion with the frozen baseline's HashUtils
+  int baselineHashUtilsFindUnion(int size, long seed);
+
+  // finds the MazeOpsImpl in the unnamed package
+  static MazeOps load() {
+    try {
+      return (MazeOps) Class.forName("MazeOpsImpl").getDeclaredConstructor().newInstance();
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("MazeOpsImpl is not on the classpath", e);
+    }
+  }
+}
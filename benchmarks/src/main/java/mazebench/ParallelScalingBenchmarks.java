@@ -0,0 +1,51 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// how the time to make a maze with ParallelMazeGenerator goes down as it
+// gets more threads, next to MazeGrid.generate on one core
+// the speedup for t threads is generateParallel at threads=1 over
+// generateParallel at threads=t, which stops growing past the number of
+// cores the machine has, for example:
+//   java -jar benchmarks.jar ParallelScalingBenchmarks -p size=4000x4000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class ParallelScalingBenchmarks {
+  static final long SEED = 0;
+
+  @Param({ "1000x1000", "4000x4000" })
+  public String size;
+
+  @Param({ "1", "2", "4", "8", "16" })
+  public int threads;
+
+  MazeOps ops;
+  BoardSize board;
+
+  @Setup
+  public void setUp() {
+    this.ops = MazeOps.load();
+    this.board = new BoardSize(this.size);
+  }
+
+  @Benchmark
+  public Object generateParallel() {
+    return this.ops.generateParallel(this.board.width, this.board.height, SEED, this.threads);
+  }
+}
@@ -0,0 +1,59 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// how long it takes to draw a maze
+// drawMaze builds several images per cell, so 4000x4000 is left out
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "-Djava.awt.headless=true" })
+public class RenderBenchmarks {
+  static final long SEED = 0;
+
+  @Param({ "20x20", "100x60", "1000x1000" })
+  public String size;
+
+  @Param({ "10" })
+  public int squareSize;
+
+  MazeOps ops;
+  Object game;
+
+  @Setup
+  public void setUp() {
+    this.ops = MazeOps.load();
+    BoardSize board = new BoardSize(this.size);
+    this.game = this.ops.makeGame(board.width, board.height, this.squareSize, SEED);
+  }
+
+  @Benchmark
+  public Object drawMaze() {
+    return this.ops.drawMaze(this.game);
+  }
+
+  // after the first call this reuses the cached image
+  @Benchmark
+  public Object makeScene() {
+    return this.ops.makeScene(this.game);
+  }
+
+  @Benchmark
+  public Object rasterizeMaze() {
+    return this.ops.rasterizeMaze(this.game);
+  }
+}
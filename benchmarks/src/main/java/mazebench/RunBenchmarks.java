@@ -0,0 +1,22 @@
+package mazebench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the benchmarks named on the command line (all of them by default),
+// taking the usual JMH options, always with the gc profiler so allocation
+// rates are reported next to the times
+// for example, only the 100x60 generation benchmarks:
+//   java -jar benchmarks.jar GenerationBenchmarks -p size=100x60
+public class RunBenchmarks {
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    new Runner(new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,162 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// generates a batch of mazes at once, handing each to a sink as soon as it
+// is done, in whatever order they finish
+// at most parallelism mazes are being made or waiting on the sink at a time:
+// the next maze is not started until one of them has been taken by the sink,
+// so a slow sink holds back the batch instead of letting mazes pile up
+// each maze is made with MazeGrid.generate and a Random with its seed, so it
+// is the same maze makeConnectedBoard makes from that seed
+// the mazes run on virtual threads when the Java running this has them
+// (21 and up), and on a pool of parallelism platform threads when it does not
+class BatchMazeGenerator {
+  int parallelism;
+
+  BatchMazeGenerator(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Cannot make " + parallelism + " mazes at a time");
+    }
+    this.parallelism = parallelism;
+  }
+
+  // EFFECT: makes every maze of the given list, handing each one to the sink
+  // (one at a time, so the sink need not be thread safe, unless the sink
+  // says it is)
+  // returns how many mazes were handed to the sink, having stopped starting
+  // new ones once any maze or the sink threw, which is then thrown from here
+  int generate(List<MazeSpec> specs, MazeSink sink) throws IOException, InterruptedException {
+    ExecutorService threads = this.makeThreads();
+    Semaphore permits = new Semaphore(this.parallelism);
+    BatchProgress progress = new BatchProgress();
+    try {
+      for (MazeSpec spec : specs) {
+        permits.acquire();
+        if (progress.failure != null) {
+          permits.release();
+          break;
+        }
+        threads.execute(new GenerateMazeTask(spec, sink, permits, progress));
+      }
+      // every permit is back once every maze started has been handed over
+      permits.acquire(this.parallelism);
+    }
+    finally {
+      threads.shutdown();
+      if (!threads.awaitTermination(1, TimeUnit.MINUTES)) {
+        threads.shutdownNow();
+        progress.fail(new IllegalStateException(
+            "Mazes were still being made a minute after the batch stopped"));
+      }
+    }
+    if (progress.failure instanceof IOException) {
+      throw (IOException) progress.failure;
+    }
+    else if (progress.failure instanceof RuntimeException) {
+      throw (RuntimeException) progress.failure;
+    }
+    else if (progress.failure != null) {
+      throw new IllegalStateException("A maze could not be made", progress.failure);
+    }
+    return progress.done;
+  }
+
+  // returns the threads to make the mazes on: a virtual thread per maze if
+  // this Java has them, otherwise a fixed pool of daemon threads
+  ExecutorService makeThreads() {
+    try {
+      Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) virtual.invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      return Executors.newFixedThreadPool(this.parallelism, new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "maze-batch");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+  }
+}
+
+// how far along a batch is, shared by its tasks
+// the counts are kept under its own lock, which is only ever held for a
+// moment, and the sink is called under sinkLock, a ReentrantLock, which a
+// virtual thread can wait on without holding onto its carrier thread
+class BatchProgress {
+  // how many mazes have been handed to the sink
+  int done;
+  // the first thing thrown by a maze or the sink, if anything was
+  volatile Throwable failure;
+  // held while a sink that is not thread safe takes a maze
+  ReentrantLock sinkLock = new ReentrantLock();
+
+  // EFFECT: counts one more maze handed to the sink
+  synchronized void finished() {
+    this.done += 1;
+  }
+
+  // EFFECT: remembers the given failure, if it is the first
+  synchronized void fail(Throwable e) {
+    if (this.failure == null) {
+      this.failure = e;
+    }
+  }
+}
+
+// the task of making one maze of a batch and handing it to the sink
+class GenerateMazeTask implements Runnable {
+  MazeSpec spec;
+  MazeSink sink;
+  Semaphore permits;
+  BatchProgress progress;
+
+  GenerateMazeTask(MazeSpec spec, MazeSink sink, Semaphore permits, BatchProgress progress) {
+    this.spec = spec;
+    this.sink = sink;
+    this.permits = permits;
+    this.progress = progress;
+  }
+
+  public void run() {
+    try {
+      MazeGrid grid = MazeGrid.generate(this.spec.width, this.spec.height,
+          new Random(this.spec.seed));
+      if (this.sink.isThreadSafe()) {
+        this.handOver(grid);
+      }
+      else {
+        this.progress.sinkLock.lock();
+        try {
+          this.handOver(grid);
+        }
+        finally {
+          this.progress.sinkLock.unlock();
+        }
+      }
+    }
+    catch (Throwable e) {
+      this.progress.fail(e);
+    }
+    finally {
+      this.permits.release();
+    }
+  }
+
+  // EFFECT: hands the given maze to the sink, unless the batch has failed
+  void handOver(MazeGrid grid) throws IOException {
+    if (this.progress.failure == null) {
+      this.sink.accept(this.spec, grid);
+      this.progress.finished();
+    }
+  }
+}
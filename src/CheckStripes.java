@@ -0,0 +1,31 @@
+import java.util.concurrent.RecursiveAction;
+
+// the task of checking the stripes numbered start (inclusive) to end
+// (exclusive), split in half until there is only one stripe left to do
+class CheckStripes extends RecursiveAction {
+  static final long serialVersionUID = 1L;
+
+  StripeChecks checks;
+  int start;
+  int end;
+
+  CheckStripes(StripeChecks checks, int start, int end) {
+    this.checks = checks;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  protected void compute() {
+    if (this.end - this.start <= 1) {
+      for (int s = this.start; s < this.end; s += 1) {
+        MazeValidator.checkStripe(this.checks, s);
+      }
+    }
+    else {
+      int mid = (this.start + this.end) >>> 1;
+      RecursiveAction.invokeAll(new CheckStripes(this.checks, this.start, mid),
+          new CheckStripes(this.checks, mid, this.end));
+    }
+  }
+}
@@ -0,0 +1,12 @@
+import java.util.Comparator;
+
+class CompareByWeight implements Comparator<Edge> {
+
+  // the difference of the two weights, done in a long and clamped so that
+  // weights far apart cannot overflow into the wrong sign
+  @Override
+  public int compare(Edge o1, Edge o2) {
+    long diff = (long) o1.weight - o2.weight;
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, diff));
+  }
+}
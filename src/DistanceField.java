@@ -0,0 +1,113 @@
+import java.awt.Color;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// how far every cell of a maze is from the start (the top left cell) and
+// from the goal (the bottom right cell), counted in passages walked
+// both are found by breadth first searches that go a level at a time, with
+// the cells of a big level looked at on many cores at once, and the numbers
+// hints, difficulty and heatmaps need are worked out along the way
+// the levels of a perfect maze are seldom big, so the search from the start
+// and the search from the goal are also run at the same time
+// a distance field is only good for the version of the maze it was made
+// from, see isCurrent
+class DistanceField {
+  // the distance of a cell that cannot be reached
+  static final int UNREACHED = -1;
+  // the colors of a heatmap, from the cells nearest the start (blue) to the
+  // farthest (red)
+  static final Color[] HEAT = DistanceField.makeHeat(32);
+
+  MazeGrid grid;
+  int version;
+  int[] fromStart;
+  int[] fromGoal;
+  // how many passages are on the way from the start to the goal, or
+  // UNREACHED if there is no way
+  int solutionLength;
+  // how many cells that can be reached from the start have only one passage
+  int deadEnds;
+  // the cell farthest from the start, and how far that is
+  int farthestCell;
+  int farthestDistance;
+  // how many passages are on the longest way between two cells that can be
+  // reached from the start, if the maze is perfect (with loops it is only
+  // the longest of the shortest ways from farthestCell)
+  int longestPath;
+
+  DistanceField(MazeGrid grid, ForkJoinPool pool) {
+    this.grid = grid;
+    this.version = grid.version;
+    if (grid.cellCount() == 0) {
+      this.fromStart = new int[0];
+      this.fromGoal = new int[0];
+      this.solutionLength = UNREACHED;
+      return;
+    }
+    int goalCell = grid.cellCount() - 1;
+    LevelSearch[] searches = new LevelSearch[2];
+    pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(
+        ForkJoinTask.adapt(() -> searches[0] = new LevelSearch(grid, pool, 0)),
+        ForkJoinTask.adapt(() -> searches[1] = new LevelSearch(grid, pool, goalCell)))));
+    LevelSearch start = searches[0];
+    this.fromStart = start.distances;
+    this.deadEnds = start.deadEnds;
+    this.farthestCell = start.lastCell;
+    this.farthestDistance = start.depth;
+    this.fromGoal = searches[1].distances;
+    this.solutionLength = this.fromStart[goalCell];
+    // in a tree the cell farthest from any cell is at one end of a longest path
+    this.longestPath = new LevelSearch(grid, pool, this.farthestCell).depth;
+  }
+
+  // uses the common pool, which has a thread for every core
+  DistanceField(MazeGrid grid) {
+    this(grid, ForkJoinPool.commonPool());
+  }
+
+  // returns the given number of colors going around the color wheel from blue to red
+  static Color[] makeHeat(int count) {
+    Color[] heat = new Color[count];
+    for (int i = 0; i < count; i += 1) {
+      heat[i] = Color.getHSBColor(0.66f * (count - 1 - i) / (count - 1), 0.8f, 1.0f);
+    }
+    return heat;
+  }
+
+  // returns the heatmap color of the given cell, gray if it cannot be reached
+  Color heatColor(int cell) {
+    int distance = this.fromStart[cell];
+    if (distance == UNREACHED) {
+      return Color.gray;
+    }
+    return HEAT[(int) ((long) distance * (HEAT.length - 1) / Math.max(1, this.farthestDistance))];
+  }
+
+  // returns true if this was made from the given maze as it is now
+  boolean isCurrent(MazeGrid grid) {
+    return this.grid == grid && this.version == grid.version;
+  }
+
+  // returns true if the given cell is on a shortest way from the start to the goal
+  boolean isOnSolution(int cell) {
+    return this.solutionLength != UNREACHED
+        && this.fromStart[cell] + this.fromGoal[cell] == this.solutionLength;
+  }
+
+  // returns the neighbor of the given cell that is a step closer to the goal,
+  // or -1 if the cell is the goal or cannot reach it
+  int hint(int cell) {
+    if (this.fromGoal[cell] <= 0) {
+      return -1;
+    }
+    int x = cell % this.grid.width;
+    int y = cell / this.grid.width;
+    for (int direction = MazeGrid.RIGHT; direction <= MazeGrid.UP; direction += 1) {
+      int next = LevelSearch.neighbor(this.grid, x, y, direction);
+      if (next >= 0 && this.fromGoal[next] == this.fromGoal[cell] - 1) {
+        return next;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,23 @@
+// represents an edge that connects the two nodes
+class Edge {
+  Node from, to;
+  int weight; // how expensive is the edge;
+
+  public Edge(Node from, Node to, int weight) {
+    this.from = from;
+    this.to = to;
+    this.weight = weight;
+  }
+
+  // returns true if this edge connects the two given Nodes
+  public boolean connectsThisToThat(Node n1, Node n2) {
+    return (this.from.equals(n1) && this.to.equals(n2))
+        || (this.from.equals(n2) && this.to.equals(n1));
+  }
+
+  // removes this edge from both from and to
+  public void removeThisEdge() {
+    this.from.remove(this);
+    this.to.remove(this);
+  }
+}
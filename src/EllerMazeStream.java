@@ -0,0 +1,146 @@
+import java.util.Random;
+
+// generates a maze of a fixed width one row at a time with Eller's algo,
+// so the maze can be as tall as anyone wants while only the sets of the
+// current row are kept, which takes memory in proportion to the width
+// every row handed out is part of one perfect maze: each set of cells in a
+// row is joined to the rows above it in exactly one way, and lastRow joins
+// whatever sets are left so the maze can end at any row
+class EllerMazeStream {
+  int width;
+  Random rand;
+  // the set each cell of the current row is in, numbered 0 .. width - 1
+  int[] sets;
+  // a union-find over the set numbers, used while joining cells of a row
+  // (sets started in this row are numbered from width up, so it takes 2 * width)
+  int[] parent;
+  // how many cells of the current row are in each set, and whether a set
+  // has gone down to the next row yet
+  int[] remaining;
+  boolean[] wentDown;
+  // gives the sets of a row new numbers from 0 up
+  int[] renumber;
+  // the row handed out last, reused for the next one
+  MazeRow row;
+  // set once lastRow has been handed out
+  boolean finished;
+
+  EllerMazeStream(int width, Random rand) {
+    if (width <= 0) {
+      throw new IllegalArgumentException("A maze cannot be " + width + " cells wide");
+    }
+    this.width = width;
+    this.rand = rand;
+    this.sets = new int[width];
+    this.parent = new int[2 * width];
+    this.remaining = new int[2 * width];
+    this.wentDown = new boolean[2 * width];
+    this.renumber = new int[2 * width];
+    this.row = new MazeRow(width);
+    this.row.index = -1;
+    // the first row has nothing above it, so every cell is its own set
+    for (int x = 0; x < width; x += 1) {
+      this.sets[x] = width + x;
+    }
+  }
+
+  // returns the next row of the maze, with its passages right and down
+  // the same MazeRow is reused every time, so copy it to keep it
+  MazeRow nextRow() {
+    return this.makeRow(false);
+  }
+
+  // returns the last row of the maze, which joins up every set still apart
+  // and has no passages down, after which there are no more rows
+  MazeRow lastRow() {
+    return this.makeRow(true);
+  }
+
+  // EFFECT: hands the next count rows to the given consumer, finishing the
+  // maze with lastRow if asked to
+  void generate(long count, MazeRowConsumer consumer, boolean finish) {
+    for (long i = 0; i < count; i += 1) {
+      if (finish && i == count - 1) {
+        consumer.accept(this.lastRow());
+      }
+      else {
+        consumer.accept(this.nextRow());
+      }
+    }
+  }
+
+  // returns the next row, the last one if isLast
+  MazeRow makeRow(boolean isLast) {
+    if (this.finished) {
+      throw new IllegalStateException("The maze has already ended");
+    }
+    this.finished = isLast;
+    MazeRow result = this.row;
+    result.clear();
+    result.index += 1;
+    for (int s = 0; s < 2 * this.width; s += 1) {
+      this.parent[s] = s;
+      this.remaining[s] = 0;
+      this.wentDown[s] = false;
+    }
+    // join neighbors that are in different sets, every time on the last row
+    for (int x = 0; x + 1 < this.width; x += 1) {
+      int set1 = this.find(this.sets[x]);
+      int set2 = this.find(this.sets[x + 1]);
+      if (set1 != set2 && (isLast || this.rand.nextBoolean())) {
+        this.parent[set1] = set2;
+        result.setRight(x);
+      }
+    }
+    for (int x = 0; x < this.width; x += 1) {
+      this.sets[x] = this.find(this.sets[x]);
+      this.remaining[this.sets[x]] += 1;
+    }
+    if (isLast) {
+      return result;
+    }
+    // every set goes down at least once: the last cell of a set that has not
+    // gone down yet always does
+    for (int x = 0; x < this.width; x += 1) {
+      int set = this.sets[x];
+      this.remaining[set] -= 1;
+      if (this.rand.nextBoolean() || (this.remaining[set] == 0 && !this.wentDown[set])) {
+        this.wentDown[set] = true;
+        result.setDown(x);
+      }
+    }
+    // the cells below carry their set down or start a new one, then the sets
+    // are numbered from 0 again so the numbers never grow past 2 * width
+    for (int s = 0; s < 2 * this.width; s += 1) {
+      this.renumber[s] = -1;
+    }
+    int next = 0;
+    for (int x = 0; x < this.width; x += 1) {
+      if (result.isDown(x)) {
+        if (this.renumber[this.sets[x]] < 0) {
+          this.renumber[this.sets[x]] = next;
+          next += 1;
+        }
+        this.sets[x] = this.renumber[this.sets[x]];
+      }
+      else {
+        this.sets[x] = -1;
+      }
+    }
+    for (int x = 0; x < this.width; x += 1) {
+      if (this.sets[x] < 0) {
+        this.sets[x] = this.width + x;
+      }
+    }
+    return result;
+  }
+
+  // returns the representative of the given set number
+  int find(int set) {
+    while (this.parent[set] != set) {
+      this.parent[set] = this.parent[this.parent[set]];
+      set = this.parent[set];
+    }
+    return set;
+  }
+}
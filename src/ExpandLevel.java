@@ -0,0 +1,47 @@
+import java.util.concurrent.RecursiveAction;
+
+// the task of looking at the cells start (inclusive) to end (exclusive) of a
+// level of a search, split in half until there is only one chunk left to do
+class ExpandLevel extends RecursiveAction {
+  static final long serialVersionUID = 1L;
+
+  LevelSearch search;
+  int[] level;
+  int start;
+  int end;
+
+  ExpandLevel(LevelSearch search, int[] level, int start, int end) {
+    this.search = search;
+    this.level = level;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  protected void compute() {
+    int chunk = this.search.chunk;
+    int chunks = (this.end - this.start + chunk - 1) / chunk;
+    if (chunks <= 1) {
+      // each cell can reach at most all of its neighbors but the one it was
+      // reached from, and the source all of them
+      int degree = this.search.board.maxDegree();
+      int[] found = new int[Math.max(0, degree - 1) * (this.end - this.start) + 1];
+      int size = 0;
+      int deadEnds = 0;
+      for (int k = this.start; k < this.end; k += 1) {
+        size = this.search.expand(this.level[k], found, size, true);
+        if (this.search.isDeadEnd(this.level[k])) {
+          deadEnds += 1;
+        }
+      }
+      this.search.chunkFound[this.start / chunk] = found;
+      this.search.chunkSizes[this.start / chunk] = size;
+      this.search.chunkDeadEnds[this.start / chunk] = deadEnds;
+    }
+    else {
+      int mid = this.start + chunks / 2 * chunk;
+      RecursiveAction.invokeAll(new ExpandLevel(this.search, this.level, this.start, mid),
+          new ExpandLevel(this.search, this.level, mid, this.end));
+    }
+  }
+}
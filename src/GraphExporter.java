@@ -0,0 +1,168 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// writes a maze on any MazeTopology to an SVG file, reading its passages
+// straight from the MazeGraph: the cells are on a black background, every
+// open passage between cells drawn next to each other is a gray corridor
+// from the center of one to the center of the other, and a passage between
+// cells drawn apart (around the edge of a torus, or up and down between
+// levels) is a dot at both ends, colored by the way the passage leaves that
+// end (the neighbor number of MazeTopology.neighbor), so on a torus the dot
+// for wrapping around to the left differs from the one for the right, and
+// on a LayeredTopology a way down differs from a way up
+// the start is the green cell 0 and the goal the magenta last cell
+class GraphExporter {
+  // the color of the dots for passages that leave a cell as each neighbor
+  // number, yellow, cyan, orange, light blue, red and light green, none of
+  // them the start's or the goal's
+  static final String[] DOT_COLORS = new String[] { "#ffff00", "#00ffff", "#ff8000",
+      "#8080ff", "#ff4040", "#80ff80" };
+
+  MazeGraph graph;
+  // how many pixels apart the centers of neighboring cells are
+  int cellPixels;
+
+  GraphExporter(MazeGraph graph, int cellPixels) {
+    if (cellPixels < 2) {
+      throw new IllegalArgumentException("Cells cannot be " + cellPixels + " pixels apart");
+    }
+    this.graph = graph;
+    this.cellPixels = cellPixels;
+  }
+
+  // returns the pixel the given number of cells across or down is at
+  int pixel(double cells) {
+    return (int) Math.round(cells * this.cellPixels);
+  }
+
+  // EFFECT: writes the maze to the given file as an SVG
+  void writeSvg(File file) throws IOException {
+    try (Writer out = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+      this.writeSvg(out);
+    }
+  }
+
+  // EFFECT: writes the maze to the given writer as an SVG, leaving it open
+  // the corridors are one path of lines, and the dots of each neighbor
+  // number another path of lines that go nowhere, drawn with round ends
+  void writeSvg(Writer out) throws IOException {
+    MazeTopology topology = this.graph.topology;
+    int cells = this.graph.cellCount();
+    double right = 0;
+    double bottom = 0;
+    for (int cell = 0; cell < cells; cell += 1) {
+      right = Math.max(right, topology.centerX(cell) + 0.5);
+      bottom = Math.max(bottom, topology.centerY(cell) + 0.5);
+    }
+    int width = Math.max(1, this.pixel(right));
+    int height = Math.max(1, this.pixel(bottom));
+    int corridor = Math.max(1, this.cellPixels / 2);
+    out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\""
+        + height + "\" viewBox=\"0 0 " + width + " " + height + "\">\n");
+    out.write("<rect width=\"" + width + "\" height=\"" + height + "\" fill=\"#000000\"/>\n");
+    out.write("<path fill=\"none\" stroke=\"#808080\" stroke-linecap=\"square\" stroke-width=\""
+        + corridor + "\" d=\"");
+    StringBuilder path = new StringBuilder(MazeExporter.CHUNK_BYTES + 64);
+    this.writePassages(out, path, -1);
+    out.write("\"/>\n");
+    boolean[] dots = this.dotNeighbors();
+    for (int k = 0; k < dots.length; k += 1) {
+      if (dots[k]) {
+        out.write("<path fill=\"none\" stroke=\"" + DOT_COLORS[k % DOT_COLORS.length]
+            + "\" stroke-linecap=\"round\" stroke-width=\"" + corridor + "\" d=\"");
+        this.writePassages(out, path, k);
+        out.write("\"/>\n");
+      }
+    }
+    if (cells > 0) {
+      this.writeEnd(out, 0, "#00ff00");
+      if (cells > 1) {
+        this.writeEnd(out, cells - 1, "#ff00ff");
+      }
+    }
+    out.write("</svg>\n");
+    out.flush();
+  }
+
+  // returns true if the passage between the given cells joins cells drawn
+  // apart from each other
+  boolean isApart(int cell, int next) {
+    MazeTopology topology = this.graph.topology;
+    double dx = topology.centerX(next) - topology.centerX(cell);
+    double dy = topology.centerY(next) - topology.centerY(cell);
+    return dx * dx + dy * dy > 1.5 * 1.5;
+  }
+
+  // returns which neighbor numbers some open passage between cells drawn
+  // apart leaves a cell as, so only those get a path of dots
+  boolean[] dotNeighbors() {
+    MazeTopology topology = this.graph.topology;
+    boolean[] result = new boolean[topology.maxDegree()];
+    for (int cell = 0; cell < this.graph.cellCount(); cell += 1) {
+      for (int k = 0; k < result.length; k += 1) {
+        int next = topology.neighbor(cell, k);
+        if (!result[k] && next >= 0 && this.graph.isConnected(cell, next)
+            && this.isApart(cell, next)) {
+          result[k] = true;
+        }
+      }
+    }
+    return result;
+  }
+
+  // EFFECT: writes the corridors of every cell (each a line to the center of
+  // the cells drawn next to it that it has passages to) if the given
+  // neighbor number is -1, or else the dots of every cell for its passage
+  // to that neighbor if it is drawn apart from it, to the given writer
+  // through the given path, which is empty again after
+  void writePassages(Writer out, StringBuilder path, int dotNeighbor) throws IOException {
+    MazeTopology topology = this.graph.topology;
+    for (int cell = 0; cell < this.graph.cellCount(); cell += 1) {
+      int x = this.pixel(topology.centerX(cell));
+      int y = this.pixel(topology.centerY(cell));
+      if (dotNeighbor >= 0) {
+        int next = topology.neighbor(cell, dotNeighbor);
+        if (next >= 0 && this.graph.isConnected(cell, next) && this.isApart(cell, next)) {
+          GraphExporter.writeLine(out, path, x, y, x, y);
+        }
+        continue;
+      }
+      // a cell with every passage walled off is still drawn
+      GraphExporter.writeLine(out, path, x, y, x, y);
+      for (int s = this.graph.offsets[cell]; s < this.graph.offsets[cell + 1]; s += 1) {
+        int next = this.graph.neighbors[s];
+        if (next < cell && this.graph.open.get(s) && !this.isApart(cell, next)) {
+          GraphExporter.writeLine(out, path, x, y, this.pixel(topology.centerX(next)),
+              this.pixel(topology.centerY(next)));
+        }
+      }
+    }
+    out.append(path);
+    path.setLength(0);
+  }
+
+  // EFFECT: writes a circle of the given color on the given cell
+  void writeEnd(Writer out, int cell, String color) throws IOException {
+    out.write("<circle cx=\"" + this.pixel(this.graph.topology.centerX(cell)) + "\" cy=\""
+        + this.pixel(this.graph.topology.centerY(cell)) + "\" r=\""
+        + Math.max(1, this.cellPixels / 3) + "\" fill=\"" + color + "\"/>\n");
+  }
+
+  // EFFECT: adds a line to the given path, writing the path out to the given
+  // writer once it is CHUNK_BYTES long
+  static void writeLine(Writer out, StringBuilder path, int x1, int y1, int x2, int y2)
+      throws IOException {
+    path.append('M').append(x1).append(' ').append(y1).append('L').append(x2).append(' ')
+        .append(y2);
+    if (path.length() >= MazeExporter.CHUNK_BYTES) {
+      out.append(path);
+      path.setLength(0);
+    }
+  }
+}
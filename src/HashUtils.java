@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+//this class is generalized even though it is only used in one specific case
+//utilities for Hashmaps for Nodes
+//kept for callers that still hold a HashMap of representatives: the map is
+//numbered into a UnionFind the first time it is handed in, the finds and
+//unions are done there (by rank), and every parent the union-find changes is
+//written back to the map, so the two always point the same way. Every find
+//checks the map along the path it walks, and a key put or replaced from
+//outside since then makes it number the map again
+class HashUtils<T> {
+  // the map the union-find was made from, and the number of every key in it
+  HashMap<T, T> reps;
+  HashMap<T, Integer> ids;
+  ArrayList<T> keys;
+  UnionFind sets;
+
+  // returns the highest representative of the given node
+  // EFFECT: points every key on the way directly at that representative
+  T find(HashMap<T, T> reps, T node) {
+    int root = this.rootOf(reps, node);
+    return this.keys.get(root);
+  }
+
+  // EFFECT: merges the sets of rep1 and rep2, hanging the shorter tree under
+  // the taller one, or rep1 under rep2 if they are as tall
+  void union(HashMap<T, T> reps, T rep1, T rep2) {
+    UnionFind numbered = this.sets;
+    int root1 = this.rootOf(reps, rep1);
+    int root2 = this.rootOf(reps, rep2);
+    if (this.sets != numbered) {
+      // rep2's path found an outside change and renumbered the map
+      root1 = this.rootOf(reps, rep1);
+    }
+    if (root1 == root2) {
+      return;
+    }
+    int under = this.sets.rank[root1] > this.sets.rank[root2] ? root2 : root1;
+    int over = under == root1 ? root2 : root1;
+    this.sets.parent[under] = over;
+    if (this.sets.rank[under] == this.sets.rank[over]) {
+      this.sets.rank[over] += 1;
+    }
+    this.sets.count -= 1;
+    reps.put(this.keys.get(under), this.keys.get(over));
+  }
+
+  // returns the number of the highest representative of the given node
+  // EFFECT: numbers the map again first if it was changed from outside
+  int rootOf(HashMap<T, T> reps, T node) {
+    this.track(reps, false);
+    Integer id = this.ids.get(node);
+    int root = id == null ? -1 : this.root(reps, id);
+    if (root < 0) {
+      this.track(reps, true);
+      root = this.root(reps, this.idOf(node));
+    }
+    return root;
+  }
+
+  // returns the number of the highest representative of the given number,
+  // or -1 if the map does not point the way the union-find does on the way up
+  // EFFECT: points every key on the way directly at the representative, in
+  // both the union-find and the map
+  int root(HashMap<T, T> reps, int id) {
+    int root = id;
+    while (true) {
+      int up = this.sets.parent[root];
+      T parent = reps.get(this.keys.get(root));
+      if (parent == null || !parent.equals(this.keys.get(up))) {
+        return -1;
+      }
+      if (up == root) {
+        break;
+      }
+      root = up;
+    }
+    while (this.sets.parent[id] != root) {
+      int next = this.sets.parent[id];
+      this.sets.parent[id] = root;
+      reps.put(this.keys.get(id), this.keys.get(root));
+      id = next;
+    }
+    return root;
+  }
+
+  // returns the number of the given key in the union-find
+  int idOf(T node) {
+    Integer id = this.ids.get(node);
+    if (id == null) {
+      throw new IllegalArgumentException(node + " has no representative");
+    }
+    return id;
+  }
+
+  // EFFECT: numbers the keys of the given map into a new union-find with the
+  // same sets and representatives, if it is not the map already tracked, keys
+  // were added or removed, or stale is true
+  void track(HashMap<T, T> reps, boolean stale) {
+    if (!stale && reps == this.reps && reps.size() == this.keys.size()) {
+      return;
+    }
+    this.reps = reps;
+    this.ids = new HashMap<T, Integer>();
+    this.keys = new ArrayList<T>(reps.keySet());
+    for (int i = 0; i < this.keys.size(); i += 1) {
+      this.ids.put(this.keys.get(i), i);
+    }
+    this.sets = new UnionFind(this.keys.size());
+    for (int i = 0; i < this.keys.size(); i += 1) {
+      int up = this.idOf(reps.get(this.keys.get(i)));
+      if (up != i) {
+        this.sets.parent[i] = up;
+        this.sets.count -= 1;
+      }
+    }
+    // flattens every chain, so each representative is at most one above
+    // the keys in its set, which is what rank 1 means
+    for (int i = 0; i < this.keys.size(); i += 1) {
+      int root = this.root(reps, i);
+      if (root != i) {
+        this.sets.rank[root] = 1;
+      }
+    }
+  }
+}
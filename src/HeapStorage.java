@@ -0,0 +1,34 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// passage bits kept on the heap in an array
+class HeapStorage implements MazeStorage {
+  // lets threads set bits in the same word without losing any
+  static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  long[] words;
+
+  HeapStorage(int wordCount) {
+    this.words = new long[wordCount];
+  }
+
+  public int wordCount() {
+    return this.words.length;
+  }
+
+  public long getWord(int index) {
+    return this.words[index];
+  }
+
+  public void setWord(int index, long value) {
+    this.words[index] = value;
+  }
+
+  public void orWordAtomically(int index, long bits) {
+    WORDS.getAndBitwiseOr(this.words, index, bits);
+  }
+
+  public void flush() {
+    // nothing to write out
+  }
+}
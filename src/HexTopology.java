@@ -0,0 +1,69 @@
+// a width by height grid of hexagons in rows, every odd row pushed half a
+// cell to the right, so a cell is next to two cells in its row and two in
+// each of the rows above and below it
+// the neighbors are left, up left, up right, right, down left and down right
+class HexTopology implements MazeTopology {
+  // how far apart the centers of two rows are, so neighbors are 1 apart
+  static final double ROW_HEIGHT = Math.sqrt(3) / 2;
+
+  int width;
+  int height;
+
+  HexTopology(int width, int height) {
+    if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "A hex board cannot be " + width + " by " + height + " cells");
+    }
+    this.width = width;
+    this.height = height;
+  }
+
+  public int cellCount() {
+    return this.width * this.height;
+  }
+
+  public int maxDegree() {
+    return 6;
+  }
+
+  public int neighbor(int cell, int k) {
+    int x = cell % this.width;
+    int y = cell / this.width;
+    // the column of the cells up or down to the left in this row's layout
+    int diagonal = y % 2 == 0 ? x - 1 : x;
+    if (k == 0) {
+      return this.cellAt(x - 1, y);
+    }
+    else if (k == 1) {
+      return this.cellAt(diagonal, y - 1);
+    }
+    else if (k == 2) {
+      return this.cellAt(diagonal + 1, y - 1);
+    }
+    else if (k == 3) {
+      return this.cellAt(x + 1, y);
+    }
+    else if (k == 4) {
+      return this.cellAt(diagonal, y + 1);
+    }
+    else {
+      return this.cellAt(diagonal + 1, y + 1);
+    }
+  }
+
+  // returns the cell at column x and row y, or -1 if that is off the board
+  int cellAt(int x, int y) {
+    if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+      return -1;
+    }
+    return y * this.width + x;
+  }
+
+  public double centerX(int cell) {
+    return cell % this.width + (cell / this.width % 2 == 0 ? 0.5 : 1.0);
+  }
+
+  public double centerY(int cell) {
+    return cell / this.width * ROW_HEIGHT + 0.5;
+  }
+}
@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// the JFR event for one run of Kruskal's algo
+@Name("maze.Kruskal")
+@Label("Kruskal")
+@Category("Maze")
+@Description("What one run of Kruskal's algorithm did")
+class KruskalEvent extends Event {
+  @Label("Edges Examined")
+  long edgesExamined;
+
+  @Label("Edges Rejected")
+  long edgesRejected;
+
+  @Label("Unions")
+  long unions;
+
+  @Label("Finds")
+  @Description("Only counted while MazeMetrics is enabled")
+  long finds;
+
+  @Label("Max Find Depth")
+  long maxFindDepth;
+
+  @Label("Mean Find Depth")
+  double meanFindDepth;
+}
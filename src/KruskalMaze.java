@@ -0,0 +1,237 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/*
+HashMap<String, String> representatives;
+List<Edge> edgesInTree;
+List<Edge> worklist = all edges in graph, sorted by edge weights;
+ 
+initialize every node's representative to itself
+While(there's more than one tree)
+  Pick the next cheapest edge of the graph: suppose it connects X and Y.
+  If find(representatives, X) equals find(representatives, Y):
+    discard this edge  // they're already connected
+  Else:
+    Record this edge in edgesInTree
+    union(representatives,
+          find(representatives, X),
+          find(representatives, Y))
+Return the edgesInTree
+*/
+
+class KruskalMaze {
+  // the starting representative of every node, may be null when the nodes
+  // already carry dense ids (see the second constructor)
+  HashMap<Node, Node> representatives;
+  // all edges in graph, sorted by edge weights
+  ArrayList<Edge> worklist;
+  // the same, packed into arrays, when the graph is only numbered node ids
+  PackedEdges packedWorklist;
+  // the indices of the worklist edges the algorithm put in the tree
+  BitSet inTree;
+  // all edges that are not used in the algorithm, only made when asked for
+  ArrayList<Edge> leftOver;
+  // how many nodes are in the graph
+  int nodeCount;
+  // the sets, the next edge and how many edges have been picked so far by
+  // the run of the algorithm done a bit at a time by step
+  UnionFind stepSets;
+  int stepNext;
+  int stepPicked;
+
+  KruskalMaze(HashMap<Node, Node> representatives, ArrayList<Edge> worklist) {
+    this.representatives = representatives;
+    this.worklist = worklist;
+    this.nodeCount = representatives.size();
+  }
+
+  // for graphs whose nodes are already numbered 0 .. nodeCount - 1 through
+  // their id field, so no representatives map is needed at all
+  KruskalMaze(int nodeCount, ArrayList<Edge> worklist) {
+    this.representatives = null;
+    this.worklist = worklist;
+    this.nodeCount = nodeCount;
+  }
+
+  // for graphs that are only node ids 0 .. nodeCount - 1 and a sorted list of
+  // packed edges between them, so no Node or Edge has to exist to run
+  KruskalMaze(int nodeCount, PackedEdges packedWorklist) {
+    this.representatives = null;
+    this.packedWorklist = packedWorklist;
+    this.nodeCount = nodeCount;
+  }
+
+  // Kruskal's Algorithm utilized for constructing the maze
+  // walks the worklist once in order, leaving it as it was
+  ArrayList<Edge> algorithm() {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.KRUSKAL, this.worklist.size());
+    try {
+      ArrayList<Node> nodes = new ArrayList<Node>();
+      IdentityHashMap<Node, Integer> index = new IdentityHashMap<Node, Integer>();
+      UnionFind sets = this.makeSets(nodes, index);
+      ArrayList<Edge> resultEdges = new ArrayList<Edge>();
+      this.inTree = new BitSet(this.worklist.size());
+      this.leftOver = null;
+      int next = 0;
+      // we know algo is done when edges in tree equals the number of nodes - 1;
+      for (; resultEdges.size() < this.nodeCount - 1 && next < this.worklist.size(); next += 1) {
+        Edge e = this.worklist.get(next);
+        // the union fails if this edge creates a loop
+        if (sets.union(this.idOf(e.from, index), this.idOf(e.to, index))) {
+          resultEdges.add(e);
+          this.inTree.set(next);
+        }
+      }
+      this.writeBack(sets, nodes, index);
+      MazeMetrics.recordKruskal(sets, next, resultEdges.size());
+      return resultEdges;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // Kruskal's Algorithm over this.packedWorklist
+  // returns the edges of the tree, in the order they were picked
+  PackedEdges packedAlgorithm() {
+    PackedEdges list = this.packedWorklist;
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.KRUSKAL, list.size);
+    try {
+      UnionFind sets = MazeMetrics.makeUnionFind(this.nodeCount);
+      PackedEdges resultEdges = new PackedEdges(Math.max(0, this.nodeCount - 1));
+      this.inTree = new BitSet(list.size);
+      int next = 0;
+      for (; resultEdges.size < this.nodeCount - 1 && next < list.size; next += 1) {
+        if (sets.union(list.from[next], list.to[next])) {
+          resultEdges.add(list.from[next], list.to[next], list.weight[next]);
+          this.inTree.set(next);
+        }
+      }
+      MazeMetrics.recordKruskal(sets, next, resultEdges.size);
+      return resultEdges;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // EFFECT: runs Kruskal's algo over this.packedWorklist for up to the given
+  // number of edges, going on from where the last step stopped, so a big
+  // maze can be made a bit at a time (every edge picked so far is in
+  // this.inTree, and the ones picked by this step are the ones before
+  // this.stepNext that were not before it)
+  // returns true once the tree is done
+  boolean step(int budget) {
+    PackedEdges list = this.packedWorklist;
+    if (this.stepSets == null) {
+      this.stepSets = MazeMetrics.makeUnionFind(this.nodeCount);
+      this.inTree = new BitSet(list.size);
+    }
+    for (int i = 0; i < budget && !this.isDone(); i += 1) {
+      if (this.stepSets.union(list.from[this.stepNext], list.to[this.stepNext])) {
+        this.inTree.set(this.stepNext);
+        this.stepPicked += 1;
+      }
+      this.stepNext += 1;
+    }
+    return this.isDone();
+  }
+
+  // EFFECT: steps through edges until the tree is done or the given number of
+  // nanoseconds has gone by, checking the time every 1024 edges
+  // returns true once the tree is done
+  boolean stepFor(long nanos) {
+    long end = System.nanoTime() + nanos;
+    while (!this.step(1024) && System.nanoTime() < end) {
+      // keeps stepping while there is time left
+    }
+    return this.isDone();
+  }
+
+  // returns true if step has finished the tree, or run out of edges
+  boolean isDone() {
+    return this.stepPicked >= this.nodeCount - 1 || this.stepNext >= this.packedWorklist.size;
+  }
+
+  // returns every edge of the worklist that is not in the tree
+  // EFFECT: saves the list in this.leftOver the first time it is asked for
+  ArrayList<Edge> getLeftOver() {
+    if (this.inTree == null) {
+      // the algorithm has not run, so nothing has been left over yet
+      return new ArrayList<Edge>();
+    }
+    if (this.leftOver == null) {
+      this.leftOver = new ArrayList<Edge>(this.worklist.size() - this.inTree.cardinality());
+      for (int i = this.inTree.nextClearBit(0); i < this.worklist.size(); i = this.inTree
+          .nextClearBit(i + 1)) {
+        this.leftOver.add(this.worklist.get(i));
+      }
+    }
+    return this.leftOver;
+  }
+
+  // returns every edge of the packed worklist that is not in the tree,
+  // for example to knock extra loops into a finished maze
+  PackedEdges getPackedLeftOver() {
+    PackedEdges list = this.packedWorklist;
+    if (this.inTree == null) {
+      return new PackedEdges(0);
+    }
+    PackedEdges result = new PackedEdges(list.size - this.inTree.cardinality());
+    for (int i = this.inTree.nextClearBit(0); i < list.size; i = this.inTree
+        .nextClearBit(i + 1)) {
+      result.add(list.from[i], list.to[i], list.weight[i]);
+    }
+    return result;
+  }
+
+  // creates the union-find the algorithm runs on
+  // EFFECT: when this maze was given a representatives map, numbers its nodes
+  // in the given list and index (leaving their id fields alone, they belong
+  // to the caller), and starts them off in the sets the map already describes
+  UnionFind makeSets(ArrayList<Node> nodes, IdentityHashMap<Node, Integer> index) {
+    UnionFind sets = MazeMetrics.makeUnionFind(this.nodeCount);
+    if (this.representatives != null) {
+      nodes.addAll(this.representatives.keySet());
+      for (int i = 0; i < nodes.size(); i += 1) {
+        index.put(nodes.get(i), i);
+      }
+      for (Node n : nodes) {
+        sets.union(index.get(n), index.get(this.representatives.get(n)));
+      }
+    }
+    return sets;
+  }
+
+  // returns the number of the given node in the union-find: its place in the
+  // given index when there is a representatives map, its id when there is not
+  int idOf(Node n, IdentityHashMap<Node, Integer> index) {
+    return this.representatives == null ? n.id : index.get(n);
+  }
+
+  // EFFECT: points every node in this.representatives at the representative
+  // of the set it ended up in
+  void writeBack(UnionFind sets, ArrayList<Node> nodes, IdentityHashMap<Node, Integer> index) {
+    if (this.representatives != null) {
+      for (Node n : nodes) {
+        this.representatives.put(n, nodes.get(sets.find(index.get(n))));
+      }
+    }
+  }
+
+  // removes all of this.leftover from its connected parts
+  void removeAllLeftOver() {
+    ArrayList<Edge> edges = this.getLeftOver();
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.REMOVE_LEFTOVER, edges.size());
+    try {
+      for (Edge e : edges) {
+        e.removeThisEdge();
+      }
+    }
+    finally {
+      timer.stop();
+    }
+  }
+}
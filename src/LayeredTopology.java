@@ -0,0 +1,61 @@
+// levels of width by height grids of square cells stacked on each other,
+// where a cell is also next to the cells right above and below it
+// the neighbors are the level below, up, left, right, down and the level
+// above, and the levels are drawn side by side with a column between them
+class LayeredTopology implements MazeTopology {
+  int width;
+  int height;
+  int levels;
+
+  LayeredTopology(int width, int height, int levels) {
+    if (width < 0 || height < 0 || levels < 0
+        || (long) width * height * levels > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A layered board cannot be " + width + " by "
+          + height + " by " + levels + " cells");
+    }
+    this.width = width;
+    this.height = height;
+    this.levels = levels;
+  }
+
+  public int cellCount() {
+    return this.width * this.height * this.levels;
+  }
+
+  public int maxDegree() {
+    return 6;
+  }
+
+  public int neighbor(int cell, int k) {
+    int area = this.width * this.height;
+    int level = cell / area;
+    int x = cell % this.width;
+    int y = cell % area / this.width;
+    if (k == 0) {
+      return level > 0 ? cell - area : -1;
+    }
+    else if (k == 1) {
+      return y > 0 ? cell - this.width : -1;
+    }
+    else if (k == 2) {
+      return x > 0 ? cell - 1 : -1;
+    }
+    else if (k == 3) {
+      return x + 1 < this.width ? cell + 1 : -1;
+    }
+    else if (k == 4) {
+      return y + 1 < this.height ? cell + this.width : -1;
+    }
+    else {
+      return level + 1 < this.levels ? cell + area : -1;
+    }
+  }
+
+  public double centerX(int cell) {
+    return cell / (this.width * this.height) * (this.width + 1) + cell % this.width + 0.5;
+  }
+
+  public double centerY(int cell) {
+    return cell % (this.width * this.height) / this.width + 0.5;
+  }
+}
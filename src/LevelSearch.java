@@ -0,0 +1,137 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// one breadth first search of a maze (a MazeGrid or a MazeGraph) from a
+// source cell, a level at a time
+// a level smaller than parallelLevel is looked at on this thread, a bigger
+// one is cut into chunks of chunk cells that are looked at in parallel, each
+// chunk claiming the cells it reaches with a compare and set so no cell is
+// put in the next level twice even in a maze with loops
+// the levels of a perfect maze are only a few hundred cells wide even when
+// it has millions of cells (about 700 at 2000 by 2000), so a level is split
+// as soon as it makes two chunks
+class LevelSearch {
+  static final int PARALLEL_LEVEL = 256;
+  static final int CHUNK = 128;
+  static final VarHandle DISTANCES = MethodHandles.arrayElementVarHandle(int[].class);
+
+  MazeBoard board;
+  int chunk;
+  int[] distances;
+  // the distance of the farthest cell reached, and one cell that far away
+  int depth;
+  int lastCell;
+  // how many cells reached have only one passage
+  int deadEnds;
+  // the cells each chunk of a parallel level reached, and how many
+  int[][] chunkFound;
+  int[] chunkSizes;
+  int[] chunkDeadEnds;
+
+  LevelSearch(MazeBoard board, ForkJoinPool pool, int source, int parallelLevel, int chunk) {
+    this.board = board;
+    this.chunk = chunk;
+    this.distances = new int[board.cellCount()];
+    Arrays.fill(this.distances, DistanceField.UNREACHED);
+    this.distances[source] = 0;
+    int[] level = new int[board.cellCount()];
+    int[] next = new int[board.cellCount()];
+    level[0] = source;
+    int size = 1;
+    this.lastCell = source;
+    while (size > 0) {
+      int nextSize = 0;
+      if (size < parallelLevel) {
+        for (int k = 0; k < size; k += 1) {
+          nextSize = this.expand(level[k], next, nextSize, false);
+          if (this.isDeadEnd(level[k])) {
+            this.deadEnds += 1;
+          }
+        }
+      }
+      else {
+        int chunks = (size + chunk - 1) / chunk;
+        this.chunkFound = new int[chunks][];
+        this.chunkSizes = new int[chunks];
+        this.chunkDeadEnds = new int[chunks];
+        ExpandLevel task = new ExpandLevel(this, level, 0, size);
+        if (ForkJoinTask.getPool() == pool) {
+          // already one of the pool's tasks, like the searches DistanceField runs
+          task.invoke();
+        }
+        else {
+          pool.invoke(task);
+        }
+        for (int c = 0; c < chunks; c += 1) {
+          System.arraycopy(this.chunkFound[c], 0, next, nextSize, this.chunkSizes[c]);
+          nextSize += this.chunkSizes[c];
+          this.deadEnds += this.chunkDeadEnds[c];
+        }
+        this.chunkFound = null;
+      }
+      if (nextSize > 0) {
+        this.depth += 1;
+        this.lastCell = next[nextSize - 1];
+      }
+      int[] temp = level;
+      level = next;
+      next = temp;
+      size = nextSize;
+    }
+  }
+
+  // searches in parallel only levels of at least PARALLEL_LEVEL cells, in
+  // chunks of CHUNK
+  LevelSearch(MazeBoard board, ForkJoinPool pool, int source) {
+    this(board, pool, source, LevelSearch.PARALLEL_LEVEL, LevelSearch.CHUNK);
+  }
+
+  // EFFECT: gives every neighbor of the given cell through an open passage
+  // that has not been reached yet the next distance, adding it to found
+  // after the given number of cells
+  // returns how many cells are in found now
+  int expand(int cell, int[] found, int size, boolean parallel) {
+    int next = this.distances[cell] + 1;
+    for (int k = 0; k < this.board.maxDegree(); k += 1) {
+      int neighbor = this.board.openNeighbor(cell, k);
+      if (neighbor < 0) {
+        continue;
+      }
+      boolean claimed;
+      if (parallel) {
+        claimed = DISTANCES.compareAndSet(this.distances, neighbor, DistanceField.UNREACHED, next);
+      }
+      else {
+        claimed = this.distances[neighbor] == DistanceField.UNREACHED;
+        if (claimed) {
+          this.distances[neighbor] = next;
+        }
+      }
+      if (claimed) {
+        found[size] = neighbor;
+        size += 1;
+      }
+    }
+    return size;
+  }
+
+  // returns true if the given cell has only one open passage
+  boolean isDeadEnd(int cell) {
+    int passages = 0;
+    for (int k = 0; k < this.board.maxDegree(); k += 1) {
+      if (this.board.openNeighbor(cell, k) >= 0) {
+        passages += 1;
+      }
+    }
+    return passages == 1;
+  }
+
+  // returns the cell through the open passage going in the given direction
+  // from the cell at column x and row y, or -1 if there is a wall
+  static int neighbor(MazeGrid grid, int x, int y, int direction) {
+    return grid.openNeighbor(grid.cell(x, y), direction);
+  }
+}
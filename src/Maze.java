@@ -1,295 +1,27 @@
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import javax.imageio.ImageIO;
 
 import tester.*;
 import javalib.impworld.*;
 import javalib.worldcanvas.WorldCanvas;
-
 import java.awt.Color;
 import javalib.worldimages.*;
 
-/*
-HashMap<String, String> representatives;
-List<Edge> edgesInTree;
-List<Edge> worklist = all edges in graph, sorted by edge weights;
- 
-initialize every node's representative to itself
-While(there's more than one tree)
-  Pick the next cheapest edge of the graph: suppose it connects X and Y.
-  If find(representatives, X) equals find(representatives, Y):
-    discard this edge  // they're already connected
-  Else:
-    Record this edge in edgesInTree
-    union(representatives,
-          find(representatives, X),
-          find(representatives, Y))
-Return the edgesInTree
-*/
-
-// represents a node that is connected by a list of edges
-class Node {
-
-  // We are aware there probably should be more fields in Node
-  // but for now, we are just focused on creating the Maze itself
-  ArrayList<Edge> outedges;
-
-  Node(ArrayList<Edge> outedges) {
-    this.outedges = outedges;
-  }
-
-  // empty constructor if the constructed Node has no edges
-  Node() {
-    this.outedges = new ArrayList<Edge>();
-  }
-
-  // EFFECT:connects this Node to the given Node through an edge
-  // of the given weight
-  // returns the edge that was created to connect the two nodes
-  public Edge connect(Node other, int weight) {
-    Edge temp = new Edge(this, other, weight);
-    this.outedges.add(temp);
-    other.outedges.add(temp);
-    return temp;
-  }
-
-  // returns true if this node is connected to the given node
-  // through any of its outedges
-  public boolean isConnected(Node other) {
-    for (Edge e : this.outedges) {
-      if (e.connectsThisToThat(this, other)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  // removes the given edge from this.outedges
-  public void remove(Edge e) {
-    this.outedges.remove(e);
-  }
-}
-
-// represents an edge that connects the two nodes
-class Edge {
-  Node from, to;
-  int weight; // how expensive is the edge;
-
-  public Edge(Node from, Node to, int weight) {
-    this.from = from;
-    this.to = to;
-    this.weight = weight;
-  }
-
-  // returns true if this edge connects the two given Nodes
-  public boolean connectsThisToThat(Node n1, Node n2) {
-    return (this.from.equals(n1) && this.to.equals(n2))
-        || (this.from.equals(n2) && this.to.equals(n1));
-  }
-
-  // removes this edge from both from and to
-  public void removeThisEdge() {
-    this.from.remove(this);
-    this.to.remove(this);
-  }
-}
-
-class KruskalMaze {
-  HashMap<Node, Node> representatives;
-  // all edges in graph, sorted by edge weights
-  ArrayList<Edge> worklist;
-  // all edges that are not used in the algorithm
-  ArrayList<Edge> leftOver;
-
-  KruskalMaze(HashMap<Node, Node> representatives, ArrayList<Edge> worklist) {
-    this.representatives = representatives;
-    this.worklist = worklist;
-    this.leftOver = new ArrayList<Edge>();
-  }
-
-  // Kruskal's Algorithm utilized for constructing the maze
-  ArrayList<Edge> algorithm() {
-    HashUtils<Node> util = new HashUtils<Node>();
-    ArrayList<Edge> resultEdges = new ArrayList<Edge>();
-    // we know algo is done when edges in tree equals the number of nodes - 1;
-    while (resultEdges.size() != this.representatives.size() - 1) {
-      Edge e = this.worklist.get(0);
-      // checks to see if this edge creates a loop
-      if (util.find(this.representatives, e.from).equals(util.find(this.representatives, e.to))) {
-        this.leftOver.add(this.worklist.remove(0));
-      }
-      else {
-        resultEdges.add(e);
-        util.union(this.representatives, util.find(this.representatives, e.from),
-            util.find(this.representatives, e.to));
-        this.worklist.remove(0);
-      }
-    }
-    this.leftOver.addAll(this.worklist);
-    return resultEdges;
-  }
-
-  // removes all of this.leftover from its connected parts
-  void removeAllLeftOver() {
-    for (Edge e : this.leftOver) {
-      e.removeThisEdge();
-    }
-  }
-}
-
-//this class is generalized even though it is only used in one specific case
-//utilities for Hashmaps for Nodes
-class HashUtils<T> {
-  // returns the highest representative of the given node
-  T find(HashMap<T, T> reps, T node) {
-    // if this node equals the given node, return it
-    if (node.equals(reps.get(node))) {
-      return node;
-    }
-    else {
-      // if not, use the same hashmap and the node that this node points to
-      return this.find(reps, reps.get(node));
-    }
-  }
-
-  // sets rep1's representative to rep2
-  void union(HashMap<T, T> reps, T rep1, T rep2) {
-    reps.replace(rep1, rep2);
-  }
-
-}
-
-//class that represents the Maze
-
-class MazeGame extends World {
-  ArrayList<ArrayList<Node>> mazeBoard;
-  // one value that controls the size of the board
-  int squareSize;
-
-  public MazeGame(int x, int y, int sqSize, Random rand) {
-    this.mazeBoard = this.makeConnectedBoard(x, y, rand);
-    this.squareSize = sqSize;
-  }
-
-  public MazeGame(int x, int y, int sqSize) {
-    this(x, y, sqSize, new Random());
-  }
-
-  // creates the board with x length and y height
-  // where each cell is connected to each neighboring cell through an
-  // edge with a random length anywhere from 0 to 99
-  // also creates a Hashmap for the Nodes to be used Kruskal's algo
-  // Then, it takes out all of the edges that are not a part of Kruskal's
-  // connections
-  public ArrayList<ArrayList<Node>> makeConnectedBoard(int x, int y, Random rand) {
-    // hashmap that represents what each node's representative is
-    HashMap<Node, Node> boardHash = new HashMap<Node, Node>();
-    // all of the edges in the board
-    ArrayList<Edge> allEdges = new ArrayList<Edge>();
-    ArrayList<ArrayList<Node>> resultBoard = new ArrayList<ArrayList<Node>>();
-    for (int i = 0; i < y; i += 1) {
-      ArrayList<Node> rowI = new ArrayList<Node>();
-      for (int j = 0; j < x; j += 1) {
-        Node temp = new Node();
-        rowI.add(temp);
-        // ensures that this node is added to the hashmap and maps to itself
-        boardHash.put(temp, temp);
-        // kruskalEdges starts with all of the edges in the list
-        if (i > 0) {
-          allEdges.add(temp.connect(resultBoard.get(i - 1).get(j), rand.nextInt(100)));
-        }
-        if (j > 0) {
-          allEdges.add(temp.connect(rowI.get(j - 1), rand.nextInt(100)));
-        }
-      }
-      resultBoard.add(rowI);
-    }
-
-    this.sortEdges(allEdges);
-    KruskalMaze kru = new KruskalMaze(boardHash, allEdges);
-    // creates a path through all of the cells, also filling the leftover field with
-    // all the unused connections between the neighbor nodes
-    kru.algorithm();
-    // removes all of the leftoverpaths that are not used in kruskal's algo
-    kru.removeAllLeftOver();
-
-    return resultBoard;
-  }
-
-  // sorts the edges to be put into kruskal's algorithm
-  public void sortEdges(ArrayList<Edge> input) {
-    input.sort(new CompareByWeight());
-  }
-
-  // draws the maze
-
-  public WorldImage drawMaze() {
-    WorldImage bkg = new EmptyImage();
-    for (int i = 0; i < this.mazeBoard.size(); i += 1) {
-      WorldImage row = new EmptyImage();
-      for (int j = 0; j < this.mazeBoard.get(i).size(); j += 1) {
-        WorldImage cell = new RectangleImage(this.squareSize, this.squareSize, OutlineMode.SOLID,
-            Color.gray);
-        if (i == 0 && j == 0) {
-          cell = new RectangleImage(this.squareSize, this.squareSize, OutlineMode.SOLID,
-              Color.green);
-        }
-        else if (i == this.mazeBoard.size() - 1 && j == this.mazeBoard.get(i).size() - 1) {
-          cell = new RectangleImage(this.squareSize, this.squareSize, OutlineMode.SOLID,
-              Color.magenta);
-        }
-
-        // if the cell to the left is not connected, create a cell with a wall to the
-        // left
-        if (j > 0 && !this.mazeBoard.get(i).get(j).isConnected(this.mazeBoard.get(i).get(j - 1))) {
-          cell = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE,
-              new RectangleImage(1, this.squareSize, OutlineMode.SOLID, Color.black), 0, 0, cell);
-        }
-        // if the cell above this cell is not connected, create a cell with a wall above
-        if (i > 0 && !this.mazeBoard.get(i).get(j).isConnected(this.mazeBoard.get(i - 1).get(j))) {
-          cell = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP,
-              new RectangleImage(this.squareSize, 1, OutlineMode.SOLID, Color.black), 0, 0, cell);
-        }
-        row = new BesideImage(row, cell);
-      }
-      bkg = new AboveImage(bkg, row);
-    }
-    // return new OverlayImage(bkg, new
-    // RectangleImage(this.mazeBoard.get(0).size()*this.squareSize+ 5,
-    // this.mazeBoard.size() * this.squareSize + 5, OutlineMode.SOLID,
-    // Color.black));
-    return bkg;
-  }
-
-  // makes the scene
-  public WorldScene makeScene() {
-    WorldScene bkg = this.getEmptyScene();
-    bkg.placeImageXY(this.drawMaze(), this.getMazeWidth() / 2, this.getMazeHeight() / 2);
-    return bkg;
-  }
-
-  // returns the width of the screen for the current maze game
-  public int getMazeWidth() {
-    return this.mazeBoard.get(0).size() * this.squareSize;
-  }
-
-//returns the height of the screen for the current maze game
-  public int getMazeHeight() {
-    return this.mazeBoard.size() * this.squareSize;
-  }
-
-}
-
-class CompareByWeight implements Comparator<Edge> {
-
-  @Override
-  public int compare(Edge o1, Edge o2) {
-    return o1.weight - o2.weight;
-  }
-}
-
 //represents examples for the maze;
 class ExamplesMaze {
   Node node1, node2, node3, node4, node5, node6, n1, n2, n3, node7, node8;
@@ -440,12 +172,157 @@ class ExamplesMaze {
     t.checkExpect(this.reps2.get(n1), n3);
   }
 
+// tests that the find method in the HashUtils class handles long chains
+// and compresses them as it goes
+  void testFindLongChain(Tester t) {
+    HashMap<Integer, Integer> chain = new HashMap<Integer, Integer>();
+    for (int i = 0; i < 200000; i += 1) {
+      chain.put(i, i + 1);
+    }
+    chain.put(200000, 200000);
+    t.checkExpect(new HashUtils<Integer>().find(chain, 0), 200000);
+    t.checkExpect(chain.get(0), 200000);
+    t.checkExpect(chain.get(199999), 200000);
+  }
+
+// tests that the find and union methods in the HashUtils class notice a map
+// that was put into from outside without changing its size
+  void testHashUtilsOutsideChanges(Tester t) {
+    HashMap<Integer, Integer> sets = new HashMap<Integer, Integer>();
+    for (int i = 0; i < 4; i += 1) {
+      sets.put(i, i);
+    }
+    HashUtils<Integer> util = new HashUtils<Integer>();
+    util.union(sets, 0, 1);
+    t.checkExpect(util.find(sets, 2), 2);
+    sets.put(2, 0);
+    t.checkExpect(util.find(sets, 2), 1);
+    t.checkExpect(sets.get(2), 1);
+    sets.replace(1, 3);
+    t.checkExpect(util.find(sets, 0), 3);
+    util.union(sets, 2, 3);
+    t.checkExpect(util.find(sets, 2), 3);
+    sets.put(3, 2);
+    sets.put(2, 2);
+    t.checkExpect(util.find(sets, 0), 2);
+    util.union(sets, 1, 0);
+    t.checkExpect(util.find(sets, 3), 2);
+  }
+
+// tests the find method in the UnionFind class
+  void testUnionFindFind(Tester t) {
+    UnionFind sets = new UnionFind(5);
+    t.checkExpect(sets.size(), 5);
+    t.checkExpect(sets.find(3), 3);
+    sets.parent[0] = 1;
+    sets.parent[1] = 2;
+    sets.parent[2] = 3;
+    t.checkExpect(sets.find(0), 3);
+    // the path from 0 has been compressed
+    t.checkExpect(sets.parent[0], 3);
+    t.checkExpect(sets.parent[1], 3);
+    t.checkExpect(sets.same(0, 2), true);
+    t.checkExpect(sets.same(0, 4), false);
+  }
+
+// tests the union method in the UnionFind class
+  void testUnionFindUnion(Tester t) {
+    UnionFind sets = new UnionFind(4);
+    t.checkExpect(sets.count, 4);
+    t.checkExpect(sets.union(0, 1), true);
+    t.checkExpect(sets.union(1, 0), false);
+    t.checkExpect(sets.count, 3);
+    // the taller tree stays on top
+    t.checkExpect(sets.union(2, 0), true);
+    t.checkExpect(sets.find(2), sets.find(1));
+    t.checkExpect(sets.rank[sets.find(2)], (byte) 1);
+    t.checkExpect(sets.union(3, 2), true);
+    t.checkExpect(sets.count, 1);
+    t.checkConstructorException(new IllegalArgumentException("Size cannot be negative: -1"),
+        "UnionFind", -1);
+  }
+
 // tests the algorithm method in the KruskalMaze class
   void testAlgo(Tester t) {
     this.initConditions();
     t.checkExpect(this.kruskal2.algorithm(), new ArrayList<Edge>(Arrays.asList(e1, e2)));
     t.checkExpect(this.kruskal1.algorithm(),
         new ArrayList<Edge>(Arrays.asList(edge1, edge2, edge3, edge4, edge6)));
+    // every node now points at the representative of the whole tree
+    t.checkExpect(this.reps.get(node1), this.reps.get(node6));
+    t.checkExpect(new HashUtils<Node>().find(reps, node5), this.reps.get(node2));
+  }
+
+// tests that the algorithm method in the KruskalMaze class numbers the nodes
+// of a representatives map without writing over their ids
+  void testAlgoKeepsIds(Tester t) {
+    this.initConditions();
+    this.node1.id = 41;
+    this.node6.id = 46;
+    this.kruskal1.algorithm();
+    t.checkExpect(this.node1.id, 41);
+    t.checkExpect(this.node6.id, 46);
+    t.checkExpect(this.node2.id, 0);
+  }
+
+// tests that the union method in the HashUtils class hangs the shorter tree
+// under the taller one, whichever way round it is asked
+  void testUnionByRank(Tester t) {
+    HashMap<Integer, Integer> sets = new HashMap<Integer, Integer>();
+    for (int i = 0; i < 4; i += 1) {
+      sets.put(i, i);
+    }
+    HashUtils<Integer> util = new HashUtils<Integer>();
+    util.union(sets, 0, 1);
+    t.checkExpect(sets.get(0), 1);
+    // 2 is alone, so it goes under 1 even though it was asked the other way
+    util.union(sets, 1, 2);
+    t.checkExpect(sets.get(2), 1);
+    t.checkExpect(sets.get(1), 1);
+    util.union(sets, 3, 0);
+    t.checkExpect(util.find(sets, 3), 1);
+    t.checkExpect(util.find(sets, 2), 1);
+    t.checkException(new IllegalArgumentException("7 has no representative"), util, "find",
+        sets, 7);
+  }
+
+// tests the getLeftOver method in the KruskalMaze class
+  void testGetLeftOver(Tester t) {
+    this.initConditions();
+    t.checkExpect(this.kruskal2.getLeftOver(), new ArrayList<Edge>());
+    this.kruskal2.algorithm();
+    t.checkExpect(this.kruskal2.leftOver, null);
+    t.checkExpect(this.kruskal2.getLeftOver(), new ArrayList<Edge>(Arrays.asList(e3)));
+    // the worklist is walked, not emptied
+    t.checkExpect(this.kruskal2.worklist, new ArrayList<Edge>(Arrays.asList(e1, e2, e3)));
+    this.kruskal1.algorithm();
+    t.checkExpect(this.kruskal1.getLeftOver(),
+        new ArrayList<Edge>(Arrays.asList(edge5, edge7, edge8)));
+  }
+
+// tests the packedAlgorithm method in the KruskalMaze class
+  void testPackedAlgorithm(Tester t) {
+    // the same graph as kruskal1, numbered node1 = 0 .. node6 = 5
+    PackedEdges edges = new PackedEdges(8);
+    edges.add(0, 1, 10);
+    edges.add(1, 2, 20);
+    edges.add(2, 3, 30);
+    edges.add(3, 5, 40);
+    edges.add(1, 5, 50);
+    edges.add(2, 4, 60);
+    edges.add(1, 4, 70);
+    edges.add(0, 4, 80);
+    KruskalMaze kru = new KruskalMaze(6, edges);
+    t.checkExpect(kru.getPackedLeftOver().size, 0);
+    PackedEdges tree = kru.packedAlgorithm();
+    t.checkExpect(tree.size, 5);
+    t.checkExpect(tree.from, new int[] { 0, 1, 2, 3, 2 });
+    t.checkExpect(tree.to, new int[] { 1, 2, 3, 5, 4 });
+    t.checkExpect(tree.weight, new int[] { 10, 20, 30, 40, 60 });
+    PackedEdges rest = kru.getPackedLeftOver();
+    t.checkExpect(rest.weight, new int[] { 50, 70, 80 });
+    t.checkExpect(rest.from, new int[] { 1, 1, 0 });
+    t.checkExpect(rest.to, new int[] { 5, 4, 4 });
   }
 
 //tests the removeLeftOver method in the KruskalMaze class
@@ -473,6 +350,10 @@ class ExamplesMaze {
     t.checkExpect(new CompareByWeight().compare(edge1, edge2), -10);
     t.checkExpect(new CompareByWeight().compare(edge4, edge6), -20);
     t.checkExpect(new CompareByWeight().compare(e1, e3), -20);
+    t.checkExpect(new CompareByWeight().compare(new Edge(n1, n2, Integer.MIN_VALUE),
+        new Edge(n1, n2, 1)), Integer.MIN_VALUE);
+    t.checkExpect(new CompareByWeight().compare(new Edge(n1, n2, Integer.MAX_VALUE),
+        new Edge(n1, n2, -1)), Integer.MAX_VALUE);
   }
 
 // tests the sortEdges method in the CompareByWeight class
@@ -489,11 +370,155 @@ class ExamplesMaze {
     t.checkExpect(this.edges2.get(3), this.edge8);
   }
 
+// tests the add method in the PackedEdges class
+  void testPackedEdgesAdd(Tester t) {
+    PackedEdges edges = new PackedEdges(2);
+    edges.add(1, 0, 30);
+    edges.add(2, 1, 10);
+    t.checkExpect(edges.size, 2);
+    t.checkExpect(edges.from, new int[] { 1, 2 });
+    t.checkExpect(edges.to, new int[] { 0, 1 });
+    t.checkExpect(edges.weight, new int[] { 30, 10 });
+    t.checkException(new IllegalStateException("This edge list is full: 2"), edges, "add", 3,
+        2, 5);
+  }
+
+// tests the sortByWeight method in the PackedEdges class
+  void testPackedEdgesSortByWeight(Tester t) {
+    PackedEdges edges = new PackedEdges(5);
+    edges.add(1, 0, 7);
+    edges.add(2, 1, 3);
+    edges.add(3, 2, 7);
+    edges.add(4, 3, 0);
+    edges.sortByWeight(10);
+    t.checkExpect(edges.size, 4);
+    t.checkExpect(edges.weight, new int[] { 0, 3, 7, 7, 0 });
+    // edges of the same weight stay in the order they were added
+    t.checkExpect(edges.from, new int[] { 4, 2, 1, 3, 0 });
+    t.checkExpect(edges.to, new int[] { 3, 1, 0, 2, 0 });
+    t.checkException(
+        new IllegalArgumentException("Weight 7 is not between 0 and 5 for a counting sort"),
+        edges, "sortByWeight", 5);
+  }
+
+// tests the makeBoardEdges method in the MazeGame class
+  void testMakeBoardEdges(Tester t) {
+    this.initConditions();
+    PackedEdges edges = this.g1.makeBoardEdges(3, 2, new Random(0));
+    t.checkExpect(edges.size, 7);
+    t.checkExpect(edges.from, new int[] { 1, 2, 3, 4, 4, 5, 5 });
+    t.checkExpect(edges.to, new int[] { 0, 1, 0, 1, 3, 2, 4 });
+    // the weights are drawn in the same order makeConnectedBoard always has
+    Random rand = new Random(0);
+    for (int e = 0; e < edges.size; e += 1) {
+      t.checkExpect(edges.weight[e], rand.nextInt(100));
+    }
+    t.checkExpect(this.g1.makeBoardEdges(1, 1, new Random(0)).size, 0);
+  }
+
+// tests the isOpen and setOpen methods in the MazeGrid class
+  void testMazeGridIsOpen(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    t.checkExpect(grid.cellCount(), 6);
+    t.checkExpect(grid.isOpen(0, 0, MazeGrid.RIGHT), false);
+    grid.setOpen(0, 0, MazeGrid.RIGHT, true);
+    grid.setOpen(2, 1, MazeGrid.UP, true);
+    t.checkExpect(grid.isOpen(0, 0, MazeGrid.RIGHT), true);
+    t.checkExpect(grid.isOpen(1, 0, MazeGrid.LEFT), true);
+    t.checkExpect(grid.isOpen(2, 0, MazeGrid.DOWN), true);
+    t.checkExpect(grid.isOpen(2, 1, MazeGrid.UP), true);
+    t.checkExpect(grid.isOpen(1, 0, MazeGrid.RIGHT), false);
+    // nothing is open off the edge of the grid
+    t.checkExpect(grid.isOpen(2, 0, MazeGrid.RIGHT), false);
+    t.checkExpect(grid.isOpen(0, 0, MazeGrid.UP), false);
+    grid.setOpen(1, 0, MazeGrid.LEFT, false);
+    t.checkExpect(grid.isOpen(0, 0, MazeGrid.RIGHT), false);
+    t.checkExpect(grid.passageCount(), 1L);
+    t.checkException(new IllegalArgumentException("No passage in direction 0 from (2, 1)"),
+        grid, "setOpen", 2, 1, MazeGrid.RIGHT, true);
+    t.checkException(new IllegalArgumentException("Not a direction: 4"), grid, "isOpen", 0, 0,
+        4);
+    t.checkConstructorException(new IllegalArgumentException("A maze cannot be -1 by 2 cells"),
+        "MazeGrid", -1, 2);
+  }
+
+// tests the connect and isConnected methods in the MazeGrid class
+  void testMazeGridConnect(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.connect(4, 1);
+    grid.connect(3, 4);
+    t.checkExpect(grid.isConnected(1, 4), true);
+    t.checkExpect(grid.isConnected(4, 3), true);
+    t.checkExpect(grid.isConnected(4, 5), false);
+    t.checkExpect(grid.isOpen(1, 0, MazeGrid.DOWN), true);
+    // cells 2 and 3 are next to each other by id but not on the grid
+    t.checkExpect(grid.isConnected(2, 3), false);
+    t.checkException(new IllegalArgumentException("Cells 2 and 3 are not neighbors"), grid,
+        "connect", 2, 3);
+  }
+
+// tests the generate and toNodeBoard methods in the MazeGrid class
+  void testMazeGridGenerate(Tester t) {
+    this.initConditions();
+    MazeGrid grid = MazeGrid.generate(100, 60, new Random(0));
+    t.checkExpect(grid.passageCount(), 5999L);
+    ArrayList<ArrayList<Node>> board = grid.toNodeBoard();
+    t.checkExpect(board.size(), 60);
+    t.checkExpect(board.get(0).size(), 100);
+    t.checkExpect(board.get(1).get(2).id, 102);
+    for (int y = 0; y < 60; y += 1) {
+      for (int x = 0; x + 1 < 100; x += 1) {
+        t.checkExpect(board.get(y).get(x).isConnected(board.get(y).get(x + 1)),
+            grid.isOpen(x, y, MazeGrid.RIGHT));
+      }
+    }
+    // a game made from a grid only makes its Nodes when asked
+    MazeGame game = new MazeGame(grid, 10);
+    t.checkExpect(game.mazeBoard, null);
+    t.checkExpect(game.getMazeBoard().size(), 60);
+    t.checkExpect(game.getMazeWidth(), 1000);
+    t.checkExpect(game.getMazeHeight(), 600);
+  }
+
+// tests that a MazeGame only makes its Node graph when asked, and makes it
+// again once the grid has changed
+  void testMazeBoardLazy(Tester t) {
+    MazeGame game = new MazeGame(4, 3, 10, new Random(5));
+    t.checkExpect(game.mazeBoard, null);
+    ArrayList<ArrayList<Node>> board = game.getMazeBoard();
+    t.checkExpect(game.getMazeBoard() == board, true);
+    game.grid.setOpen(0, 0, MazeGrid.RIGHT, !game.grid.isOpen(0, 0, MazeGrid.RIGHT));
+    ArrayList<ArrayList<Node>> again = game.getMazeBoard();
+    t.checkExpect(again == board, false);
+    t.checkExpect(again.get(0).get(0).isConnected(again.get(0).get(1)),
+        game.grid.isOpen(0, 0, MazeGrid.RIGHT));
+  }
+
+// tests that the isOpen, isConnected and connect methods in the MazeGrid
+// class turn away cells that are not in the grid
+  void testMazeGridBounds(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    t.checkException(new IllegalArgumentException(
+        "There is no cell at column 3 and row 0 of a 3 by 2 maze"), grid, "isOpen", 3, 0,
+        MazeGrid.LEFT);
+    t.checkException(new IllegalArgumentException(
+        "There is no cell at column 0 and row -1 of a 3 by 2 maze"), grid, "isOpen", 0, -1,
+        MazeGrid.DOWN);
+    t.checkExpect(grid.isConnected(5, 6), false);
+    t.checkException(new IllegalArgumentException("Cells 5 and 6 are not both in a 3 by 2 maze"),
+        grid, "connect", 5, 6);
+    // with no columns there are no cells, and nothing to divide by
+    MazeGrid empty = new MazeGrid(0, 4);
+    t.checkExpect(empty.isConnected(0, 1), false);
+    t.checkException(new IllegalArgumentException("Cells 0 and 1 are not both in a 0 by 4 maze"),
+        empty, "connect", 0, 1);
+  }
+
 // tests the drawMaze method in the MazeGame class
   void testDrawMaze(Tester t) {
     this.initConditions();
-    t.checkExpect(this.g1.mazeBoard.size(), 60);
-    t.checkExpect(this.g1.mazeBoard.get(0).size(), 100);
+    t.checkExpect(this.g1.getMazeBoard().size(), 60);
+    t.checkExpect(this.g1.getMazeBoard().get(0).size(), 100);
 
     WorldImage row2Emp = new EmptyImage();
     WorldImage bkg = new EmptyImage();
@@ -502,22 +527,22 @@ class ExamplesMaze {
     WorldImage cell3 = new RectangleImage(20, 20, OutlineMode.SOLID, Color.gray);
     WorldImage cell4 = new RectangleImage(20, 20, OutlineMode.SOLID, Color.magenta);
 
-    if (!this.g4.mazeBoard.get(0).get(1).isConnected(this.g4.mazeBoard.get(0).get(0))) {
+    if (!this.g4.getMazeBoard().get(0).get(1).isConnected(this.g4.getMazeBoard().get(0).get(0))) {
       cell2 = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE,
           new RectangleImage(1, 20, OutlineMode.SOLID, Color.black), 0, 0, cell2);
     }
     WorldImage row1 = new EmptyImage();
     row1 = new BesideImage(new BesideImage(row1, cell1), cell2);
 
-    if (!this.g4.mazeBoard.get(1).get(0).isConnected(this.g4.mazeBoard.get(0).get(0))) {
+    if (!this.g4.getMazeBoard().get(1).get(0).isConnected(this.g4.getMazeBoard().get(0).get(0))) {
       cell3 = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP,
           new RectangleImage(20, 1, OutlineMode.SOLID, Color.black), 0, 0, cell3);
     }
-    if (!this.g4.mazeBoard.get(1).get(1).isConnected(this.g4.mazeBoard.get(1).get(0))) {
+    if (!this.g4.getMazeBoard().get(1).get(1).isConnected(this.g4.getMazeBoard().get(1).get(0))) {
       cell4 = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE,
           new RectangleImage(1, 20, OutlineMode.SOLID, Color.black), 0, 0, cell4);
     }
-    if (!this.g4.mazeBoard.get(1).get(1).isConnected(this.g4.mazeBoard.get(0).get(1))) {
+    if (!this.g4.getMazeBoard().get(1).get(1).isConnected(this.g4.getMazeBoard().get(0).get(1))) {
       cell4 = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP,
           new RectangleImage(20, 1, OutlineMode.SOLID, Color.black), 0, 0, cell4);
     }
@@ -527,6 +552,554 @@ class ExamplesMaze {
     t.checkExpect(this.g4.drawMaze(), world);
   }
 
+  // tests the rasterizeMaze method in the MazeGame class
+  void testRasterizeMaze(Tester t) {
+    MazeGrid grid = new MazeGrid(2, 2);
+    grid.connect(0, 1);
+    grid.connect(1, 3);
+    MazeGame game = new MazeGame(grid, 4);
+    ComputedPixelImage img = game.rasterizeMaze();
+    t.checkExpect(img.getWidth(), 8.0);
+    t.checkExpect(img.getHeight(), 8.0);
+    t.checkExpect(img.getPixel(0, 0), Color.green);
+    t.checkExpect(img.getPixel(3, 3), Color.green);
+    // no wall between the two top cells
+    t.checkExpect(img.getPixel(4, 2), Color.gray);
+    // a wall between the two bottom cells, and above the bottom left one
+    t.checkExpect(img.getPixel(4, 6), Color.black);
+    t.checkExpect(img.getPixel(1, 4), Color.black);
+    t.checkExpect(img.getPixel(1, 5), Color.gray);
+    // the goal is open above
+    t.checkExpect(img.getPixel(5, 4), Color.magenta);
+    t.checkExpect(img.getPixel(7, 7), Color.magenta);
+  }
+
+  // tests the getMazeImage method in the MazeGame class
+  void testGetMazeImage(Tester t) {
+    this.initConditions();
+    ComputedPixelImage first = this.g4.getMazeImage();
+    t.checkExpect(this.g4.imageMisses, 1);
+    t.checkExpect(this.g4.getMazeImage() == first, true);
+    this.g2.makeScene();
+    this.g2.makeScene();
+    t.checkExpect(this.g2.imageCacheStats(), "maze image hits: 1, misses: 1");
+    // changing the size or the walls draws it again
+    this.g4.squareSize = 10;
+    t.checkExpect(this.g4.getMazeImage() == first, false);
+    t.checkExpect(this.g4.getMazeImage().getWidth(), 20.0);
+    this.g4.grid.setOpen(0, 0, MazeGrid.RIGHT, !this.g4.grid.isOpen(0, 0, MazeGrid.RIGHT));
+    this.g4.getMazeImage();
+    t.checkExpect(this.g4.imageCacheStats(), "maze image hits: 2, misses: 3");
+  }
+
+  // tests the draw method in the MazeViewport class
+  void testViewportDraw(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(1000, 1000, new Random(0)), 4, 300, 200);
+    t.checkExpect(game.getMazeWidth(), 300);
+    t.checkExpect(game.getMazeHeight(), 200);
+    // tiles are 256 pixels on a side, so a 300 by 200 window overlaps 2 by 1
+    t.checkExpect(game.viewport.draw(game.getEmptyScene()), 2);
+    t.checkExpect(game.viewport.tileMisses, 2);
+    game.makeScene();
+    t.checkExpect(game.viewport.tileHits, 2);
+    for (int i = 0; i < 6; i += 1) {
+      game.onKeyEvent("down");
+    }
+    game.makeScene();
+    // the window now reaches into the second row of tiles
+    t.checkExpect(game.viewport.scrollY, 228);
+    t.checkExpect(game.viewport.draw(game.getEmptyScene()), 4);
+    t.checkExpect(game.viewport.tileMisses, 4);
+    // changing the maze throws the tiles away
+    game.grid.setOpen(0, 0, MazeGrid.RIGHT, true);
+    game.makeScene();
+    t.checkExpect(game.viewport.tileMisses, 8);
+  }
+
+  // tests that the draw method in the MazeViewport class places no tile
+  // that is just past the window, and that the tileKey method keeps tiles far
+  // apart on huge boards apart
+  void testViewportTileEdges(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(1000, 1000, new Random(0)), 4, 256, 512);
+    // the window ends right where the second column and third row of tiles start
+    t.checkExpect(game.viewport.draw(game.getEmptyScene()), 2);
+    game.viewport.scroll(256, 0);
+    t.checkExpect(game.viewport.draw(game.getEmptyScene()), 2);
+    game.viewport.scroll(1, 0);
+    t.checkExpect(game.viewport.draw(game.getEmptyScene()), 4);
+    MazeViewport view = game.viewport;
+    t.checkExpect(view.tileKey(1 << 20, 0) == view.tileKey(0, 1), false);
+    t.checkExpect(view.tileKey((1 << 25) - 1, 0) == view.tileKey(0, 1), false);
+    t.checkExpect(view.tileKey(0, (1 << 25) - 1) == view.tileKey(0, 0), false);
+  }
+
+  // tests the scroll, zoomIn and zoomOut methods in the MazeViewport class
+  void testViewportZoom(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(1000, 500, new Random(0)), 4, 300, 200);
+    MazeViewport view = game.viewport;
+    view.scroll(100000, -5);
+    t.checkExpect(view.scrollX, 3700);
+    t.checkExpect(view.scrollY, 0);
+    view.zoomOut();
+    view.zoomOut();
+    t.checkExpect(view.pixelsPerCell, 1);
+    t.checkExpect(view.mazePixelWidth(), 1000);
+    view.zoomOut();
+    view.zoomOut();
+    t.checkExpect(view.cellsPerPixel, 4);
+    t.checkExpect(view.mazePixelWidth(), 250);
+    t.checkExpect(view.scrollX, 0);
+    view.zoomOut();
+    view.zoomOut();
+    view.zoomOut();
+    view.zoomOut();
+    // stops once the whole maze fits in a tile
+    t.checkExpect(view.cellsPerPixel, 16);
+    t.checkExpect(view.mazePixelWidth(), 63);
+    ComputedPixelImage tile = view.getTile(0, 0);
+    t.checkExpect(tile.getWidth(), 63.0);
+    t.checkExpect(tile.getHeight(), 32.0);
+    t.checkExpect(tile.getPixel(0, 0), Color.green);
+    t.checkExpect(tile.getPixel(62, 31), Color.magenta);
+    view.zoomIn();
+    t.checkExpect(view.cellsPerPixel, 8);
+    t.checkConstructorException(new IllegalArgumentException("A window cannot be 0 by 5 pixels"),
+        "MazeViewport", game, 0, 5);
+  }
+
+  // tests the blockColor method in the MazeViewport class
+  void testViewportBlockColor(Tester t) {
+    MazeGrid grid = new MazeGrid(4, 4);
+    MazeGame game = new MazeGame(grid, 1, 10, 10);
+    game.viewport.cellsPerPixel = 2;
+    // every wall is up
+    t.checkExpect(game.viewport.blockColor(2, 0), MazeViewport.SHADES[15]);
+    grid.connect(2, 3);
+    grid.connect(6, 7);
+    grid.connect(2, 6);
+    grid.connect(3, 7);
+    // 2 of the 6 sides looked at are walls
+    t.checkExpect(game.viewport.blockColor(2, 0), MazeViewport.SHADES[5]);
+    t.checkExpect(game.viewport.blockColor(0, 0), Color.green);
+    t.checkExpect(game.viewport.blockColor(2, 2), Color.magenta);
+  }
+
+  // tests the generate method in the ParallelMazeGenerator class
+  void testParallelGenerate(Tester t) {
+    ParallelMazeGenerator one = new ParallelMazeGenerator(1);
+    ParallelMazeGenerator four = new ParallelMazeGenerator(4);
+    t.checkExpect(one.generate(4, 3, 0).passageCount(), 11L);
+    t.checkExpect(four.generate(100, 60, 0).passageCount(), 5999L);
+    // many tiles, the same maze no matter how many threads
+    MazeGrid grid = four.generate(700, 600, 42);
+    t.checkExpect(grid.passageCount(), 700L * 600 - 1);
+    t.checkExpect(grid.words(), one.generate(700, 600, 42).words());
+    t.checkExpect(Arrays.equals(grid.words(), four.generate(700, 600, 43).words()), false);
+    // and every cell is reachable
+    UnionFind sets = new UnionFind(grid.cellCount());
+    for (int y = 0; y < grid.height; y += 1) {
+      for (int x = 0; x < grid.width; x += 1) {
+        if (grid.isOpen(x, y, MazeGrid.RIGHT)) {
+          sets.union(grid.cell(x, y), grid.cell(x + 1, y));
+        }
+        if (grid.isOpen(x, y, MazeGrid.DOWN)) {
+          sets.union(grid.cell(x, y), grid.cell(x, y + 1));
+        }
+      }
+    }
+    t.checkExpect(sets.count, 1);
+    t.checkExpect(new ParallelMazeGenerator().generate(1, 1, 5).passageCount(), 0L);
+  }
+
+  // tests that the generateTile method in the ParallelMazeGenerator class
+  // keeps every cell on a seam as a key, joined up by one segment fewer than
+  // there are keys, and opens every other passage of the tile's tree
+  void testGenerateTile(Tester t) {
+    MazeGrid grid = new MazeGrid(768, 600);
+    TileTree middle = ParallelMazeGenerator.generateTile(grid, new SplittableRandom(3), 1, 1);
+    t.checkExpect(middle.keyAt(256, 300) >= 0, true);
+    t.checkExpect(middle.keyAt(511, 256) >= 0, true);
+    t.checkExpect(middle.keyAt(300, 511) >= 0, true);
+    t.checkExpect(middle.segments.size, middle.keys - 1);
+    t.checkExpect(middle.passages.size, middle.keys - 1);
+    t.checkExpect(grid.passageCount() + middle.segments.size, 256L * 256 - 1);
+    // far fewer keys than cells
+    t.checkExpect(middle.keys < 256 * 256 / 20, true);
+    // a tile with no seams opens its whole tree
+    MazeGrid alone = new MazeGrid(40, 30);
+    TileTree whole = ParallelMazeGenerator.generateTile(alone, new SplittableRandom(3), 0, 0);
+    t.checkExpect(whole.keys, 0);
+    t.checkExpect(whole.segments.size, 0);
+    t.checkExpect(alone.passageCount(), 40L * 30 - 1);
+  }
+
+  // tests that the ParallelMazeGenerator class picks passages across the
+  // seams between tiles as freely as Kruskal's algo on the whole board does,
+  // instead of just enough of them to join the tiles up
+  void testParallelGenerateSeams(Tester t) {
+    MazeGrid grid = new ParallelMazeGenerator(2).generate(512, 512, 7);
+    t.checkExpect(new MazeValidator(1).check(grid).isPerfect(), true);
+    int crossings = 0;
+    for (int k = 0; k < 512; k += 1) {
+      crossings += grid.isOpen(255, k, MazeGrid.RIGHT) ? 1 : 0;
+      crossings += grid.isOpen(k, 255, MazeGrid.DOWN) ? 1 : 0;
+    }
+    // about half of the 1024 edges across the seams, not the 3 it takes to
+    // join 4 tiles
+    t.checkExpect(crossings > 300 && crossings < 700, true);
+    t.checkConstructorException(new IllegalArgumentException("Cannot run on 0 threads"),
+        "ParallelMazeGenerator", 0);
+  }
+
+  // tests that the connectConcurrently method in the MazeGrid class opens
+  // the passage down between cells that are 1 apart on a grid 1 cell wide
+  void testConnectConcurrently(Tester t) {
+    MazeGrid column = new MazeGrid(1, 3);
+    column.connectConcurrently(1, 0);
+    t.checkExpect(column.isOpen(0, 0, MazeGrid.DOWN), true);
+    t.checkExpect(column.isOpen(0, 0, MazeGrid.RIGHT), false);
+    MazeGrid row = new MazeGrid(3, 2);
+    row.connectConcurrently(1, 2);
+    row.connectConcurrently(4, 1);
+    t.checkExpect(row.isOpen(1, 0, MazeGrid.RIGHT), true);
+    t.checkExpect(row.isOpen(1, 0, MazeGrid.DOWN), true);
+    t.checkExpect(new MazeValidator(1).check(row).strayLinks, 0L);
+  }
+
+  // tests the nextRow and lastRow methods in the EllerMazeStream class
+  void testEllerMazeStream(Tester t) {
+    EllerMazeStream stream = new EllerMazeStream(37, new Random(0));
+    MazeGrid grid = new MazeGrid(37, 50);
+    for (int y = 0; y < 49; y += 1) {
+      MazeRow row = stream.nextRow();
+      t.checkExpect(row.index, (long) y);
+      grid.setRow(y, row);
+    }
+    grid.setRow(49, stream.lastRow());
+    // the rows make up one perfect maze
+    t.checkExpect(grid.passageCount(), 37L * 50 - 1);
+    UnionFind sets = new UnionFind(grid.cellCount());
+    for (int y = 0; y < grid.height; y += 1) {
+      for (int x = 0; x < grid.width; x += 1) {
+        if (grid.isOpen(x, y, MazeGrid.RIGHT)) {
+          sets.union(grid.cell(x, y), grid.cell(x + 1, y));
+        }
+        if (grid.isOpen(x, y, MazeGrid.DOWN)) {
+          sets.union(grid.cell(x, y), grid.cell(x, y + 1));
+        }
+      }
+    }
+    t.checkExpect(sets.count, 1);
+    t.checkException(new IllegalStateException("The maze has already ended"), stream,
+        "nextRow");
+    t.checkConstructorException(new IllegalArgumentException("A maze cannot be 0 cells wide"),
+        "EllerMazeStream", 0, new Random(0));
+  }
+
+  // tests the generate method in the EllerMazeStream class
+  void testEllerGenerate(Tester t) {
+    EllerMazeStream stream = new EllerMazeStream(5, new Random(3));
+    ArrayList<MazeRow> rows = new ArrayList<MazeRow>();
+    stream.generate(4, new MazeRowConsumer() {
+      public void accept(MazeRow row) {
+        rows.add(row.copy());
+      }
+    }, true);
+    t.checkExpect(rows.size(), 4);
+    // the last row is joined all the way across and goes nowhere
+    for (int x = 0; x < 4; x += 1) {
+      t.checkExpect(rows.get(3).isDown(x), false);
+    }
+    t.checkExpect(stream.finished, true);
+  }
+
+  // tests the shiftUp method in the MazeGrid class
+  void testShiftUp(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 3);
+    grid.connect(3, 4);
+    grid.connect(4, 7);
+    grid.connect(6, 7);
+    grid.shiftUp();
+    t.checkExpect(grid.isConnected(0, 1), true);
+    t.checkExpect(grid.isConnected(1, 4), true);
+    t.checkExpect(grid.isConnected(3, 4), true);
+    t.checkExpect(grid.passageCount(), 3L);
+    grid.shiftUp();
+    t.checkExpect(grid.isConnected(0, 1), true);
+    t.checkExpect(grid.passageCount(), 1L);
+  }
+
+  // tests the scrollStream method in the MazeGame class
+  void testScrollStream(Tester t) {
+    EllerMazeStream stream = new EllerMazeStream(40, new Random(1));
+    MazeGame game = new MazeGame(stream, 30, 5);
+    t.checkExpect(game.bottomRow.index, 29L);
+    for (int i = 0; i < 100; i += 1) {
+      game.onTick();
+    }
+    t.checkExpect(game.bottomRow.index, 129L);
+    // the rows shown are the rows 100 to 129 of the same maze as a fresh stream
+    EllerMazeStream again = new EllerMazeStream(40, new Random(1));
+    for (int i = 0; i < 100; i += 1) {
+      again.nextRow();
+    }
+    for (int y = 0; y < 29; y += 1) {
+      MazeRow row = again.nextRow();
+      for (int x = 0; x < 40; x += 1) {
+        t.checkExpect(game.grid.isOpen(x, y, MazeGrid.RIGHT), row.isRight(x));
+        t.checkExpect(game.grid.isOpen(x, y, MazeGrid.DOWN), row.isDown(x));
+      }
+    }
+  }
+
+  // tests the solve method in the MazeSolver class
+  void testSolve(Tester t) {
+    // a 3 by 2 maze with one way through: 0 1 2 down to 5, and 3 4 off of 1
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.connect(0, 1);
+    grid.connect(1, 2);
+    grid.connect(2, 5);
+    grid.connect(1, 4);
+    grid.connect(3, 4);
+    t.checkExpect(new MazeSolver(grid, MazeSolver.BFS).solve(), new int[] { 0, 1, 2, 5 });
+    t.checkExpect(new MazeSolver(grid, MazeSolver.DFS).solve(), new int[] { 0, 1, 2, 5 });
+    t.checkExpect(new MazeSolver(grid, MazeSolver.ASTAR).solve(), new int[] { 0, 1, 2, 5 });
+    t.checkExpect(new MazeSolver(grid, MazeSolver.BFS, 3, 0).solve(), new int[] { 3, 4, 1, 0 });
+    // BFS looks at every cell closer than the goal first, so not 3
+    MazeSolver bfs = new MazeSolver(grid, MazeSolver.BFS);
+    bfs.solve();
+    t.checkExpect(bfs.visitedCount, 5);
+    t.checkExpect(bfs.isVisited(3), false);
+    t.checkExpect(bfs.isReached(3), true);
+    t.checkExpect(bfs.isOnPath(2), true);
+    t.checkExpect(bfs.isOnPath(4), false);
+    // no way to a walled off cell
+    grid.setOpen(2, 0, MazeGrid.DOWN, false);
+    t.checkExpect(new MazeSolver(grid, MazeSolver.DFS).solve(), new int[0]);
+    t.checkConstructorException(new IllegalArgumentException("Not a search: 3"), "MazeSolver",
+        grid, 3);
+    t.checkConstructorException(
+        new IllegalArgumentException("Cells 0 and 6 are not both in the maze"), "MazeSolver",
+        grid, MazeSolver.BFS, 0, 6);
+  }
+
+  // tests the step method in the MazeSolver class
+  void testSolverStep(Tester t) {
+    MazeGrid grid = MazeGrid.generate(300, 200, new Random(0));
+    int[] full = new MazeSolver(grid, MazeSolver.BFS).solve();
+    MazeSolver solver = new MazeSolver(grid, MazeSolver.BFS);
+    t.checkExpect(solver.step(10), false);
+    t.checkExpect(solver.visitedCount, 10);
+    while (!solver.step(100)) {
+      t.checkExpect(solver.path(), new int[0]);
+    }
+    t.checkExpect(solver.path(), full);
+    // every search finds the same path through a perfect maze
+    t.checkExpect(new MazeSolver(grid, MazeSolver.DFS).solve(), full);
+    MazeSolver astar = new MazeSolver(grid, MazeSolver.ASTAR);
+    t.checkExpect(astar.solve(), full);
+    // A* heads for the goal, so it looks at fewer cells
+    t.checkExpect(astar.visitedCount < solver.visitedCount, true);
+    solver.reset(full[full.length - 1], full[0]);
+    t.checkExpect(solver.stepFor(1000000000L), true);
+    t.checkExpect(solver.path().length, full.length);
+  }
+
+  // tests the onTick and paintSearch methods in the MazeGame class
+  void testAnimateSearch(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(30, 20, new Random(0)), 4);
+    game.getMazeImage();
+    game.onKeyEvent("a");
+    t.checkExpect(game.solver.algorithm, MazeSolver.ASTAR);
+    game.getMazeImage();
+    game.onTick();
+    t.checkExpect(game.solver.done, true);
+    t.checkExpect(game.solverPainted, game.solver.visitedCount);
+    // the image was patched, not drawn again
+    t.checkExpect(game.imageMisses, 2);
+    int second = game.solver.path()[1];
+    t.checkExpect(game.getMazeImage().getPixel(second % 30 * 4 + 2, second / 30 * 4 + 2),
+        Color.blue);
+    t.checkExpect(game.imageMisses, 2);
+    // drawing it all again gives the same picture
+    int last = game.solver.visitOrder[game.solver.visitedCount - 2];
+    t.checkExpect(game.rasterizeMaze().getPixel(last % 30 * 4 + 2, last / 30 * 4 + 2),
+        game.getMazeImage().getPixel(last % 30 * 4 + 2, last / 30 * 4 + 2));
+  }
+
+  // tests the writeSnapshot and readSnapshot methods in the MazeGrid class
+  void testSnapshot(Tester t) throws IOException {
+    File dir = Files.createTempDirectory("mazes").toFile();
+    File file = new File(dir, "maze.maze");
+    MazeGrid grid = MazeGrid.generate(123, 45, new Random(7));
+    grid.writeSnapshot(file);
+    t.checkExpect(file.length(), 16L + 8 * grid.bits.wordCount());
+    MazeGrid read = MazeGrid.readSnapshot(file);
+    t.checkExpect(read.width, 123);
+    t.checkExpect(read.height, 45);
+    t.checkExpect(read.words(), grid.words());
+    // a copy can change without changing the original
+    MazeGrid copy = read.copy();
+    copy.setOpen(0, 0, MazeGrid.RIGHT, !copy.isOpen(0, 0, MazeGrid.RIGHT));
+    t.checkExpect(read.words(), grid.words());
+    t.checkExpect(Arrays.equals(copy.words(), grid.words()), false);
+    File junk = new File(dir, "junk.maze");
+    Files.write(junk.toPath(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13 });
+    t.checkException(new IOException(junk + " is not a maze snapshot"), grid, "readSnapshot",
+        junk);
+    // a snapshot from before there were versions has no version after the
+    // height, and is still read
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    t.checkExpect(ByteBuffer.wrap(bytes).getInt(12), MazeGrid.SNAPSHOT_VERSION);
+    File legacy = new File(dir, "legacy.maze");
+    byte[] legacyBytes = new byte[bytes.length - 4];
+    System.arraycopy(bytes, 0, legacyBytes, 0, 12);
+    System.arraycopy(bytes, 16, legacyBytes, 12, bytes.length - 16);
+    Files.write(legacy.toPath(), legacyBytes);
+    t.checkExpect(MazeGrid.readSnapshot(legacy).words(), grid.words());
+    t.checkException(new IOException(legacy + " is a snapshot from before versions, which "
+        + "cannot be mapped"), grid, "openMapped", legacy);
+    // but a version from later is not
+    File later = new File(dir, "later.maze");
+    ByteBuffer.wrap(bytes).putInt(12, MazeGrid.SNAPSHOT_VERSION + 1);
+    Files.write(later.toPath(), bytes);
+    t.checkException(new IOException(later + " is a version 3 snapshot, not version 2"), grid,
+        "readSnapshot", later);
+    this.deleteAll(dir);
+  }
+
+  // EFFECT: deletes the given directory of test files
+  void deleteAll(File dir) {
+    for (File f : dir.listFiles()) {
+      f.delete();
+    }
+    dir.delete();
+  }
+
+  // tests the get method in the MazeCache class
+  void testMazeCache(Tester t) throws IOException, InterruptedException {
+    File dir = Files.createTempDirectory("mazes").toFile();
+    MazeCache cache = new MazeCache(8000, dir);
+    MazeGrid first = cache.get(100, 60, 0);
+    // the same maze makeConnectedBoard makes from the same seed
+    t.checkExpect(first.words(), MazeGrid.generate(100, 60, new Random(0)).words());
+    t.checkExpect(cache.get(100, 60, 0) == first, true);
+    t.checkExpect(cache.stats(), "memory hits: 1, disk hits: 0, misses: 1, evictions: 0");
+    // a second maze does not fit with the first
+    cache.get(50, 50, 1);
+    t.checkExpect(cache.evictions, 1);
+    t.checkExpect(cache.cells, 2500L);
+    // so the first comes back from disk
+    MazeGrid again = cache.get(100, 60, 0);
+    t.checkExpect(again == first, false);
+    t.checkExpect(again.words(), first.words());
+    t.checkExpect(cache.stats(), "memory hits: 1, disk hits: 1, misses: 2, evictions: 2");
+    // a new cache over the same directory finds the snapshots too
+    MazeCache later = new MazeCache(0, dir);
+    t.checkExpect(later.get(50, 50, 1).words(), MazeGrid.generate(50, 50, new Random(1)).words());
+    t.checkExpect(later.diskHits, 1);
+    t.checkExpect(later.cells, 0L);
+    MazeCache shared = new MazeCache(100000);
+    MazeGame game = new MazeGame(50, 50, 10, 1, shared);
+    t.checkExpect(game.grid.passageCount(), 2499L);
+    // the game plays a copy, so changing it leaves the cached maze alone
+    t.checkExpect(game.grid == shared.get(50, 50, 1), false);
+    game.grid.setOpen(0, 0, MazeGrid.RIGHT, !game.grid.isOpen(0, 0, MazeGrid.RIGHT));
+    t.checkExpect(shared.get(50, 50, 1).words(), MazeGrid.generate(50, 50, new Random(1))
+        .words());
+    // no temp files are left next to the snapshots
+    for (File f : dir.listFiles()) {
+      t.checkExpect(f.getName().endsWith(".maze"), true);
+    }
+    // a snapshot under the key of another size is not handed out as that
+    // size, but made again and written over
+    File wrongSize = new File(dir, "4x4-9.maze");
+    new MazeGrid(3, 2).writeSnapshot(wrongSize);
+    t.checkExpect(later.get(4, 4, 9L).words(), MazeGrid.generate(4, 4, new Random(9)).words());
+    t.checkExpect(later.misses, 1);
+    t.checkExpect(MazeGrid.readSnapshot(wrongSize).width, 4);
+    // and so is a snapshot that cannot be read
+    File broken = new File(dir, "5x5-2.maze");
+    Files.write(broken.toPath(), new byte[] { 1, 2, 3 });
+    t.checkExpect(later.get(5, 5, 2L).words(), MazeGrid.generate(5, 5, new Random(2)).words());
+    t.checkExpect(later.stats(), "memory hits: 0, disk hits: 1, misses: 2, evictions: 0");
+    t.checkExpect(MazeGrid.readSnapshot(broken).height, 5);
+    t.checkConstructorException(new IllegalArgumentException("Cannot keep -1 cells"),
+        "MazeCache", -1L, dir);
+    // a maze another thread is loading is waited for, not made again
+    MazeCache waiting = new MazeCache(100000);
+    CompletableFuture<MazeGrid> pending = new CompletableFuture<MazeGrid>();
+    waiting.loading.put("6x6-3", pending);
+    MazeGrid loaded = new MazeGrid(6, 6);
+    pending.complete(loaded);
+    t.checkExpect(waiting.get(6, 6, 3) == loaded, true);
+    t.checkExpect(waiting.stats(), "memory hits: 1, disk hits: 0, misses: 0, evictions: 0");
+    // and a load that fails is not left behind for the next caller
+    t.checkException(new IllegalArgumentException("Size cannot be negative: -5"), waiting,
+        "get", -1, 5, 1L);
+    t.checkExpect(waiting.loading.containsKey("-1x5-1"), false);
+    // two threads asking for the same maze at once get the one maze
+    MazeCache racing = new MazeCache(1000000);
+    MazeGrid[] got = new MazeGrid[2];
+    Thread other = new Thread(new Runnable() {
+      public void run() {
+        got[0] = racing.get(400, 400, 5);
+      }
+    });
+    other.start();
+    got[1] = racing.get(400, 400, 5);
+    other.join();
+    t.checkExpect(got[0] == got[1], true);
+    t.checkExpect(racing.misses, 1);
+    t.checkExpect(racing.memoryHits, 1);
+    this.deleteAll(dir);
+  }
+
+  // tests the generate method in the BatchMazeGenerator class
+  void testBatchGenerate(Tester t) throws IOException, InterruptedException {
+    ArrayList<MazeSpec> specs = new ArrayList<MazeSpec>();
+    for (int i = 0; i < 40; i += 1) {
+      specs.add(new MazeSpec(20 + i, 30, i));
+    }
+    HashMap<String, MazeGrid> made = new HashMap<String, MazeGrid>();
+    MazeSink collect = new MazeSink() {
+      public void accept(MazeSpec spec, MazeGrid grid) {
+        made.put(spec.toString(), grid);
+      }
+    };
+    t.checkExpect(new BatchMazeGenerator(4).generate(specs, collect), 40);
+    t.checkExpect(made.size(), 40);
+    for (MazeSpec spec : specs) {
+      // the same maze as one made alone
+      t.checkExpect(made.get(spec.toString()).words(),
+          MazeGrid.generate(spec.width, spec.height, new Random(spec.seed)).words());
+    }
+    // the sink can write them to disk
+    File dir = Files.createTempDirectory("mazes").toFile();
+    List<MazeSpec> some = specs.subList(0, 3);
+    t.checkExpect(new BatchMazeGenerator(2).generate(some, new SnapshotSink(dir)), 3);
+    t.checkExpect(MazeGrid.readSnapshot(new File(dir, "21x30-1.maze")).words(),
+        made.get("21x30-1").words());
+    // which takes mazes from many threads at once, each into its own file
+    t.checkExpect(collect.isThreadSafe(), false);
+    t.checkExpect(new SnapshotSink(dir).isThreadSafe(), true);
+    t.checkExpect(new BatchMazeGenerator(4).generate(specs, new SnapshotSink(dir)), 40);
+    t.checkExpect(dir.listFiles().length, 40);
+    t.checkExpect(MazeGrid.readSnapshot(new File(dir, "59x30-39.maze")).words(),
+        made.get("59x30-39").words());
+    this.deleteAll(dir);
+    // a sink that fails stops the batch
+    MazeSink failing = new MazeSink() {
+      public void accept(MazeSpec spec, MazeGrid grid) throws IOException {
+        throw new IOException("disk full");
+      }
+    };
+    t.checkException(new IOException("disk full"), new BatchMazeGenerator(2), "generate",
+        specs, failing);
+    t.checkConstructorException(
+        new IllegalArgumentException("Cannot make 0 mazes at a time"), "BatchMazeGenerator", 0);
+  }
+
   // tests the MakeConnectedBoard
   void testMakeConnectedBoard(Tester t) {
     this.initConditions();
@@ -544,6 +1117,8 @@ class ExamplesMaze {
     }
     //must divide count by two since each edge will be counted twice, once at every node it connects
     t.checkExpect(count1/2, 11);
+    //and the edges make a spanning tree of the grid
+    t.checkExpect(new MazeValidator().check(test1).isPerfect(), true);
     
     ArrayList<ArrayList<Node>> test2 = this.g1.makeConnectedBoard(100, 60, new Random(0));
     t.checkExpect(test2.size(), 60);
@@ -557,6 +1132,1146 @@ class ExamplesMaze {
     }
     //must divide count by two since each edge will be counted twice, once at every node it connects
     t.checkExpect(count2/2, 5999);
+    t.checkExpect(new MazeValidator().check(test2).isPerfect(), true);
+  }
+
+  // tests the counts kept by MazeMetrics while making and drawing a maze
+  void testMazeMetrics(Tester t) {
+    MazeMetrics.reset();
+    MazeMetrics.enabled = true;
+    MazeGrid grid = MazeGrid.generate(30, 20, new Random(5));
+    MazeGame game = new MazeGame(grid, 4);
+    game.makeScene();
+    game.makeScene();
+    MazeMetrics.enabled = false;
+    MazeGrid.generate(30, 20, new Random(5));
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.BUILD_EDGES), 1L);
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.SORT_EDGES), 1L);
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.KRUSKAL), 1L);
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.RENDER_FRAME), 2L);
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.DRAW_MAZE), 0L);
+    t.checkExpect(MazeMetrics.UNIONS.get(), 599L);
+    t.checkExpect(MazeMetrics.EDGES_EXAMINED.get() - MazeMetrics.EDGES_REJECTED.get(), 599L);
+    t.checkExpect(MazeMetrics.EDGES_EXAMINED.get() <= 29 * 20 + 30 * 19, true);
+    // every union does two finds
+    t.checkExpect(MazeMetrics.FINDS.get() >= 2 * MazeMetrics.EDGES_EXAMINED.get(), true);
+    t.checkExpect(MazeMetrics.MAX_FIND_DEPTH.get() >= 1, true);
+    t.checkExpect(MazeMetrics.meanFindDepth() <= MazeMetrics.MAX_FIND_DEPTH.get(), true);
+    t.checkExpect(MazeMetrics.report().startsWith("build edges: 1 calls, "), true);
+    MazeMetrics.reset();
+    t.checkExpect(MazeMetrics.UNIONS.get(), 0L);
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.RENDER_FRAME), 0L);
+  }
+
+  // tests that the start method in the PhaseTimer class makes nothing while
+  // nothing is measuring, and that a phase that throws is still counted
+  void testPhaseTimerOff(Tester t) throws IOException {
+    MazeMetrics.reset();
+    MazeMetrics.enabled = false;
+    t.checkExpect(PhaseTimer.start(MazeMetrics.KRUSKAL, 10) == PhaseTimer.NONE, true);
+    PhaseTimer.NONE.stop();
+    t.checkExpect(MazeMetrics.CALLS.get(0), 0L);
+    // a recording that wants the phase events gets them even with metrics off
+    try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+      recording.enable(MazePhaseEvent.class);
+      recording.start();
+      PhaseTimer timer = PhaseTimer.start(MazeMetrics.KRUSKAL, 10);
+      t.checkExpect(timer == PhaseTimer.NONE, false);
+      t.checkExpect(timer.event.items, 10L);
+      t.checkExpect(timer.startNanos, 0L);
+      timer.stop();
+    }
+    t.checkExpect(PhaseTimer.start(MazeMetrics.KRUSKAL, 10) == PhaseTimer.NONE, true);
+    MazeMetrics.enabled = true;
+    PackedEdges bad = new PackedEdges(1);
+    bad.add(0, 1, -1);
+    t.checkException(new IllegalArgumentException(
+        "Weight -1 is not between 0 and 100 for a counting sort"), bad, "sortByWeight", 100);
+    MazeMetrics.enabled = false;
+    t.checkExpect(MazeMetrics.CALLS.get(MazeMetrics.SORT_EDGES), 1L);
+    MazeMetrics.reset();
+  }
+
+  // tests the find method in the CountingUnionFind class
+  void testCountingUnionFind(Tester t) {
+    CountingUnionFind sets = new CountingUnionFind(4);
+    sets.parent[0] = 1;
+    sets.parent[1] = 2;
+    t.checkExpect(sets.find(0), 2);
+    t.checkExpect(sets.maxDepth, 2);
+    t.checkExpect(sets.find(0), 2);
+    t.checkExpect(sets.finds, 2L);
+    t.checkExpect(sets.steps, 3L);
+    t.checkExpect(sets.find(3), 3);
+    t.checkExpect(sets.steps, 3L);
+  }
+
+  // tests the regenerateRegion method in the MazeGrid class
+  void testRegenerateRegion(Tester t) {
+    MazeGrid grid = MazeGrid.generate(40, 30, new Random(3));
+    MazeGrid before = grid.copy();
+    grid.regenerateRegion(5, 4, 20, 15, new Random(9));
+    t.checkExpect(grid.passageCount(), 1199L);
+    t.checkExpect(this.componentCount(grid), 1);
+    t.checkExpect(Arrays.equals(grid.words(), before.words()), false);
+    // nothing changes outside of the region
+    int changed = 0;
+    for (int y = 0; y < 30; y += 1) {
+      for (int x = 0; x < 40; x += 1) {
+        boolean inside = x >= 5 && x < 25 && y >= 4 && y < 19;
+        if (!(inside && x + 1 < 25) && grid.isOpen(x, y, MazeGrid.RIGHT) != before.isOpen(x, y,
+            MazeGrid.RIGHT)) {
+          changed += 1;
+        }
+        if (!(inside && y + 1 < 19) && grid.isOpen(x, y, MazeGrid.DOWN) != before.isOpen(x, y,
+            MazeGrid.DOWN)) {
+          changed += 1;
+        }
+      }
+    }
+    t.checkExpect(changed, 0);
+    // the whole maze has nothing outside to stay joined to, so it is made
+    // over the same way generate makes it
+    grid.regenerateRegion(0, 0, 40, 30, new Random(1));
+    t.checkExpect(grid.words(), MazeGrid.generate(40, 30, new Random(1)).words());
+    before = grid.copy();
+    grid.regenerateRegion(7, 7, 0, 5, new Random(1));
+    t.checkExpect(grid.words(), before.words());
+    // many regions one after the other keep the maze perfect
+    MazeGrid big = MazeGrid.generate(300, 200, new Random(8));
+    Random rand = new Random(11);
+    for (int k = 0; k < 30; k += 1) {
+      int w = 1 + rand.nextInt(80);
+      int h = 1 + rand.nextInt(80);
+      big.regenerateRegion(rand.nextInt(300 - w + 1), rand.nextInt(200 - h + 1), w, h, rand);
+    }
+    t.checkExpect(big.passageCount(), 59999L);
+    t.checkExpect(this.componentCount(big), 1);
+    t.checkException(
+        new IllegalArgumentException("The 5 by 5 region at (38, 0) is not inside this 40 by 30 maze"),
+        grid, "regenerateRegion", 38, 0, 5, 5, new Random(0));
+    t.checkException(
+        new IllegalArgumentException("The -1 by 5 region at (3, 0) is not inside this 40 by 30 maze"),
+        grid, "regenerateRegion", 3, 0, -1, 5, new Random(0));
+  }
+
+  // tests the regenerateRegion method in the MazeGame class
+  void testRegenerateRegionRedraw(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(30, 20, new Random(2)), 4);
+    game.getMazeImage();
+    game.regenerateRegion(3, 3, 10, 8, new Random(4));
+    ComputedPixelImage patched = game.getMazeImage();
+    t.checkExpect(game.imageCacheStats(), "maze image hits: 1, misses: 1");
+    ComputedPixelImage fresh = game.rasterizeMaze();
+    int different = 0;
+    for (int y = 0; y < 80; y += 1) {
+      for (int x = 0; x < 120; x += 1) {
+        if (!patched.getPixel(x, y).equals(fresh.getPixel(x, y))) {
+          different += 1;
+        }
+      }
+    }
+    t.checkExpect(different, 0);
+    // with the heatmap on, cells outside the region change color too
+    game.toggleHeatmap();
+    int[] before = game.getDistances().fromStart.clone();
+    game.regenerateRegion(0, 0, 12, 12, new Random(9));
+    t.checkExpect(Arrays.equals(before, game.getDistances().fromStart), false);
+    patched = game.getMazeImage();
+    fresh = game.rasterizeMaze();
+    different = 0;
+    for (int y = 0; y < 80; y += 1) {
+      for (int x = 0; x < 120; x += 1) {
+        if (!patched.getPixel(x, y).equals(fresh.getPixel(x, y))) {
+          different += 1;
+        }
+      }
+    }
+    t.checkExpect(different, 0);
+    game.toggleHeatmap();
+    // only the one tile showing the region is drawn again
+    MazeGame window = new MazeGame(MazeGrid.generate(300, 200, new Random(2)), 2, 200, 150);
+    window.viewport.draw(window.getEmptyScene());
+    int tiles = window.viewport.tiles.size();
+    window.regenerateRegion(10, 10, 20, 20, new Random(4));
+    t.checkExpect(window.viewport.tiles.size(), tiles - 1);
+    int misses = window.viewport.tileMisses;
+    window.viewport.draw(window.getEmptyScene());
+    t.checkExpect(window.viewport.tileMisses, misses + 1);
+    // with the heatmap on, the tiles with a cell that changed color go too,
+    // and the ones that stay are the same as if drawn again
+    window.toggleHeatmap();
+    window.viewport.draw(window.getEmptyScene());
+    DistanceField heatBefore = window.getDistances();
+    window.regenerateRegion(10, 10, 20, 20, new Random(5));
+    DistanceField heatAfter = window.getDistances();
+    MazeViewport redrawn = new MazeViewport(window, 200, 150);
+    int kept = 0;
+    boolean keptSame = true;
+    for (long key : new ArrayList<Long>(window.viewport.tiles.keySet())) {
+      int col = (int) (key & MazeViewport.TILE_INDEX_MASK);
+      int row = (int) (key >>> 25 & MazeViewport.TILE_INDEX_MASK);
+      ComputedPixelImage tile = window.viewport.tiles.get(key);
+      ComputedPixelImage again = redrawn.getTile(col, row);
+      for (int y = 0; y < tile.getHeight(); y += 1) {
+        for (int x = 0; x < tile.getWidth(); x += 1) {
+          keptSame = keptSame && tile.getPixel(x, y).equals(again.getPixel(x, y));
+        }
+      }
+      kept += 1;
+    }
+    t.checkExpect(keptSame, true);
+    // cells changed color, but only in the tile with the region, so the
+    // other tiles are kept
+    int recolored = 0;
+    for (int cell = 0; cell < window.grid.cellCount(); cell += 1) {
+      if (!heatBefore.heatColor(cell).equals(heatAfter.heatColor(cell))) {
+        recolored += 1;
+      }
+    }
+    t.checkExpect(recolored > 0, true);
+    t.checkExpect(kept, tiles - 1);
+    // a search of the old maze is dropped
+    game.startSolving(MazeSolver.BFS);
+    game.regenerateRegion(0, 0, 5, 5, new Random(4));
+    t.checkExpect(game.solver, null);
+    t.checkExpect(game.mazeImage, null);
+  }
+
+  // tests the constructor and the hint and isOnSolution methods in the
+  // DistanceField class
+  void testDistanceField(Tester t) {
+    MazeGrid grid = new MazeGrid(2, 2);
+    grid.connect(0, 1);
+    grid.connect(0, 2);
+    grid.connect(2, 3);
+    DistanceField field = new DistanceField(grid);
+    t.checkExpect(field.fromStart, new int[] { 0, 1, 1, 2 });
+    t.checkExpect(field.fromGoal, new int[] { 2, 3, 1, 0 });
+    t.checkExpect(field.solutionLength, 2);
+    t.checkExpect(field.deadEnds, 2);
+    t.checkExpect(field.farthestCell, 3);
+    t.checkExpect(field.farthestDistance, 2);
+    t.checkExpect(field.longestPath, 3);
+    t.checkExpect(field.isOnSolution(2), true);
+    t.checkExpect(field.isOnSolution(1), false);
+    t.checkExpect(field.hint(1), 0);
+    t.checkExpect(field.hint(0), 2);
+    t.checkExpect(field.hint(3), -1);
+    t.checkExpect(field.isCurrent(grid), true);
+    grid.setOpen(0, 0, MazeGrid.RIGHT, false);
+    t.checkExpect(field.isCurrent(grid), false);
+    field = new DistanceField(grid);
+    t.checkExpect(field.fromStart, new int[] { 0, -1, 1, 2 });
+    t.checkExpect(field.hint(1), -1);
+    // the same lengths a search finds
+    MazeGrid big = MazeGrid.generate(300, 200, new Random(6));
+    field = new DistanceField(big);
+    MazeSolver solver = new MazeSolver(big, MazeSolver.BFS);
+    solver.solve();
+    t.checkExpect(field.solutionLength, solver.path().length - 1);
+    int onSolution = 0;
+    for (int c = 0; c < big.cellCount(); c += 1) {
+      onSolution += field.isOnSolution(c) ? 1 : 0;
+    }
+    t.checkExpect(onSolution, solver.path().length);
+    t.checkExpect(new DistanceField(new MazeGrid(0, 0)).solutionLength, -1);
+  }
+
+  // tests the LevelSearch class when it looks at levels in parallel
+  void testLevelSearchParallel(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    // every passage open, so the distance is how far across and down a cell is
+    MazeGrid open = new MazeGrid(60, 50);
+    for (int y = 0; y < 50; y += 1) {
+      for (int x = 0; x < 60; x += 1) {
+        if (x + 1 < 60) {
+          open.setOpen(x, y, MazeGrid.RIGHT, true);
+        }
+        if (y + 1 < 50) {
+          open.setOpen(x, y, MazeGrid.DOWN, true);
+        }
+      }
+    }
+    LevelSearch search = new LevelSearch(open, pool, 0, 1, 4);
+    int wrong = 0;
+    for (int c = 0; c < open.cellCount(); c += 1) {
+      wrong += search.distances[c] == c % 60 + c / 60 ? 0 : 1;
+    }
+    t.checkExpect(wrong, 0);
+    t.checkExpect(search.depth, 59 + 49);
+    t.checkExpect(search.lastCell, open.cellCount() - 1);
+    // the same as one thread, on a perfect maze
+    MazeGrid maze = MazeGrid.generate(300, 200, new Random(6));
+    LevelSearch parallel = new LevelSearch(maze, pool, 0, 2, 3);
+    LevelSearch sequential = new LevelSearch(maze, pool, 0, Integer.MAX_VALUE, 1);
+    t.checkExpect(parallel.distances, sequential.distances);
+    t.checkExpect(parallel.deadEnds, sequential.deadEnds);
+    t.checkExpect(parallel.depth, sequential.depth);
+    // a perfect maze has levels big enough to split
+    MazeGrid wide = MazeGrid.generate(600, 600, new Random(6));
+    LevelSearch widest = new LevelSearch(wide, pool, 0, Integer.MAX_VALUE, 1);
+    int biggest = 0;
+    int[] levelSizes = new int[widest.depth + 1];
+    for (int c = 0; c < wide.cellCount(); c += 1) {
+      levelSizes[widest.distances[c]] += 1;
+      biggest = Math.max(biggest, levelSizes[widest.distances[c]]);
+    }
+    t.checkExpect(biggest >= LevelSearch.PARALLEL_LEVEL, true);
+    t.checkExpect(new LevelSearch(wide, pool, 0).distances, widest.distances);
+    // the searches a DistanceField runs at once on the pool
+    DistanceField field = new DistanceField(wide, pool);
+    t.checkExpect(field.fromStart, widest.distances);
+    t.checkExpect(field.fromGoal,
+        new LevelSearch(wide, pool, wide.cellCount() - 1, Integer.MAX_VALUE, 1).distances);
+    pool.shutdown();
+  }
+
+  // tests the getDistances and toggleHeatmap methods in the MazeGame class
+  void testHeatmap(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(30, 20, new Random(2)), 4);
+    DistanceField field = game.getDistances();
+    t.checkExpect(game.getDistances() == field, true);
+    ComputedPixelImage img = game.getMazeImage();
+    int cell = field.farthestCell;
+    int x = cell % 30 * 4 + 2;
+    int y = cell / 30 * 4 + 2;
+    t.checkExpect(img.getPixel(x, y), Color.gray);
+    game.onKeyEvent("h");
+    t.checkExpect(game.heatmap, true);
+    // drawn over the same image, which is still current
+    t.checkExpect(game.getMazeImage() == img, true);
+    t.checkExpect(img.getPixel(x, y), DistanceField.HEAT[DistanceField.HEAT.length - 1]);
+    t.checkExpect(img.getPixel(2, 2), Color.green);
+    t.checkExpect(game.rasterizeMaze().getPixel(x, y), img.getPixel(x, y));
+    game.toggleHeatmap();
+    t.checkExpect(img.getPixel(x, y), Color.gray);
+    t.checkExpect(game.imageCacheStats(), "maze image hits: 1, misses: 1");
+    game.regenerateRegion(0, 0, 10, 10, new Random(1));
+    t.checkExpect(game.getDistances() == field, false);
+    t.checkExpect(game.getDistances().isCurrent(game.grid), true);
+  }
+
+  // tests the writePng method in the MazeExporter class
+  void testExportPng(Tester t) throws IOException {
+    MazeGrid grid = MazeGrid.generate(30, 20, new Random(4));
+    for (int size = 1; size <= 5; size += 2) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      new MazeExporter(grid, size).writePng(bytes);
+      BufferedImage png = ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+      ComputedPixelImage expected = new MazeGame(grid, size).rasterizeMaze();
+      t.checkExpect(png.getWidth(), 30 * size);
+      t.checkExpect(png.getHeight(), 20 * size);
+      int different = 0;
+      for (int y = 0; y < png.getHeight(); y += 1) {
+        for (int x = 0; x < png.getWidth(); x += 1) {
+          if (png.getRGB(x, y) != expected.getPixel(x, y).getRGB()) {
+            different += 1;
+          }
+        }
+      }
+      t.checkExpect(different, 0);
+    }
+    // a maze with no cells is one gray pixel
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new MazeExporter(new MazeGrid(0, 3), 4).writePng(bytes);
+    BufferedImage png = ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+    t.checkExpect(png.getWidth(), 1);
+    t.checkExpect(png.getRGB(0, 0), Color.gray.getRGB());
+    // and to a file, tall enough to go through many IDAT chunks
+    File file = File.createTempFile("maze", ".png");
+    try {
+      MazeGrid tall = MazeGrid.generate(50, 3000, new Random(1));
+      new MazeExporter(tall, 4).writePng(file);
+      png = ImageIO.read(file);
+      t.checkExpect(png.getHeight(), 12000);
+      t.checkExpect(png.getRGB(199, 11999), Color.magenta.getRGB());
+    }
+    finally {
+      file.delete();
+    }
+    t.checkConstructorException(
+        new IllegalArgumentException("A cell cannot be 0 pixels on a side"), "MazeExporter",
+        grid, 0);
+    t.checkConstructorException(
+        new IllegalArgumentException(
+            "A 30 by 20 maze is too big to export with 100000000 pixel cells"),
+        "MazeExporter", grid, 100000000);
+  }
+
+  // tests the writeSvg method in the MazeExporter class
+  void testExportSvg(Tester t) throws IOException {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.connect(0, 1);
+    grid.connect(1, 2);
+    grid.connect(0, 3);
+    grid.connect(2, 5);
+    grid.connect(3, 4);
+    StringWriter out = new StringWriter();
+    new MazeExporter(grid, 10).writeSvg(out);
+    t.checkExpect(out.toString(), "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"30\" "
+        + "height=\"20\" viewBox=\"0 0 30 20\" shape-rendering=\"crispEdges\">\n"
+        + "<rect width=\"30\" height=\"20\" fill=\"#808080\"/>\n"
+        + "<rect width=\"10\" height=\"10\" fill=\"#00ff00\"/>\n"
+        + "<rect x=\"20\" y=\"10\" width=\"10\" height=\"10\" fill=\"#ff00ff\"/>\n"
+        + "<path fill=\"#000000\" d=\""
+        // the wall above the middle of the bottom row
+        + "M10 10h10v1h-10z"
+        // the wall between the last two cells of the bottom row
+        + "M20 10h1v10h-1z"
+        + "\"/>\n</svg>\n");
+    // every wall of a big maze is drawn once, in runs
+    MazeGrid big = MazeGrid.generate(200, 150, new Random(3));
+    out = new StringWriter();
+    new MazeExporter(big, 2).writeSvg(out);
+    String svg = out.toString();
+    int runs = 0;
+    long wallLength = 0;
+    int at = svg.indexOf('M');
+    while (at >= 0) {
+      runs += 1;
+      int h = svg.indexOf('h', at);
+      int v = svg.indexOf('v', at);
+      int end = svg.indexOf('h', v);
+      // a run is as long as its longer side
+      wallLength += Math.max(Integer.parseInt(svg.substring(h + 1, v)),
+          Integer.parseInt(svg.substring(v + 1, end))) / 2;
+      at = svg.indexOf('M', end);
+    }
+    // every cell border not on the outside is a wall or one of the 29999 passages
+    t.checkExpect(wallLength, 199L * 150 + 200 * 149 - 29999);
+    t.checkExpect(runs < wallLength, true);
+  }
+
+  // tests the check method in the MazeValidator class on a MazeGrid
+  void testMazeValidatorGrid(Tester t) {
+    MazeValidator validator = new MazeValidator(2);
+    MazeGrid grid = MazeGrid.generate(30, 20, new Random(7));
+    MazeCheck check = validator.check(grid);
+    t.checkExpect(check.isPerfect(), true);
+    t.checkExpect(check.toString(),
+        "600 cells, 599 passages, 1 components, 0 cycles, 0 stray links");
+    // opening a wall makes a loop
+    int wall = 0;
+    while (grid.getBit(wall, 0)) {
+      wall += 1;
+    }
+    grid.setBit(wall, 0, true);
+    t.checkExpect(validator.check(grid).toString(),
+        "600 cells, 600 passages, 1 components, 1 cycles, 0 stray links");
+    // walling off two passages cuts the maze in two
+    grid.setBit(wall, 0, false);
+    int passage = 0;
+    while (!grid.getBit(passage, 1)) {
+      passage += 1;
+    }
+    grid.setBit(passage, 1, false);
+    check = validator.check(grid);
+    t.checkExpect(check.components, 2L);
+    t.checkExpect(check.isPerfect(), false);
+    grid.setBit(passage, 1, true);
+    // passages off the edge of the grid
+    grid.setBit(grid.cell(29, 3), 0, true);
+    grid.setBit(grid.cell(4, 19), 1, true);
+    check = validator.check(grid);
+    t.checkExpect(check.strayLinks, 2L);
+    t.checkExpect(check.passages, 599L);
+    t.checkExpect(check.isPerfect(), false);
+    MazeGrid odd = new MazeGrid(3, 3);
+    odd.bits.setWord(0, odd.bits.getWord(0) | 1L << 20);
+    t.checkExpect(validator.check(odd).strayLinks, 1L);
+    t.checkExpect(validator.check(new MazeGrid(0, 0)).isPerfect(), true);
+    t.checkExpect(validator.check(new MazeGrid(1, 1)).isPerfect(), true);
+    // the cells of a stripe's top and bottom rows are numbered by the first of
+    // them in their set
+    UnionFind stripe = new UnionFind(9);
+    stripe.union(0, 3);
+    stripe.union(3, 6);
+    stripe.union(2, 8);
+    t.checkExpect(MazeValidator.seamSets(stripe, 3, 3, 3), new int[] { 0, 1, 2, 0, 4, 2 });
+    t.checkExpect(MazeValidator.seamSets(stripe, 3, 1, 1), new int[] { 0, 1, 2 });
+    // many stripes, with the loop and the cut between two of them
+    MazeGrid tall = MazeGrid.generate(100, 2000, new Random(7));
+    t.checkExpect(validator.check(tall).isPerfect(), true);
+    int rows = MazeValidator.STRIPE_CELLS / 100;
+    int x = 0;
+    while (tall.isOpen(x, rows - 1, MazeGrid.DOWN)) {
+      x += 1;
+    }
+    tall.setOpen(x, rows - 1, MazeGrid.DOWN, true);
+    check = validator.check(tall);
+    t.checkExpect(check.cycles, 1L);
+    t.checkExpect(check.components, 1L);
+    tall.setOpen(x, rows - 1, MazeGrid.DOWN, false);
+    x = 0;
+    while (!tall.isOpen(x, 2 * rows - 1, MazeGrid.DOWN)) {
+      x += 1;
+    }
+    tall.setOpen(x, 2 * rows - 1, MazeGrid.DOWN, false);
+    check = validator.check(tall);
+    t.checkExpect(check.cycles, 0L);
+    t.checkExpect(check.components, 2L);
+    t.checkExpect(check.passages, 199998L);
+    // no pool is kept between checks
+    t.checkExpect(validator.pool, null);
+    t.checkConstructorException(new IllegalArgumentException("Cannot run on 0 threads"),
+        "MazeValidator", 0);
+  }
+
+  // tests the check method in the MazeValidator class on a Node board
+  void testMazeValidatorNodes(Tester t) {
+    MazeValidator validator = new MazeValidator();
+    ArrayList<ArrayList<Node>> board = MazeGrid.generate(6, 5, new Random(2)).toNodeBoard();
+    t.checkExpect(validator.check(board).toString(),
+        "30 cells, 29 passages, 1 components, 0 cycles, 0 stray links");
+    // a passage that jumps across the board
+    board.get(0).get(0).connect(board.get(2).get(2), 0);
+    t.checkExpect(validator.check(board).toString(),
+        "30 cells, 29 passages, 1 components, 0 cycles, 1 stray links");
+    // and one to a node that is not on the board
+    board.get(1).get(1).connect(new Node(), 0);
+    t.checkExpect(validator.check(board).strayLinks, 2L);
+    // the same passage twice is a loop
+    ArrayList<ArrayList<Node>> twice = MazeGrid.generate(6, 5, new Random(2)).toNodeBoard();
+    twice.get(0).get(0).outedges.get(0).from.connect(twice.get(0).get(0).outedges.get(0).to, 0);
+    t.checkExpect(validator.check(twice).cycles, 1L);
+    t.checkExpect(validator.check(twice).isPerfect(), false);
+    t.checkExpect(validator.check(new ArrayList<ArrayList<Node>>()).isPerfect(), true);
+  }
+
+  // tests the step, stepFor and isDone methods in the KruskalMaze class
+  void testKruskalStep(Tester t) {
+    PackedEdges edges = MazeGrid.boardEdges(30, 20, new Random(3));
+    edges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    KruskalMaze whole = new KruskalMaze(600, edges);
+    PackedEdges tree = whole.packedAlgorithm();
+    KruskalMaze steps = new KruskalMaze(600, edges);
+    t.checkExpect(steps.isDone(), false);
+    t.checkExpect(steps.step(100), false);
+    t.checkExpect(steps.stepNext, 100);
+    t.checkExpect(steps.step(0), false);
+    t.checkExpect(steps.stepNext, 100);
+    while (!steps.step(77)) {
+      t.checkExpect(steps.stepPicked <= 599, true);
+    }
+    t.checkExpect(steps.stepPicked, 599);
+    t.checkExpect(steps.inTree, whole.inTree);
+    t.checkExpect(steps.stepNext <= edges.size, true);
+    t.checkExpect(steps.getPackedLeftOver().size, edges.size - tree.size);
+    KruskalMaze timed = new KruskalMaze(600, edges);
+    t.checkExpect(timed.stepFor(1000000000L), true);
+    t.checkExpect(timed.inTree, whole.inTree);
+    t.checkExpect(new KruskalMaze(1, new PackedEdges(0)).isDone(), true);
+  }
+
+  // tests the generateStep method in the MazeGame class
+  void testGenerateStep(Tester t) {
+    MazeGame game = new MazeGame(30, 20, 4, new Random(3), 50);
+    t.checkExpect(game.grid.passageCount(), 0L);
+    game.makeScene();
+    game.onTick();
+    t.checkExpect(game.grid.passageCount() > 0 && game.grid.passageCount() <= 50, true);
+    game.makeScene();
+    int ticks = 1;
+    while (!game.generator.isDone()) {
+      game.onTick();
+      game.makeScene();
+      ticks += 1;
+    }
+    t.checkExpect(ticks > 10, true);
+    // every frame after the first reused the image, patched a tick at a time
+    t.checkExpect(game.imageCacheStats(), "maze image hits: " + ticks + ", misses: 1");
+    t.checkExpect(game.grid.words(), MazeGrid.generate(30, 20, new Random(3)).words());
+    ComputedPixelImage fresh = game.rasterizeMaze();
+    int different = 0;
+    for (int y = 0; y < 80; y += 1) {
+      for (int x = 0; x < 120; x += 1) {
+        if (!game.mazeImage.getPixel(x, y).equals(fresh.getPixel(x, y))) {
+          different += 1;
+        }
+      }
+    }
+    t.checkExpect(different, 0);
+    // once done, ticks leave the maze alone
+    int version = game.grid.version;
+    game.onTick();
+    t.checkExpect(game.grid.version, version);
+    // a time budget, and a viewport that forgets only the tiles that changed
+    MazeGame window = new MazeGame(300, 200, 2, new Random(3), 10);
+    window.viewport = new MazeViewport(window, 200, 150);
+    window.generationNanos = 1000000000L;
+    window.viewport.draw(window.getEmptyScene());
+    window.onTick();
+    t.checkExpect(window.generator.isDone(), true);
+    t.checkExpect(window.grid.passageCount(), 59999L);
+    t.checkExpect(window.viewport.tiles.size(), 0);
+    // cells in opposite corners forget their two tiles, not the two between
+    t.checkExpect(window.viewport.draw(window.getEmptyScene()), 4);
+    int[] corners = new int[] { window.grid.cell(5, 5), window.grid.cell(70, 70) };
+    window.viewport.invalidateCells(corners, 2, window.grid.version);
+    t.checkExpect(window.viewport.tiles.containsKey(window.viewport.tileKey(1, 0)), true);
+    t.checkExpect(window.viewport.tiles.containsKey(window.viewport.tileKey(0, 1)), true);
+    t.checkExpect(window.viewport.tiles.size(), 2);
+    // the heatmap is left as it was while the maze is being made, and worked
+    // out again once it is done
+    MazeGame frozen = new MazeGame(30, 20, 4, new Random(3), 50);
+    frozen.toggleHeatmap();
+    DistanceField start = frozen.heatField();
+    frozen.onTick();
+    t.checkExpect(frozen.heatField() == start, true);
+    while (frozen.isGenerating()) {
+      frozen.onTick();
+    }
+    t.checkExpect(frozen.heatField() == start, false);
+    t.checkExpect(frozen.heatField().isCurrent(frozen.grid), true);
+    // with the heatmap on, cells far from the passages opened change color
+    MazeGame heat = new MazeGame(30, 20, 4, new Random(3), 50);
+    heat.toggleHeatmap();
+    heat.makeScene();
+    different = 0;
+    while (!heat.generator.isDone()) {
+      heat.onTick();
+      fresh = heat.rasterizeMaze();
+      for (int y = 0; y < 80; y += 1) {
+        for (int x = 0; x < 120; x += 1) {
+          if (!heat.getMazeImage().getPixel(x, y).equals(fresh.getPixel(x, y))) {
+            different += 1;
+          }
+        }
+      }
+    }
+    t.checkExpect(different, 0);
+  }
+
+  // tests the createMapped, openMapped and flush methods in the MazeGrid class
+  void testMappedGrid(Tester t) throws IOException {
+    File dir = Files.createTempDirectory("mazes").toFile();
+    File file = new File(dir, "mapped.maze");
+    MazeGrid grid = MazeGrid.createMapped(file, 123, 45);
+    t.checkExpect(grid.bits instanceof OffHeapStorage, true);
+    t.checkExpect(grid.passageCount(), 0L);
+    MazeGrid made = MazeGrid.generate(123, 45, new Random(7));
+    for (int y = 0; y < 45; y += 1) {
+      for (int x = 0; x < 123; x += 1) {
+        if (made.isOpen(x, y, MazeGrid.RIGHT)) {
+          grid.setOpen(x, y, MazeGrid.RIGHT, true);
+        }
+        if (made.isOpen(x, y, MazeGrid.DOWN)) {
+          grid.setOpen(x, y, MazeGrid.DOWN, true);
+        }
+      }
+    }
+    grid.flush();
+    // the file is a snapshot as it changes
+    t.checkExpect(file.length(), 16L + 8 * made.bits.wordCount());
+    t.checkExpect(MazeGrid.readSnapshot(file).words(), made.words());
+    MazeGrid opened = MazeGrid.openMapped(file);
+    t.checkExpect(opened.width, 123);
+    t.checkExpect(opened.height, 45);
+    t.checkExpect(opened.words(), made.words());
+    t.checkExpect(new MazeValidator(1).check(opened).isPerfect(), true);
+    // changing the mapped maze changes the file
+    opened.setOpen(0, 0, MazeGrid.RIGHT, !opened.isOpen(0, 0, MazeGrid.RIGHT));
+    opened.flush();
+    t.checkExpect(MazeGrid.readSnapshot(file).isOpen(0, 0, MazeGrid.RIGHT),
+        !made.isOpen(0, 0, MazeGrid.RIGHT));
+    // a mapped maze is copied onto the heap
+    t.checkExpect(opened.copy().bits instanceof HeapStorage, true);
+    t.checkExpect(opened.copy().words(), opened.words());
+    File junk = new File(dir, "junk.maze");
+    Files.write(junk.toPath(), new byte[] { 1, 2, 3 });
+    t.checkException(new IOException(junk + " is not a maze snapshot"), grid, "openMapped",
+        junk);
+    File shortFile = new File(dir, "short.maze");
+    Files.write(shortFile.toPath(), Arrays.copyOf(Files.readAllBytes(file.toPath()), 40));
+    t.checkException(new IOException(shortFile + " is the wrong size for a 123 by 45 maze"),
+        grid, "openMapped", shortFile);
+    t.checkConstructorException(
+        new IllegalArgumentException("A 3 by 3 maze needs 1 words, not 2"), "MazeGrid", 3, 3,
+        new HeapStorage(2));
+    this.deleteAll(dir);
+  }
+
+  // tests the OffHeapBuffer and OffHeapStorage classes
+  void testOffHeapStorage(Tester t) {
+    OffHeapBuffer buffer = OffHeapBuffer.allocateDirect(64);
+    t.checkExpect(buffer.chunks.length, 1);
+    buffer.putLong(8, 0x0102030405060708L);
+    t.checkExpect(buffer.getLong(8), 0x0102030405060708L);
+    // little endian, like a snapshot
+    t.checkExpect(buffer.get(8), (byte) 8);
+    t.checkExpect(buffer.getInt(12), 0x01020304);
+    buffer.putInt(16, -5);
+    t.checkExpect(buffer.getInt(16), -5);
+    buffer.orLongAtomically(8, 0xF0L << 56);
+    t.checkExpect(buffer.getLong(8), 0xF102030405060708L);
+    // a buffer bigger than a chunk is cut into chunks
+    t.checkExpect(OffHeapBuffer.chunkCount(0), 0);
+    t.checkExpect(OffHeapBuffer.chunkCount(OffHeapBuffer.CHUNK_BYTES), 1);
+    t.checkExpect(OffHeapBuffer.chunkCount(OffHeapBuffer.CHUNK_BYTES + 1), 2);
+    t.checkExpect(OffHeapBuffer.chunkSize(OffHeapBuffer.CHUNK_BYTES + 8, 1), 8);
+    t.checkExpect(OffHeapBuffer.chunkCount(5L * OffHeapBuffer.CHUNK_BYTES), 5);
+    t.checkExpect(OffHeapBuffer.within(OffHeapBuffer.CHUNK_BYTES + 24), 24);
+    t.checkException(new IllegalArgumentException("A buffer cannot be -1 bytes"),
+        new OffHeapBuffer(new ByteBuffer[0], 0), "chunkCount", -1L);
+    OffHeapStorage storage = new OffHeapStorage(buffer, 8);
+    storage.setWord(7, -1L);
+    t.checkExpect(storage.getWord(7), -1L);
+    storage.orWordAtomically(0, 6L);
+    t.checkExpect(storage.getWord(0), 6L);
+    storage.flush();
+    t.checkConstructorException(
+        new IllegalArgumentException("A buffer of 64 bytes cannot hold 9 words"),
+        "OffHeapStorage", buffer, 9);
+    // a grid kept in direct memory works like one on the heap
+    MazeGrid grid = new MazeGrid(10, 10, new OffHeapStorage(OffHeapBuffer.allocateDirect(32), 4));
+    grid.connect(0, 1);
+    grid.connect(0, 10);
+    t.checkExpect(grid.isConnected(1, 0), true);
+    t.checkExpect(grid.isOpen(0, 1, MazeGrid.UP), true);
+    t.checkExpect(grid.passageCount(), 2L);
+  }
+
+  // tests the find and union methods in the OffHeapUnionFind class
+  void testOffHeapUnionFind(Tester t) {
+    OffHeapBuffer buffer = OffHeapBuffer.allocateDirect(4 + OffHeapUnionFind.bytesFor(6));
+    buffer.putInt(4, 99);
+    OffHeapUnionFind sets = new OffHeapUnionFind(6, buffer, 4);
+    t.checkExpect(sets.size(), 6);
+    t.checkExpect(sets.count, 6);
+    t.checkExpect(sets.find(0), 0);
+    t.checkExpect(sets.union(0, 1), true);
+    t.checkExpect(sets.union(2, 3), true);
+    t.checkExpect(sets.union(1, 3), true);
+    t.checkExpect(sets.union(0, 2), false);
+    t.checkExpect(sets.same(0, 3), true);
+    t.checkExpect(sets.same(0, 4), false);
+    t.checkExpect(sets.count, 3);
+    // the same trees the UnionFind on the heap makes
+    UnionFind heap = new UnionFind(6);
+    heap.union(0, 1);
+    heap.union(2, 3);
+    heap.union(1, 3);
+    for (int i = 0; i < 6; i += 1) {
+      t.checkExpect(sets.find(i), heap.find(i));
+    }
+    t.checkConstructorException(
+        new IllegalArgumentException("A buffer of 34 bytes cannot hold 7 ids from 0 on"),
+        "OffHeapUnionFind", 7, buffer, 0L);
+  }
+
+  // tests the generate method in the OffHeapMazeGenerator class
+  void testOffHeapGenerate(Tester t) throws IOException {
+    File dir = Files.createTempDirectory("mazes").toFile();
+    File file = new File(dir, "big.maze");
+    // the same maze MazeGrid.generate makes from the same seed, in a file
+    MazeGrid mapped = new OffHeapMazeGenerator(dir).generate(300, 200, new Random(5), file);
+    t.checkExpect(mapped.bits instanceof OffHeapStorage, true);
+    t.checkExpect(mapped.words(), MazeGrid.generate(300, 200, new Random(5)).words());
+    t.checkExpect(MazeGrid.readSnapshot(file).words(), mapped.words());
+    // the scratch file is gone
+    t.checkExpect(dir.list().length, 1);
+    // or in direct memory
+    MazeGrid direct = new OffHeapMazeGenerator().generate(77, 31, new Random(2), null);
+    t.checkExpect(direct.words(), MazeGrid.generate(77, 31, new Random(2)).words());
+    t.checkExpect(new MazeValidator(1).check(direct).isPerfect(), true);
+    for (int[] size : new int[][] { { 0, 0 }, { 1, 1 }, { 1, 9 }, { 9, 1 } }) {
+      t.checkExpect(
+          new OffHeapMazeGenerator().generate(size[0], size[1], new Random(4), null).words(),
+          MazeGrid.generate(size[0], size[1], new Random(4)).words());
+    }
+    this.deleteAll(dir);
+  }
+
+  // tests the distance, ancestor and path methods in the PathIndex class
+  void testPathIndex(Tester t) {
+    MazeGrid grid = MazeGrid.generate(60, 40, new Random(9));
+    PathIndex index = new PathIndex(grid);
+    t.checkExpect(index.isCurrent(grid), true);
+    t.checkExpect(index.parent[0], -1);
+    t.checkExpect(index.order[0], 0);
+    t.checkExpect(index.ancestor(0, 2399), 0);
+    t.checkExpect(index.distance(5, 5), 0);
+    t.checkExpect(index.path(5, 5), new int[] { 5 });
+    Random rand = new Random(1);
+    boolean agrees = true;
+    boolean walks = true;
+    for (int q = 0; q < 20; q += 1) {
+      int from = rand.nextInt(2400);
+      int[] distances = new LevelSearch(grid, ForkJoinPool.commonPool(), from).distances;
+      for (int to = 0; to < 2400; to += 1) {
+        agrees = agrees && index.distance(from, to) == distances[to]
+            && index.distance(to, from) == distances[to];
+      }
+      int to = rand.nextInt(2400);
+      int[] path = index.path(from, to);
+      walks = walks && path.length == distances[to] + 1 && path[0] == from
+          && path[path.length - 1] == to;
+      for (int i = 0; i + 1 < path.length; i += 1) {
+        walks = walks && grid.isConnected(path[i], path[i + 1]);
+      }
+    }
+    t.checkExpect(agrees, true);
+    t.checkExpect(walks, true);
+    // the way from the start to the goal is as long as the solution
+    t.checkExpect(index.distance(0, 2399), new DistanceField(grid).solutionLength);
+    // a maze in parts is a forest
+    MazeGrid parts = new MazeGrid(3, 2);
+    parts.connect(0, 1);
+    parts.connect(1, 4);
+    parts.connect(2, 5);
+    PathIndex forest = new PathIndex(parts);
+    t.checkExpect(forest.path(0, 4), new int[] { 0, 1, 4 });
+    t.checkExpect(forest.path(4, 0), new int[] { 4, 1, 0 });
+    t.checkExpect(forest.distance(0, 5), -1);
+    t.checkExpect(forest.distance(5, 3), -1);
+    t.checkExpect(forest.path(2, 3), new int[0]);
+    t.checkExpect(forest.distance(2, 5), 1);
+    t.checkExpect(new PathIndex(new MazeGrid(0, 0)).order.length, 0);
+    // changing the maze leaves the index out of date
+    grid.setOpen(0, 0, MazeGrid.RIGHT, !grid.isOpen(0, 0, MazeGrid.RIGHT));
+    t.checkExpect(index.isCurrent(grid), false);
+  }
+
+  // tests the write and read methods in the PathIndex class, and the
+  // pathIndex method in the MazeCache class
+  void testPathIndexFile(Tester t) throws IOException {
+    File dir = Files.createTempDirectory("mazes").toFile();
+    File file = new File(dir, "maze.path");
+    MazeGrid grid = MazeGrid.generate(70, 50, new Random(4));
+    PathIndex index = new PathIndex(grid);
+    index.write(file);
+    t.checkExpect(file.length(), 16L + 8 * 3500);
+    PathIndex read = PathIndex.read(file, grid);
+    t.checkExpect(read.parent, index.parent);
+    t.checkExpect(read.depth, index.depth);
+    t.checkExpect(read.blockMin, index.blockMin);
+    t.checkExpect(read.distance(17, 3456), index.distance(17, 3456));
+    t.checkException(new IOException(file + " is not a path index of a 50 by 70 maze"),
+        index, "read", file, new MazeGrid(50, 70));
+    MazeGrid other = MazeGrid.generate(70, 50, new Random(5));
+    t.checkException(new IOException(file + " is not a path index of this maze"), index,
+        "read", file, other);
+    File junk = new File(dir, "junk.path");
+    Files.write(junk.toPath(), new byte[] { 1, 2, 3 });
+    t.checkException(new IOException(junk + " is not a path index"), index, "read", junk,
+        grid);
+    // a maze with a loop is read back by the tree its walk found
+    MazeGrid loop = new MazeGrid(2, 2);
+    loop.connect(0, 1);
+    loop.connect(1, 3);
+    loop.connect(3, 2);
+    loop.connect(2, 0);
+    new PathIndex(loop).write(file);
+    t.checkExpect(PathIndex.read(file, loop).distance(0, 3), 2);
+    // parents before children is not enough: a breadth first order puts 2
+    // between 1 and the cell 3 under it
+    MazeGrid tree = new MazeGrid(2, 2);
+    tree.connect(0, 1);
+    tree.connect(1, 3);
+    tree.connect(0, 2);
+    int[] parents = new int[] { -1, 0, 0, 1 };
+    t.checkExpect(new PathIndex(tree, parents, new int[] { 0, 1, 2, 3 }).matches(), false);
+    t.checkExpect(new PathIndex(tree, parents, new int[] { 0, 1, 3, 2 }).matches(), true);
+    t.checkExpect(new PathIndex(tree, parents, new int[] { 0, 2, 1, 3 }).matches(), true);
+    t.checkExpect(new PathIndex(tree, parents, new int[] { 1, 0, 2, 3 }).matches(), false);
+    // a file of a version from later is not read
+    ByteBuffer header = ByteBuffer.allocate(PathIndex.HEADER);
+    header.putInt(PathIndex.MAGIC).putInt(2).putInt(2).putInt(PathIndex.VERSION + 1);
+    Files.write(junk.toPath(), Arrays.copyOf(header.array(), PathIndex.HEADER + 32));
+    t.checkException(new IOException(junk + " is a version 2 path index, not version 1"),
+        index, "read", junk, tree);
+    // no temp files are left next to the files written
+    for (File f : dir.listFiles()) {
+      t.checkExpect(f.getName().endsWith(".path"), true);
+    }
+    this.deleteAll(dir);
+    File cacheDir = Files.createTempDirectory("mazes").toFile();
+    MazeCache cache = new MazeCache(10000, cacheDir);
+    PathIndex cached = cache.pathIndex(70, 50, 4);
+    t.checkExpect(cached.parent, index.parent);
+    t.checkExpect(new File(cacheDir, "70x50-4.path").isFile(), true);
+    t.checkExpect(new MazeCache(10000, cacheDir).pathIndex(70, 50, 4).order, index.order);
+    t.checkExpect(new MazeCache(10000).pathIndex(70, 50, 4).order, index.order);
+    // the index of a maze in memory is kept with it
+    t.checkExpect(cache.pathIndex(70, 50, 4) == cached, true);
+    t.checkExpect(cache.indexHits, 1);
+    // until the maze is pushed out
+    cache.get(90, 90, 1);
+    t.checkExpect(cache.indexes.size(), 0);
+    t.checkExpect(cache.pathIndex(70, 50, 4) == cached, false);
+    // a file that cannot be read is made again and written over
+    File broken = new File(cacheDir, "70x50-4.path");
+    Files.write(broken.toPath(), new byte[] { 1, 2, 3 });
+    MazeCache fresh = new MazeCache(10000, cacheDir);
+    t.checkExpect(fresh.pathIndex(70, 50, 4).order, index.order);
+    t.checkExpect(PathIndex.read(broken, fresh.get(70, 50, 4)).order, index.order);
+    this.deleteAll(cacheDir);
+  }
+
+  // tests the rasterize method in the MazeRasterizer class
+  void testMazeRasterizer(Tester t) {
+    MazeGame game = new MazeGame(MazeGrid.generate(300, 250, new Random(6)), 2);
+    game.startSolving(MazeSolver.BFS);
+    for (int k = 0; k < 30; k += 1) {
+      game.solver.step(1000);
+    }
+    game.heatmap = true;
+    MazeRasterizer rasterizer = new MazeRasterizer(game, new ForkJoinPool(3), false);
+    int[] pixels = rasterizer.rasterize();
+    t.checkExpect(rasterizer.bandRows, 54);
+    t.checkExpect(rasterizer.pixelWidth, 600);
+    t.checkExpect(rasterizer.pixelHeight, 500);
+    // the same pixels paintCell draws one cell at a time
+    ComputedPixelImage expected = new ComputedPixelImage(600, 500);
+    for (int i = 0; i < 250; i += 1) {
+      for (int j = 0; j < 300; j += 1) {
+        game.paintCell(expected, j, i);
+      }
+    }
+    int different = 0;
+    for (int y = 0; y < 500; y += 1) {
+      for (int x = 0; x < 600; x += 1) {
+        if (pixels[y * 600 + x] != expected.getPixel(x, y).getRGB()) {
+          different += 1;
+        }
+      }
+    }
+    t.checkExpect(different, 0);
+    t.checkExpect(pixels[0], Color.green.getRGB());
+    t.checkExpect(pixels[600 * 500 - 1], Color.magenta.getRGB());
+    ComputedPixelImage img = game.rasterizeMaze();
+    int differentImage = 0;
+    for (int y = 0; y < 500; y += 1) {
+      for (int x = 0; x < 600; x += 1) {
+        if (!img.getPixel(x, y).equals(expected.getPixel(x, y))) {
+          differentImage += 1;
+        }
+      }
+    }
+    t.checkExpect(differentImage, 0);
+    // an image is copied from the buffer, so the two hold the same pixels
+    MazeGame imageOnly = new MazeGame(MazeGrid.generate(30, 20, new Random(6)), 2);
+    ComputedPixelImage copied = imageOnly.rasterizeMaze();
+    int[] buffer = imageOnly.getRasterizer().pixels;
+    t.checkExpect(imageOnly.getRasterizer().pixelWidth, 60);
+    t.checkExpect(buffer.length, 60 * 40);
+    int differentCopy = 0;
+    for (int y = 0; y < 40; y += 1) {
+      for (int x = 0; x < 60; x += 1) {
+        if (copied.getPixel(x, y).getRGB() != buffer[y * 60 + x]) {
+          differentCopy += 1;
+        }
+      }
+    }
+    t.checkExpect(differentCopy, 0);
+    // a new buffer every time, or the same one
+    t.checkExpect(rasterizer.rasterize() == pixels, false);
+    MazeRasterizer reusing = new MazeRasterizer(game, true);
+    int[] first = reusing.rasterize();
+    t.checkExpect(reusing.rasterize() == first, true);
+    game.squareSize = 3;
+    t.checkExpect(reusing.rasterize() == first, false);
+    t.checkExpect(reusing.pixels.length, 900 * 750);
+    MazeGame empty = new MazeGame(new MazeGrid(0, 5), 4);
+    t.checkExpect(new MazeRasterizer(empty, true).rasterize(), new int[20]);
+    MazeGame huge = new MazeGame(new MazeGrid(40000, 40000), 2);
+    t.checkException(
+        new IllegalArgumentException("A 40000 by 40000 maze is too big to draw with 2 pixel cells"),
+        new MazeRasterizer(huge, true), "rasterize");
+  }
+
+  // tests the neighbor, centerX and centerY methods of the MazeTopology classes
+  void testMazeTopology(Tester t) {
+    MazeTopology square = new SquareTopology(4, 3);
+    t.checkExpect(square.neighbor(5, 0), 1);
+    t.checkExpect(square.neighbor(5, 1), 4);
+    t.checkExpect(square.neighbor(5, 2), 6);
+    t.checkExpect(square.neighbor(5, 3), 9);
+    t.checkExpect(square.neighbor(3, 2), -1);
+    t.checkExpect(square.centerX(5), 1.5);
+    MazeTopology torus = new TorusTopology(4, 3);
+    t.checkExpect(torus.neighbor(0, 0), 8);
+    t.checkExpect(torus.neighbor(0, 1), 3);
+    t.checkExpect(torus.neighbor(3, 2), 0);
+    t.checkExpect(torus.neighbor(11, 3), 3);
+    MazeTopology hex = new HexTopology(3, 3);
+    // a cell in an even row, then one in an odd row
+    t.checkExpect(hex.neighbor(4, 0), 3);
+    t.checkExpect(hex.neighbor(4, 1), 1);
+    t.checkExpect(hex.neighbor(4, 2), 2);
+    t.checkExpect(hex.neighbor(4, 4), 7);
+    t.checkExpect(hex.neighbor(4, 5), 8);
+    t.checkExpect(hex.neighbor(1, 4), 3);
+    t.checkExpect(hex.neighbor(1, 5), 4);
+    t.checkExpect(hex.neighbor(1, 1), -1);
+    MazeTopology layered = new LayeredTopology(3, 2, 2);
+    t.checkExpect(layered.neighbor(7, 0), 1);
+    t.checkExpect(layered.neighbor(1, 5), 7);
+    t.checkExpect(layered.neighbor(7, 5), -1);
+    t.checkExpect(layered.centerX(7), 5.5);
+    t.checkExpect(layered.centerY(10), 1.5);
+    // being next to each other goes both ways, and neighbors are drawn 1 apart
+    boolean symmetric = true;
+    boolean close = true;
+    for (MazeTopology topology : new MazeTopology[] { new SquareTopology(5, 4),
+        new TorusTopology(5, 4), new HexTopology(5, 4), new HexTopology(1, 5),
+        new LayeredTopology(5, 4, 3) }) {
+      for (int cell = 0; cell < topology.cellCount(); cell += 1) {
+        for (int k = 0; k < topology.maxDegree(); k += 1) {
+          int next = topology.neighbor(cell, k);
+          if (next < 0) {
+            continue;
+          }
+          boolean back = false;
+          for (int m = 0; m < topology.maxDegree(); m += 1) {
+            back = back || topology.neighbor(next, m) == cell;
+          }
+          symmetric = symmetric && back && next != cell;
+          double dx = topology.centerX(next) - topology.centerX(cell);
+          double dy = topology.centerY(next) - topology.centerY(cell);
+          close = close && (topology instanceof HexTopology
+              ? Math.abs(dx * dx + dy * dy - 1) < 1e-9 : dx * dx + dy * dy >= 1);
+        }
+      }
+    }
+    t.checkExpect(symmetric, true);
+    t.checkExpect(close, true);
+    t.checkConstructorException(new IllegalArgumentException("A torus cannot be 2 by 5 cells"),
+        "TorusTopology", 2, 5);
+    t.checkConstructorException(
+        new IllegalArgumentException("A layered board cannot be 2000 by 2000 by 1000 cells"),
+        "LayeredTopology", 2000, 2000, 1000);
+  }
+
+  // tests the generate, connect, solve and check methods in the MazeGraph class
+  void testMazeGraph(Tester t) {
+    MazeGraph empty = new MazeGraph(new HexTopology(3, 2));
+    t.checkExpect(empty.offsets, new int[] { 0, 2, 6, 9, 12, 16, 18 });
+    t.checkExpect(empty.neighbors.length, 18);
+    t.checkExpect(empty.degree(3), 3);
+    t.checkExpect(empty.isConnected(0, 1), false);
+    empty.connect(0, 1);
+    t.checkExpect(empty.isConnected(1, 0), true);
+    t.checkExpect(empty.passageCount(), 1L);
+    t.checkException(new IllegalArgumentException("Cells 0 and 5 are not neighbors"), empty,
+        "connect", 0, 5);
+    // on a square board, the same maze MazeGrid.generate makes
+    MazeGraph square = MazeGraph.generate(new SquareTopology(40, 30), new Random(8));
+    MazeGrid grid = MazeGrid.generate(40, 30, new Random(8));
+    boolean same = true;
+    for (int cell = 0; cell < 1200; cell += 1) {
+      same = same && square.isConnected(cell, cell + 1) == grid.isConnected(cell, cell + 1)
+          && square.isConnected(cell, cell + 40) == grid.isConnected(cell, cell + 40);
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(square.passageCount(), 1199L);
+    int[] path = square.solve(0, 1199);
+    t.checkExpect(path.length, new DistanceField(grid).solutionLength + 1);
+    // every other board makes a perfect maze too
+    for (MazeTopology topology : new MazeTopology[] { new TorusTopology(30, 20),
+        new HexTopology(30, 20), new LayeredTopology(12, 10, 5), new HexTopology(1, 1),
+        new SquareTopology(0, 0) }) {
+      MazeGraph maze = MazeGraph.generate(topology, new Random(3));
+      t.checkExpect(maze.check().isPerfect(), true);
+      t.checkExpect(maze.passageCount(), Math.max(0, topology.cellCount() - 1L));
+    }
+    MazeGraph hex = MazeGraph.generate(new HexTopology(30, 20), new Random(3));
+    int[] way = hex.solve(0, 599);
+    boolean walks = way[0] == 0 && way[way.length - 1] == 599;
+    for (int i = 0; i + 1 < way.length; i += 1) {
+      walks = walks && hex.isConnected(way[i], way[i + 1]);
+    }
+    t.checkExpect(walks, true);
+    t.checkExpect(hex.distances(0)[599], way.length - 1);
+    // every slot knows the slot of the same passage from its other end
+    boolean reverses = true;
+    for (int cell = 0; cell < hex.cellCount(); cell += 1) {
+      for (int k = 0; k < hex.degree(cell); k += 1) {
+        int s = hex.offsets[cell] + k;
+        reverses = reverses && hex.neighbors[hex.reverse[s]] == cell
+            && hex.offsets[hex.neighbors[s]] + hex.backWay(cell, k) == hex.reverse[s];
+      }
+    }
+    t.checkExpect(reverses, true);
+    // the graph is searched and checked by the same classes as a grid
+    t.checkExpect(new MazeSolver(hex, MazeSolver.ASTAR, 0, 599).solve(), way);
+    t.checkExpect(new MazeSolver(hex, MazeSolver.DFS, 0, 599).solve(), way);
+    t.checkExpect(new MazeValidator(1).check((MazeBoard) grid).toString(),
+        new MazeValidator(1).check(grid).toString());
+    int right = 0;
+    while (grid.openNeighbor(right, MazeGrid.RIGHT) < 0) {
+      right += 1;
+    }
+    t.checkExpect(grid.openNeighbor(right + 1, grid.backWay(right, MazeGrid.RIGHT)), right);
+    // a maze with a loop and a part cut off
+    MazeGraph loop = new MazeGraph(new SquareTopology(3, 2));
+    loop.connect(0, 1);
+    loop.connect(1, 4);
+    loop.connect(4, 3);
+    loop.connect(3, 0);
+    t.checkExpect(loop.check().toString(),
+        "6 cells, 4 passages, 3 components, 1 cycles, 0 stray links");
+    t.checkExpect(loop.solve(0, 5), new int[0]);
+    t.checkExpect(loop.solve(0, 4).length, 3);
+    loop.open.clear(loop.slot(3, 0));
+    t.checkExpect(loop.check().strayLinks, 1L);
+  }
+
+  // tests the writeSvg method in the GraphExporter class
+  void testGraphExporter(Tester t) throws IOException {
+    MazeGraph torus = new MazeGraph(new TorusTopology(3, 3));
+    torus.connect(0, 1);
+    torus.connect(0, 2);
+    StringWriter out = new StringWriter();
+    new GraphExporter(torus, 10).writeSvg(out);
+    String svg = out.toString();
+    t.checkExpect(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"30\" "
+        + "height=\"30\""), true);
+    // the passage inside the board is a corridor, the one around it two dots,
+    // a cyan one where it leaves cell 0 to the left and an orange one where
+    // it leaves cell 2 to the right
+    t.checkExpect(svg.contains("M15 5L5 5"), true);
+    t.checkExpect(svg.contains("stroke=\"#00ffff\" stroke-linecap=\"round\" stroke-width=\"5\" "
+        + "d=\"M5 5L5 5\"/>"), true);
+    t.checkExpect(svg.contains("stroke=\"#ff8000\" stroke-linecap=\"round\" stroke-width=\"5\" "
+        + "d=\"M25 5L25 5\"/>"), true);
+    t.checkExpect(svg.contains("#ffff00"), false);
+    // the ways down and up between levels differ too
+    MazeGraph layers = new MazeGraph(new LayeredTopology(2, 1, 2));
+    layers.connect(0, 2);
+    StringWriter layered = new StringWriter();
+    new GraphExporter(layers, 10).writeSvg(layered);
+    t.checkExpect(layered.toString().contains("stroke=\"#80ff80\" stroke-linecap=\"round\" "
+        + "stroke-width=\"5\" d=\"M5 5L5 5\"/>"), true);
+    t.checkExpect(layered.toString().contains("stroke=\"#ffff00\" stroke-linecap=\"round\" "
+        + "stroke-width=\"5\" d=\"M35 5L35 5\"/>"), true);
+    t.checkExpect(svg.contains("<circle cx=\"5\" cy=\"5\" r=\"3\" fill=\"#00ff00\"/>"), true);
+    t.checkExpect(svg.contains("<circle cx=\"25\" cy=\"25\" r=\"3\" fill=\"#ff00ff\"/>"),
+        true);
+    t.checkExpect(svg.endsWith("</svg>\n"), true);
+    StringWriter hex = new StringWriter();
+    new GraphExporter(MazeGraph.generate(new HexTopology(4, 3), new Random(1)), 20)
+        .writeSvg(hex);
+    t.checkExpect(hex.toString().contains("width=\"90\" height=\"55\""), true);
+    t.checkConstructorException(new IllegalArgumentException("Cells cannot be 1 pixels apart"),
+        "GraphExporter", torus, 1);
+  }
+
+  // returns how many parts of the given maze cannot reach each other
+  int componentCount(MazeGrid grid) {
+    UnionFind sets = new UnionFind(grid.cellCount());
+    for (int y = 0; y < grid.height; y += 1) {
+      for (int x = 0; x < grid.width; x += 1) {
+        if (grid.isOpen(x, y, MazeGrid.RIGHT)) {
+          sets.union(grid.cell(x, y), grid.cell(x + 1, y));
+        }
+        if (grid.isOpen(x, y, MazeGrid.DOWN)) {
+          sets.union(grid.cell(x, y), grid.cell(x, y + 1));
+        }
+      }
+    }
+    return sets.count;
   }
 
   boolean testScene(Tester t) {
@@ -0,0 +1,25 @@
+// a maze that MazeSolver, LevelSearch and MazeValidator can walk without
+// knowing how its passages are kept, so the same search and check run on a
+// MazeGrid and on a MazeGraph
+// the cells are numbered 0 .. cellCount() - 1, and every cell has the ways
+// out 0 .. maxDegree() - 1, each going through an open passage to another
+// cell, or closed
+interface MazeBoard {
+  // returns how many cells there are
+  int cellCount();
+
+  // returns the most ways out a cell can have
+  int maxDegree();
+
+  // returns the cell that way k out of the given cell goes to, or -1 if there
+  // is no open passage that way
+  int openNeighbor(int cell, int k);
+
+  // returns the way out of the cell at the other end of way k out of the
+  // given cell that goes back to it, given that there is a cell there
+  int backWay(int cell, int k);
+
+  // returns a number of passages that no way between the two given cells can
+  // be shorter than, for A*
+  int minSteps(int from, int to);
+}
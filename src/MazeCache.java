@@ -0,0 +1,240 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// keeps the mazes made by MazeGrid.generate, keyed by their width, height and
+// the seed of their Random, so asking for the same maze again does not run
+// Kruskal's algo again
+// the mazes used most recently are kept in memory, up to a total number of
+// cells, and every maze is also written to a snapshot file in a directory,
+// so mazes pushed out of memory (or made by an earlier run) load from disk
+// a snapshot that cannot be read is a miss, and is written over
+// the mazes handed out are shared, so copy one before changing its walls
+// one cache can be used from many threads: its lock is only held to look up,
+// add and push out mazes, and a maze is read or made outside of it, so a
+// miss does not hold up callers asking for other mazes, and callers asking
+// for a maze another thread is loading wait for that one
+class MazeCache {
+  // the most cells the mazes kept in memory can have between them
+  long maxCells;
+  // where the snapshots go, or null to keep mazes in memory only
+  File directory;
+  // the mazes in memory, least recently used first
+  LinkedHashMap<String, MazeGrid> memory;
+  // the path indexes made or read for mazes in memory, which go when their
+  // maze does
+  HashMap<String, PathIndex> indexes;
+  // how many cells the mazes in memory have between them
+  long cells;
+  // how many mazes were found in memory, found on disk, had to be made,
+  // and were pushed out of memory
+  int memoryHits;
+  int diskHits;
+  int misses;
+  int evictions;
+  // how many path indexes were found in memory
+  int indexHits;
+  // the mazes being read or made right now, by the thread that asked first
+  HashMap<String, CompletableFuture<MazeGrid>> loading;
+
+  MazeCache(long maxCells, File directory) {
+    if (maxCells < 0) {
+      throw new IllegalArgumentException("Cannot keep " + maxCells + " cells");
+    }
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("Cannot make the directory " + directory);
+    }
+    this.maxCells = maxCells;
+    this.directory = directory;
+    this.memory = new LinkedHashMap<String, MazeGrid>(16, 0.75f, true);
+    this.indexes = new HashMap<String, PathIndex>();
+    this.loading = new HashMap<String, CompletableFuture<MazeGrid>>();
+  }
+
+  // keeps mazes in memory only
+  MazeCache(long maxCells) {
+    this(maxCells, null);
+  }
+
+  // returns the maze MazeGrid.generate makes with the given size and a Random
+  // with the given seed, from memory, from disk, or made now
+  MazeGrid get(int width, int height, long seed) {
+    String key = width + "x" + height + "-" + seed;
+    CompletableFuture<MazeGrid> pending;
+    boolean first;
+    synchronized (this) {
+      MazeGrid grid = this.memory.get(key);
+      if (grid != null) {
+        this.memoryHits += 1;
+        return grid;
+      }
+      pending = this.loading.get(key);
+      first = pending == null;
+      if (first) {
+        pending = new CompletableFuture<MazeGrid>();
+        this.loading.put(key, pending);
+      }
+    }
+    if (!first) {
+      return this.await(pending);
+    }
+    try {
+      MazeGrid grid = this.load(key, width, height, seed);
+      synchronized (this) {
+        this.remember(key, grid);
+        this.loading.remove(key);
+      }
+      pending.complete(grid);
+      return grid;
+    }
+    catch (RuntimeException | Error e) {
+      synchronized (this) {
+        this.loading.remove(key);
+      }
+      pending.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  // returns the maze the given future is loading, once it is loaded, as a
+  // memory hit since no more reading or making is done for it
+  // throws whatever the thread loading it threw
+  MazeGrid await(CompletableFuture<MazeGrid> pending) {
+    try {
+      MazeGrid grid = pending.join();
+      synchronized (this) {
+        this.memoryHits += 1;
+      }
+      return grid;
+    }
+    catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw (Error) e.getCause();
+    }
+  }
+
+  // returns the maze with the given key, size and seed, read from its
+  // snapshot or made now and written to it, without holding the lock
+  MazeGrid load(String key, int width, int height, long seed) {
+    File snapshot = this.directory == null ? null : new File(this.directory, key + ".maze");
+    MazeGrid grid = snapshot != null && snapshot.isFile()
+        ? MazeCache.readSnapshot(snapshot, width, height) : null;
+    if (grid != null) {
+      synchronized (this) {
+        this.diskHits += 1;
+      }
+      return grid;
+    }
+    synchronized (this) {
+      this.misses += 1;
+    }
+    grid = MazeGrid.generate(width, height, new Random(seed));
+    if (snapshot != null) {
+      try {
+        grid.writeSnapshot(snapshot);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException("Could not write the snapshot " + snapshot, e);
+      }
+    }
+    return grid;
+  }
+
+  // returns the width by height maze in the given snapshot, or null if the
+  // snapshot cannot be read or holds a maze of another size, so the maze is
+  // made again and written over it
+  static MazeGrid readSnapshot(File snapshot, int width, int height) {
+    try {
+      MazeGrid grid = MazeGrid.readSnapshot(snapshot);
+      if (grid.width == width && grid.height == height) {
+        return grid;
+      }
+    }
+    catch (IOException e) {
+      // a snapshot cut short, or of a version this cannot read
+    }
+    return null;
+  }
+
+  // returns the path index of the maze get returns for the given size and
+  // seed, from memory, read from the file next to its snapshot, or made now
+  // (and written there, so later runs only have to read it)
+  // like a snapshot, a path index file that cannot be read is written over
+  // and like a maze, it is read or made without holding the lock
+  PathIndex pathIndex(int width, int height, long seed) {
+    MazeGrid grid = this.get(width, height, seed);
+    String key = width + "x" + height + "-" + seed;
+    synchronized (this) {
+      PathIndex index = this.indexes.get(key);
+      if (index != null && index.isCurrent(grid)) {
+        this.indexHits += 1;
+        return index;
+      }
+    }
+    File file = this.directory == null ? null : new File(this.directory, key + ".path");
+    PathIndex index = file != null && file.isFile() ? MazeCache.readPathIndex(file, grid) : null;
+    if (index == null) {
+      index = new PathIndex(grid);
+      if (file != null) {
+        try {
+          index.write(file);
+        }
+        catch (IOException e) {
+          throw new UncheckedIOException("Could not write the path index " + file, e);
+        }
+      }
+    }
+    synchronized (this) {
+      if (this.memory.get(key) == grid) {
+        this.indexes.put(key, index);
+      }
+    }
+    return index;
+  }
+
+  // returns the path index of the given maze in the given file, or null if
+  // the file cannot be read or is not an index of that maze
+  static PathIndex readPathIndex(File file, MazeGrid grid) {
+    try {
+      return PathIndex.read(file, grid);
+    }
+    catch (IOException e) {
+      // made again by pathIndex
+      return null;
+    }
+  }
+
+  // EFFECT: keeps the given maze in memory, pushing out the least recently
+  // used mazes until the cells fit (a maze bigger than maxCells is not kept)
+  synchronized void remember(String key, MazeGrid grid) {
+    long size = grid.cellCount();
+    if (size > this.maxCells) {
+      return;
+    }
+    Iterator<Map.Entry<String, MazeGrid>> oldest = this.memory.entrySet().iterator();
+    while (this.cells + size > this.maxCells && oldest.hasNext()) {
+      Map.Entry<String, MazeGrid> entry = oldest.next();
+      this.cells -= entry.getValue().cellCount();
+      this.indexes.remove(entry.getKey());
+      oldest.remove();
+      this.evictions += 1;
+    }
+    this.memory.put(key, grid);
+    this.cells += size;
+  }
+
+  // returns the counts of hits, misses and evictions so far
+  synchronized String stats() {
+    return "memory hits: " + this.memoryHits + ", disk hits: " + this.diskHits + ", misses: "
+        + this.misses + ", evictions: " + this.evictions;
+  }
+}
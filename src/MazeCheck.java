@@ -0,0 +1,30 @@
+// what MazeValidator found in a maze
+class MazeCheck {
+  long cells;
+  // open passages between neighboring cells
+  long passages;
+  // how many parts of the maze cannot reach each other
+  long components;
+  // passages that close a loop
+  long cycles;
+  // passages that do not join two neighboring cells (off the edge of the
+  // grid, or between Nodes that are not next to each other)
+  long strayLinks;
+
+  MazeCheck(long cells) {
+    this.cells = cells;
+  }
+
+  // returns true if the maze has exactly one way between any two cells
+  boolean isPerfect() {
+    return this.strayLinks == 0
+        && (this.cells == 0 || this.passages == this.cells - 1 && this.components == 1
+            && this.cycles == 0);
+  }
+
+  // returns what was found, for a failed check to print
+  public String toString() {
+    return this.cells + " cells, " + this.passages + " passages, " + this.components
+        + " components, " + this.cycles + " cycles, " + this.strayLinks + " stray links";
+  }
+}
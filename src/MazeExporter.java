@@ -0,0 +1,258 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// writes a maze to a PNG or SVG file without drawing it on screen, reading
+// the walls straight from the grid a row at a time, so it only ever holds
+// a couple of rows of pixels (or of wall runs) however tall the maze is
+// the PNG looks the same as MazeGame.rasterizeMaze: gray cells with a 1
+// pixel black wall along their left and top sides, the start green and the
+// goal magenta
+class MazeExporter {
+  // the first 8 bytes of every PNG file
+  static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+  // the palette the PNG is drawn with, 2 bits a pixel: gray, black, green, magenta
+  static final int GRAY = 0;
+  static final int BLACK = 1;
+  static final int GREEN = 2;
+  static final int MAGENTA = 3;
+  static final byte[] PALETTE = { (byte) 128, (byte) 128, (byte) 128, 0, 0, 0, 0, (byte) 255, 0,
+      (byte) 255, 0, (byte) 255 };
+  // how many bytes of compressed pixels go in each IDAT chunk
+  static final int CHUNK_BYTES = 1 << 16;
+
+  MazeGrid grid;
+  int squareSize;
+
+  MazeExporter(MazeGrid grid, int squareSize) {
+    if (squareSize < 1) {
+      throw new IllegalArgumentException("A cell cannot be " + squareSize + " pixels on a side");
+    }
+    if ((long) grid.width * squareSize > Integer.MAX_VALUE
+        || (long) grid.height * squareSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A " + grid.width + " by " + grid.height
+          + " maze is too big to export with " + squareSize + " pixel cells");
+    }
+    this.grid = grid;
+    this.squareSize = squareSize;
+  }
+
+  // returns how many pixels wide the exported maze is, at least 1
+  int pixelWidth() {
+    return Math.max(1, this.grid.width * this.squareSize);
+  }
+
+  // returns how many pixels tall the exported maze is, at least 1
+  int pixelHeight() {
+    return Math.max(1, this.grid.height * this.squareSize);
+  }
+
+  // EFFECT: writes the maze to the given file as a PNG
+  void writePng(File file) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+      this.writePng(out);
+    }
+  }
+
+  // EFFECT: writes the maze to the given stream as a PNG, leaving it open
+  // every row of cells is two different scanlines, its top one (with the
+  // walls above the cells) and the rest, so only those two are ever made,
+  // and they go through the compressor one at a time
+  void writePng(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.write(PNG_SIGNATURE);
+    byte[] header = new byte[13];
+    MazeExporter.putInt(header, 0, this.pixelWidth());
+    MazeExporter.putInt(header, 4, this.pixelHeight());
+    // 2 bits a pixel, from a palette
+    header[8] = 2;
+    header[9] = 3;
+    MazeExporter.writeChunk(data, "IHDR", header, header.length);
+    MazeExporter.writeChunk(data, "PLTE", PALETTE, PALETTE.length);
+    // each scanline starts with its filter type, 0 for none
+    int lineBytes = 1 + (this.pixelWidth() + 3) / 4;
+    byte[] top = new byte[lineBytes];
+    byte[] rest = new byte[lineBytes];
+    byte[] compressed = new byte[CHUNK_BYTES];
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      if (this.grid.height == 0 || this.grid.width == 0) {
+        // the smallest PNG there can be, one gray pixel
+        this.deflate(data, deflater, top, compressed);
+      }
+      for (int i = 0; i < this.grid.height; i += 1) {
+        this.fillScanlines(i, top, rest);
+        this.deflate(data, deflater, top, compressed);
+        for (int py = 1; py < this.squareSize; py += 1) {
+          this.deflate(data, deflater, rest, compressed);
+        }
+      }
+      deflater.finish();
+      while (!deflater.finished()) {
+        int size = deflater.deflate(compressed);
+        MazeExporter.writeChunk(data, "IDAT", compressed, size);
+      }
+    }
+    finally {
+      deflater.end();
+    }
+    MazeExporter.writeChunk(data, "IEND", compressed, 0);
+    data.flush();
+  }
+
+  // EFFECT: fills in the top scanline and the rest of the scanlines of the
+  // given row of cells
+  void fillScanlines(int i, byte[] top, byte[] rest) {
+    Arrays.fill(top, (byte) 0);
+    Arrays.fill(rest, (byte) 0);
+    for (int j = 0; j < this.grid.width; j += 1) {
+      int color = GRAY;
+      if (i == 0 && j == 0) {
+        color = GREEN;
+      }
+      else if (i == this.grid.height - 1 && j == this.grid.width - 1) {
+        color = MAGENTA;
+      }
+      boolean leftWall = j > 0 && !this.grid.isOpen(j, i, MazeGrid.LEFT);
+      boolean topWall = i > 0 && !this.grid.isOpen(j, i, MazeGrid.UP);
+      int left = j * this.squareSize;
+      for (int px = 0; px < this.squareSize; px += 1) {
+        boolean wall = px == 0 && leftWall;
+        MazeExporter.putPixel(top, left + px, wall || topWall ? BLACK : color);
+        MazeExporter.putPixel(rest, left + px, wall ? BLACK : color);
+      }
+    }
+  }
+
+  // EFFECT: compresses the given scanline, writing out an IDAT chunk each
+  // time the compressor has a whole buffer of output
+  void deflate(DataOutputStream data, Deflater deflater, byte[] line, byte[] compressed)
+      throws IOException {
+    deflater.setInput(line);
+    while (!deflater.needsInput()) {
+      int size = deflater.deflate(compressed);
+      if (size > 0) {
+        MazeExporter.writeChunk(data, "IDAT", compressed, size);
+      }
+    }
+  }
+
+  // EFFECT: sets the 2 bit pixel x of the given scanline (after its filter byte)
+  static void putPixel(byte[] line, int x, int color) {
+    line[1 + (x >>> 2)] |= color << (6 - 2 * (x & 3));
+  }
+
+  // EFFECT: writes the given int into the given bytes at the given index, big endian
+  static void putInt(byte[] bytes, int index, int value) {
+    bytes[index] = (byte) (value >>> 24);
+    bytes[index + 1] = (byte) (value >>> 16);
+    bytes[index + 2] = (byte) (value >>> 8);
+    bytes[index + 3] = (byte) value;
+  }
+
+  // EFFECT: writes a PNG chunk of the given type holding the first size bytes
+  // of the given data: its length, type, data and the CRC of the type and data
+  static void writeChunk(DataOutputStream out, String type, byte[] data, int size)
+      throws IOException {
+    byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, size);
+    out.writeInt(size);
+    out.write(typeBytes);
+    out.write(data, 0, size);
+    out.writeInt((int) crc.getValue());
+  }
+
+  // EFFECT: writes the maze to the given file as an SVG
+  void writeSvg(File file) throws IOException {
+    try (Writer out = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+      this.writeSvg(out);
+    }
+  }
+
+  // EFFECT: writes the maze to the given writer as an SVG, leaving it open
+  // the walls are one path of rectangles, each as long as a run of walls in
+  // a row (along the tops of cells) or a column (along their left sides)
+  // the runs down the columns are followed a row at a time, keeping only
+  // the row each run started in
+  void writeSvg(Writer out) throws IOException {
+    int size = this.squareSize;
+    int width = this.pixelWidth();
+    int height = this.pixelHeight();
+    out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\""
+        + height + "\" viewBox=\"0 0 " + width + " " + height
+        + "\" shape-rendering=\"crispEdges\">\n");
+    out.write("<rect width=\"" + width + "\" height=\"" + height + "\" fill=\"#808080\"/>\n");
+    if (this.grid.cellCount() > 0) {
+      out.write("<rect width=\"" + size + "\" height=\"" + size + "\" fill=\"#00ff00\"/>\n");
+      if (this.grid.cellCount() > 1) {
+        out.write("<rect x=\"" + (width - size) + "\" y=\"" + (height - size) + "\" width=\""
+            + size + "\" height=\"" + size + "\" fill=\"#ff00ff\"/>\n");
+      }
+    }
+    out.write("<path fill=\"#000000\" d=\"");
+    // the path is built up here and written out a buffer at a time
+    StringBuilder path = new StringBuilder(CHUNK_BYTES + 64);
+    // the row the run of walls down each column started in, or -1
+    int[] runStart = new int[this.grid.width];
+    Arrays.fill(runStart, -1);
+    for (int i = 0; i < this.grid.height; i += 1) {
+      int rowStart = -1;
+      for (int j = 0; j <= this.grid.width; j += 1) {
+        boolean topWall = j < this.grid.width && i > 0 && !this.grid.isOpen(j, i, MazeGrid.UP);
+        if (topWall && rowStart < 0) {
+          rowStart = j;
+        }
+        else if (!topWall && rowStart >= 0) {
+          MazeExporter.writeRect(out, path, rowStart * size, i * size, (j - rowStart) * size,
+              1);
+          rowStart = -1;
+        }
+        if (j > 0 && j < this.grid.width) {
+          boolean leftWall = !this.grid.isOpen(j, i, MazeGrid.LEFT);
+          if (leftWall && runStart[j] < 0) {
+            runStart[j] = i;
+          }
+          else if (!leftWall && runStart[j] >= 0) {
+            MazeExporter.writeRect(out, path, j * size, runStart[j] * size, 1,
+                (i - runStart[j]) * size);
+            runStart[j] = -1;
+          }
+        }
+      }
+    }
+    for (int j = 1; j < this.grid.width; j += 1) {
+      if (runStart[j] >= 0) {
+        MazeExporter.writeRect(out, path, j * size, runStart[j] * size, 1,
+            (this.grid.height - runStart[j]) * size);
+      }
+    }
+    out.append(path);
+    out.write("\"/>\n</svg>\n");
+    out.flush();
+  }
+
+  // EFFECT: adds a rectangle to the given path, writing the path out to the
+  // given writer once it is CHUNK_BYTES long
+  static void writeRect(Writer out, StringBuilder path, int x, int y, int width, int height)
+      throws IOException {
+    path.append('M').append(x).append(' ').append(y).append('h').append(width).append('v')
+        .append(height).append('h').append(-width).append('z');
+    if (path.length() >= CHUNK_BYTES) {
+      out.append(path);
+      path.setLength(0);
+    }
+  }
+}
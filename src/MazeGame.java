@@ -0,0 +1,571 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import javalib.impworld.*;
+import java.awt.Color;
+import javalib.worldimages.*;
+
+//class that represents the Maze
+
+class MazeGame extends World {
+  // every edge weight is between 0 (inclusive) and this (exclusive)
+  static final int WEIGHT_BOUND = 100;
+
+  // the maze itself, two wall bits per cell
+  MazeGrid grid;
+  // the same maze as a Node graph, for code that still works on Nodes
+  // only made when asked for, see getMazeBoard
+  ArrayList<ArrayList<Node>> mazeBoard;
+  // the version of this.grid mazeBoard was made from
+  int boardVersion;
+  // one value that controls the size of the board
+  int squareSize;
+  // the maze drawn into pixels, reused by makeScene until it is out of date
+  ComputedPixelImage mazeImage;
+  // what mazeImage was drawn from, to tell when it is out of date
+  MazeGrid imageGrid;
+  int imageVersion;
+  int imageSquareSize;
+  // how many times makeScene could reuse mazeImage, and how many times it
+  // had to draw the maze again
+  int imageHits;
+  int imageMisses;
+  // when not null, only the part of the maze in this window is drawn
+  MazeViewport viewport;
+  // when not null, the maze scrolls up a row every tick, with new rows from this
+  EllerMazeStream stream;
+  // the bottom row shown, kept for its passages down once it is not the bottom
+  MazeRow bottomRow;
+  // when not null, the search being shown, a bit more of it every tick
+  MazeSolver solver;
+  // how many of the solver's visited cells have been drawn into mazeImage
+  int solverPainted;
+  // how many nanoseconds of each tick the solver gets
+  long solverBudget = 5000000;
+  // when not null, the maze being made a bit every tick, and how much of it
+  // to make each tick: generationEdges edges, or generationNanos nanoseconds
+  // of it if that is more than 0
+  KruskalMaze generator;
+  int generationEdges;
+  long generationNanos;
+  // how far every cell is from the start and the goal, see getDistances
+  DistanceField distances;
+  // when true, the cells are colored by how far they are from the start
+  boolean heatmap;
+  // draws the whole maze on many cores, see getRasterizer
+  MazeRasterizer rasterizer;
+
+  public MazeGame(int x, int y, int sqSize, Random rand) {
+    this(MazeGrid.generate(x, y, rand), sqSize);
+  }
+
+  public MazeGame(int x, int y, int sqSize) {
+    this(x, y, sqSize, new Random());
+  }
+
+  // plays the given maze without ever making a Node for it, for boards too
+  // big to keep as a Node graph
+  public MazeGame(MazeGrid grid, int sqSize) {
+    this.grid = grid;
+    this.squareSize = sqSize;
+  }
+
+  // plays a maze with x length and y height that is made while it is
+  // shown, Kruskal's algo going the given number of edges further each tick
+  // it ends up the same maze the first constructor makes with the same Random
+  public MazeGame(int x, int y, int sqSize, Random rand, int edgesPerTick) {
+    this(new MazeGrid(x, y), sqSize);
+    PackedEdges edges = MazeGrid.boardEdges(x, y, rand);
+    edges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    this.generator = new KruskalMaze(x * y, edges);
+    this.generationEdges = edgesPerTick;
+  }
+
+  // plays the maze with the given size and seed, from the given cache
+  public MazeGame(int x, int y, int sqSize, long seed, MazeCache cache) {
+    this(cache.get(x, y, seed).copy(), sqSize);
+  }
+
+  // plays the given maze in a window of the given size, for mazes too big to
+  // draw whole: the arrow keys scroll it and + and - zoom in and out
+  public MazeGame(MazeGrid grid, int sqSize, int windowWidth, int windowHeight) {
+    this(grid, sqSize);
+    this.viewport = new MazeViewport(this, windowWidth, windowHeight);
+  }
+
+  // plays a maze that never ends, showing the given number of rows of it at a
+  // time and scrolling a row further down it every tick
+  public MazeGame(EllerMazeStream stream, int rows, int sqSize) {
+    this(new MazeGrid(stream.width, rows), sqSize);
+    this.stream = stream;
+    this.bottomRow = new MazeRow(stream.width);
+    for (int y = 0; y < rows; y += 1) {
+      MazeRow row = stream.nextRow();
+      this.grid.setRow(y, row);
+      this.bottomRow.copyFrom(row);
+    }
+  }
+
+  // returns the maze as a Node graph, as this.grid is now
+  // EFFECT: makes the graph from this.grid the first time it is asked for,
+  // and again whenever the grid has changed since, so it reads like a view
+  // of the grid to anything that gets it from here
+  public ArrayList<ArrayList<Node>> getMazeBoard() {
+    if (this.mazeBoard == null || this.boardVersion != this.grid.version) {
+      this.mazeBoard = this.grid.toNodeBoard();
+      this.boardVersion = this.grid.version;
+    }
+    return this.mazeBoard;
+  }
+
+  // creates the board with x length and y height
+  // where each cell is connected to each neighboring cell through an
+  // edge with a random length anywhere from 0 to 99
+  // each node is numbered by its index so Kruskal's algo can use a UnionFind
+  // Then, it only connects the edges that are a part of Kruskal's connections
+  // the maze is built as a MazeGrid and handed back as its Node graph
+  public ArrayList<ArrayList<Node>> makeConnectedBoard(int x, int y, Random rand) {
+    return MazeGrid.generate(x, y, rand).toNodeBoard();
+  }
+
+  // creates the list of every edge between neighboring cells of a board with
+  // x length and y height, in the order their random weights are drawn
+  public PackedEdges makeBoardEdges(int x, int y, Random rand) {
+    return MazeGrid.boardEdges(x, y, rand);
+  }
+
+  // sorts the edges to be put into kruskal's algorithm
+  // this works for any weights, makeConnectedBoard counting sorts its
+  // PackedEdges instead since it knows they are all below WEIGHT_BOUND
+  public void sortEdges(ArrayList<Edge> input) {
+    input.sort(new CompareByWeight());
+  }
+
+  // draws the maze
+
+  public WorldImage drawMaze() {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.DRAW_MAZE, this.grid.cellCount());
+    try {
+      WorldImage bkg = new EmptyImage();
+      for (int i = 0; i < this.grid.height; i += 1) {
+        WorldImage row = new EmptyImage();
+        for (int j = 0; j < this.grid.width; j += 1) {
+          WorldImage cell = new RectangleImage(this.squareSize, this.squareSize, OutlineMode.SOLID,
+              Color.gray);
+          if (i == 0 && j == 0) {
+            cell = new RectangleImage(this.squareSize, this.squareSize, OutlineMode.SOLID,
+                Color.green);
+          }
+          else if (i == this.grid.height - 1 && j == this.grid.width - 1) {
+            cell = new RectangleImage(this.squareSize, this.squareSize, OutlineMode.SOLID,
+                Color.magenta);
+          }
+
+          // if the cell to the left is not connected, create a cell with a wall to the
+          // left
+          if (j > 0 && !this.grid.isOpen(j, i, MazeGrid.LEFT)) {
+            cell = new OverlayOffsetAlign(AlignModeX.LEFT, AlignModeY.MIDDLE,
+                new RectangleImage(1, this.squareSize, OutlineMode.SOLID, Color.black), 0, 0, cell);
+          }
+          // if the cell above this cell is not connected, create a cell with a wall above
+          if (i > 0 && !this.grid.isOpen(j, i, MazeGrid.UP)) {
+            cell = new OverlayOffsetAlign(AlignModeX.CENTER, AlignModeY.TOP,
+                new RectangleImage(this.squareSize, 1, OutlineMode.SOLID, Color.black), 0, 0, cell);
+          }
+          row = new BesideImage(row, cell);
+        }
+        bkg = new AboveImage(bkg, row);
+      }
+      // return new OverlayImage(bkg, new
+      // RectangleImage(this.mazeBoard.get(0).size()*this.squareSize+ 5,
+      // this.mazeBoard.size() * this.squareSize + 5, OutlineMode.SOLID,
+      // Color.black));
+      return bkg;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // makes the scene
+  public WorldScene makeScene() {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.RENDER_FRAME, this.grid.cellCount());
+    try {
+      WorldScene bkg = this.getEmptyScene();
+      if (this.viewport != null) {
+        this.viewport.draw(bkg);
+      }
+      else {
+        bkg.placeImageXY(this.getMazeImage(), this.getMazeWidth() / 2, this.getMazeHeight() / 2);
+      }
+      return bkg;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // scrolls a maze that never ends, makes more of a maze being made, and
+  // runs the search being shown
+  public void onTick() {
+    if (this.stream != null) {
+      this.scrollStream();
+    }
+    if (this.isGenerating()) {
+      this.generateStep();
+    }
+    if (this.solver != null && !this.solver.done) {
+      this.solver.stepFor(this.solverBudget);
+      this.paintSearch();
+    }
+  }
+
+  // EFFECT: starts showing a search of the given kind from the start to the goal
+  public void startSolving(int algorithm) {
+    this.solver = new MazeSolver(this.grid, algorithm);
+    this.solverPainted = 0;
+    // the image and tiles have to be drawn again without the last search
+    this.mazeImage = null;
+    if (this.viewport != null) {
+      this.viewport.tiles.clear();
+    }
+  }
+
+  // EFFECT: draws the cells the search has looked at since the last time into
+  // mazeImage, and the path once it is found, instead of drawing it all again
+  public void paintSearch() {
+    if (this.viewport != null) {
+      // tiles are cheap to draw again, and only the ones in the window are
+      this.viewport.tiles.clear();
+      return;
+    }
+    if (!this.isImageCurrent()) {
+      // the next getMazeImage draws it all, search included
+      return;
+    }
+    for (; this.solverPainted < this.solver.visitedCount; this.solverPainted += 1) {
+      int cell = this.solver.visitOrder[this.solverPainted];
+      this.paintCell(this.mazeImage, cell % this.grid.width, cell / this.grid.width);
+    }
+    if (this.solver.found) {
+      int[] path = this.solver.path();
+      for (int cell : path) {
+        this.paintCell(this.mazeImage, cell % this.grid.width, cell / this.grid.width);
+      }
+    }
+  }
+
+  // EFFECT: makes the w by h cells with the given top left corner into a new
+  // random maze, as MazeGrid.regenerateRegion does, and draws just those
+  // cells again, in mazeImage or in the tiles that show them
+  // with the heatmap on, the distances can change anywhere, so the cells
+  // whose heatmap color changed are drawn again too, as are their tiles
+  public void regenerateRegion(int x0, int y0, int w, int h, Random rand) {
+    int oldVersion = this.grid.version;
+    boolean imageCurrent = this.isImageCurrent();
+    DistanceField before = this.heatDistances();
+    this.grid.regenerateRegion(x0, y0, w, h, rand);
+    this.mazeBoard = null;
+    if (this.solver != null) {
+      // the search was of the old maze, so it and every drawing of it goes
+      this.solver = null;
+      this.mazeImage = null;
+      if (this.viewport != null) {
+        this.viewport.tiles.clear();
+      }
+      return;
+    }
+    if (imageCurrent) {
+      for (int i = y0; i < y0 + h; i += 1) {
+        for (int j = x0; j < x0 + w; j += 1) {
+          this.paintCell(this.mazeImage, j, i);
+        }
+      }
+    }
+    int[] recolored = this.repaintHeat(before, imageCurrent);
+    if (imageCurrent) {
+      this.imageVersion = this.grid.version;
+    }
+    if (this.viewport != null) {
+      this.viewport.invalidateCells(x0, y0, w, h, oldVersion);
+      // the region's tiles are gone already, and the maze has not changed since
+      this.viewport.invalidateCells(recolored, recolored.length, this.grid.version);
+    }
+  }
+
+  // returns the distances the heatmap is drawn with, if it is on and they
+  // are current (or kept while the maze is being made, see heatField), or null
+  public DistanceField heatDistances() {
+    if (this.heatmap && this.distances != null
+        && (this.distances.isCurrent(this.grid) || this.isGenerating())) {
+      return this.distances;
+    }
+    return null;
+  }
+
+  // returns the cells whose heatmap color is not the one they had with the
+  // given distances (every cell if they are null), as one passage can change
+  // how far away any cell is, or no cells if the heatmap is off
+  // EFFECT: draws those cells of mazeImage again, if paint is true
+  public int[] repaintHeat(DistanceField before, boolean paint) {
+    if (!this.heatmap) {
+      return new int[0];
+    }
+    DistanceField after = this.heatField();
+    int[] cells = new int[this.grid.cellCount()];
+    int count = 0;
+    for (int i = 0; i < this.grid.height; i += 1) {
+      for (int j = 0; j < this.grid.width; j += 1) {
+        int cell = this.grid.cell(j, i);
+        if (before == null || !before.heatColor(cell).equals(after.heatColor(cell))) {
+          cells[count] = cell;
+          count += 1;
+          if (paint) {
+            this.paintCell(this.mazeImage, j, i);
+          }
+        }
+      }
+    }
+    return Arrays.copyOf(cells, count);
+  }
+
+  // returns the distances the heatmap is drawn with: those of the maze as it
+  // is, except while this.generator is still making it, when the heatmap
+  // stays as it was first drawn instead of running the searches again every
+  // tick, and catches up once the maze is done (see generateStep)
+  public DistanceField heatField() {
+    if (this.distances != null && this.isGenerating()) {
+      return this.distances;
+    }
+    return this.getDistances();
+  }
+
+  // returns true if this.generator is still making the maze
+  public boolean isGenerating() {
+    return this.generator != null && !this.generator.isDone();
+  }
+
+  // returns how far every cell is from the start and the goal
+  // EFFECT: works it out again only if the board changed since the last time
+  public DistanceField getDistances() {
+    if (this.distances == null || !this.distances.isCurrent(this.grid)) {
+      this.distances = new DistanceField(this.grid);
+    }
+    return this.distances;
+  }
+
+  // EFFECT: shows or hides the heatmap, drawing it over mazeImage in place
+  // instead of making a new one
+  public void toggleHeatmap() {
+    this.heatmap = !this.heatmap;
+    if (this.viewport != null) {
+      this.viewport.tiles.clear();
+    }
+    else if (this.isImageCurrent()) {
+      for (int i = 0; i < this.grid.height; i += 1) {
+        for (int j = 0; j < this.grid.width; j += 1) {
+          this.paintCell(this.mazeImage, j, i);
+        }
+      }
+    }
+  }
+
+  // EFFECT: makes a tick's worth more of the maze with this.generator,
+  // opening the passages it picks and drawing just the cells they open up
+  // into mazeImage, or forgetting just the tiles that show them
+  // with the heatmap on, it is left as it was until the maze is done, then
+  // the cells whose heatmap color changed are drawn again too, as are their
+  // tiles
+  public void generateStep() {
+    int oldVersion = this.grid.version;
+    boolean imageCurrent = this.isImageCurrent();
+    DistanceField before = this.heatDistances();
+    int first = this.generator.stepNext;
+    if (this.generationNanos > 0) {
+      this.generator.stepFor(this.generationNanos);
+    }
+    else {
+      this.generator.step(this.generationEdges);
+    }
+    PackedEdges edges = this.generator.packedWorklist;
+    // the wall of each passage opened is drawn along the left or top of its
+    // later cell, so those are the cells that changed
+    int[] changed = new int[this.generator.stepNext - first];
+    int count = 0;
+    for (int e = this.generator.inTree.nextSetBit(first); e >= 0
+        && e < this.generator.stepNext; e = this.generator.inTree.nextSetBit(e + 1)) {
+      this.grid.connect(edges.from[e], edges.to[e]);
+      changed[count] = Math.max(edges.from[e], edges.to[e]);
+      count += 1;
+    }
+    // the cells are drawn once all of the passages are open
+    if (imageCurrent) {
+      for (int k = 0; k < count; k += 1) {
+        this.paintCell(this.mazeImage, changed[k] % this.grid.width, changed[k] / this.grid.width);
+      }
+    }
+    if (this.generator.isDone()) {
+      int[] recolored = this.repaintHeat(before, imageCurrent);
+      changed = Arrays.copyOf(changed, count + recolored.length);
+      System.arraycopy(recolored, 0, changed, count, recolored.length);
+      count += recolored.length;
+    }
+    if (imageCurrent) {
+      this.imageVersion = this.grid.version;
+    }
+    if (this.viewport != null && count > 0) {
+      this.viewport.invalidateCells(changed, count, oldVersion);
+    }
+  }
+
+  // EFFECT: moves the maze up a row, filling in the bottom row from this.stream
+  public void scrollStream() {
+    this.grid.shiftUp();
+    // the old bottom row can now have its passages down
+    if (this.grid.height > 1) {
+      this.grid.setRow(this.grid.height - 2, this.bottomRow);
+    }
+    MazeRow row = this.stream.nextRow();
+    this.grid.setRow(this.grid.height - 1, row);
+    this.bottomRow.copyFrom(row);
+  }
+
+  // scrolls and zooms a maze played in a window, starts showing a
+  // breadth first (b), depth first (d) or A* (a) search, and shows or hides
+  // the heatmap (h)
+  public void onKeyEvent(String key) {
+    if (key.equals("b")) {
+      this.startSolving(MazeSolver.BFS);
+    }
+    else if (key.equals("d")) {
+      this.startSolving(MazeSolver.DFS);
+    }
+    else if (key.equals("a")) {
+      this.startSolving(MazeSolver.ASTAR);
+    }
+    else if (key.equals("h")) {
+      this.toggleHeatmap();
+    }
+    else if (this.viewport != null) {
+      this.viewport.onKeyEvent(key);
+    }
+  }
+
+  // returns the maze drawn into pixels, which looks the same as drawMaze
+  // EFFECT: draws it again only if the board or squareSize changed since the
+  // last time, counting the hit or the miss
+  public ComputedPixelImage getMazeImage() {
+    if (this.isImageCurrent()) {
+      this.imageHits += 1;
+    }
+    else {
+      this.imageMisses += 1;
+      this.mazeImage = this.rasterizeMaze();
+      this.imageGrid = this.grid;
+      this.imageVersion = this.grid.version;
+      this.imageSquareSize = this.squareSize;
+    }
+    return this.mazeImage;
+  }
+
+  // returns true if mazeImage is a drawing of the board as it is now
+  public boolean isImageCurrent() {
+    return this.mazeImage != null && this.imageGrid == this.grid
+        && this.imageVersion == this.grid.version && this.imageSquareSize == this.squareSize;
+  }
+
+  // returns how often getMazeImage reused its image, for showing while playing
+  public String imageCacheStats() {
+    return "maze image hits: " + this.imageHits + ", misses: " + this.imageMisses;
+  }
+
+  // draws the whole maze into a new image, a band of rows of cells at a time
+  // on every core, through the rasterizer's buffer of pixels
+  public ComputedPixelImage rasterizeMaze() {
+    ComputedPixelImage img = new ComputedPixelImage(Math.max(1, this.grid.width * this.squareSize),
+        Math.max(1, this.grid.height * this.squareSize));
+    this.getRasterizer().rasterize(img);
+    return img;
+  }
+
+  // returns the rasterizer that draws the whole maze
+  // EFFECT: makes it the first time it is asked for, reusing its buffer from
+  // one drawing to the next
+  public MazeRasterizer getRasterizer() {
+    if (this.rasterizer == null) {
+      this.rasterizer = new MazeRasterizer(this, true);
+    }
+    return this.rasterizer;
+  }
+
+  // EFFECT: draws the cell at column j and row i into the given image,
+  // the same way drawMaze does: a colored square with a 1 pixel black wall
+  // along its left and top sides where there is no passage
+  public void paintCell(ComputedPixelImage img, int j, int i) {
+    this.paintCell(img, j, i, j * this.squareSize, i * this.squareSize, this.squareSize);
+  }
+
+  // EFFECT: draws the cell at column j and row i into the given image as a
+  // square of the given size with its top left at the given pixel
+  public void paintCell(ComputedPixelImage img, int j, int i, int left, int top, int size) {
+    Color color = this.cellColor(j, i);
+    boolean leftWall = j > 0 && !this.grid.isOpen(j, i, MazeGrid.LEFT);
+    boolean topWall = i > 0 && !this.grid.isOpen(j, i, MazeGrid.UP);
+    for (int py = 0; py < size; py += 1) {
+      for (int px = 0; px < size; px += 1) {
+        if ((px == 0 && leftWall) || (py == 0 && topWall)) {
+          img.setPixel(left + px, top + py, Color.black);
+        }
+        else {
+          img.setPixel(left + px, top + py, color);
+        }
+      }
+    }
+  }
+
+  // returns the color the cell at column j and row i is filled with: green
+  // for the start, magenta for the goal, the search being shown, the
+  // heatmap if it is on, and gray otherwise
+  // it only reads the game as long as the distances are current, so the
+  // cells can be colored on many threads at once (see MazeRasterizer)
+  public Color cellColor(int j, int i) {
+    Color color = Color.gray;
+    if (i == 0 && j == 0) {
+      color = Color.green;
+    }
+    else if (i == this.grid.height - 1 && j == this.grid.width - 1) {
+      color = Color.magenta;
+    }
+    else if (this.solver != null && this.solver.board == this.grid) {
+      // the cells of the search being shown
+      if (this.solver.isOnPath(this.grid.cell(j, i))) {
+        color = Color.blue;
+      }
+      else if (this.solver.isVisited(this.grid.cell(j, i))) {
+        color = Color.cyan;
+      }
+    }
+    if (this.heatmap && color == Color.gray) {
+      color = this.heatField().heatColor(this.grid.cell(j, i));
+    }
+    return color;
+  }
+
+  // returns the width of the screen for the current maze game
+  public int getMazeWidth() {
+    if (this.viewport != null) {
+      return this.viewport.windowWidth;
+    }
+    return this.grid.width * this.squareSize;
+  }
+
+//returns the height of the screen for the current maze game
+  public int getMazeHeight() {
+    if (this.viewport != null) {
+      return this.viewport.windowHeight;
+    }
+    return this.grid.height * this.squareSize;
+  }
+
+}
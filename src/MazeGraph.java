@@ -0,0 +1,187 @@
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// a maze on any MazeTopology, kept as a compressed sparse row graph: the
+// neighbors of every cell one after another in one array, with the
+// neighbors of cell c in the slots offsets[c] (inclusive) to offsets[c + 1]
+// (exclusive), and a bit for every slot, set where the passage to that
+// neighbor is open
+// each passage is in two slots, one from each end, which know each other's
+// number, so a graph takes about 16 bytes and 2 bits a passage, plus 4 bytes
+// a cell, and makes no objects per cell or per passage
+// as a MazeBoard, the ways out of a cell are its slots in order, so it is
+// searched and checked by the same MazeSolver, LevelSearch and MazeValidator
+// as a MazeGrid
+class MazeGraph implements MazeBoard {
+  MazeTopology topology;
+  int[] offsets;
+  int[] neighbors;
+  // the slot of the same passage from its other end, for every slot
+  int[] reverse;
+  // bit s is set when the passage through slot s is open
+  BitSet open;
+  // goes up every time a passage is opened, like MazeGrid.version
+  int version;
+
+  // a maze on the given board with a wall between every pair of cells
+  MazeGraph(MazeTopology topology) {
+    this.topology = topology;
+    int cells = topology.cellCount();
+    this.offsets = new int[cells + 1];
+    for (int cell = 0; cell < cells; cell += 1) {
+      int degree = 0;
+      for (int k = 0; k < topology.maxDegree(); k += 1) {
+        if (topology.neighbor(cell, k) >= 0) {
+          degree += 1;
+        }
+      }
+      if ((long) this.offsets[cell] + degree > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("A board of " + cells + " cells has too many "
+            + "passages to number");
+      }
+      this.offsets[cell + 1] = this.offsets[cell] + degree;
+    }
+    this.neighbors = new int[this.offsets[cells]];
+    for (int cell = 0; cell < cells; cell += 1) {
+      int slot = this.offsets[cell];
+      for (int k = 0; k < topology.maxDegree(); k += 1) {
+        int next = topology.neighbor(cell, k);
+        if (next >= 0) {
+          this.neighbors[slot] = next;
+          slot += 1;
+        }
+      }
+    }
+    this.reverse = new int[this.neighbors.length];
+    for (int cell = 0; cell < cells; cell += 1) {
+      for (int s = this.offsets[cell]; s < this.offsets[cell + 1]; s += 1) {
+        this.reverse[s] = this.slot(this.neighbors[s], cell);
+      }
+    }
+    this.open = new BitSet(this.neighbors.length);
+  }
+
+  // creates a random maze on the given board with Kruskal's algo
+  // every passage to a lower numbered cell gets a weight, a cell at a time
+  // in the order of its neighbors, so on a SquareTopology a Random with the
+  // same seed gives the same maze as MazeGrid.generate
+  static MazeGraph generate(MazeTopology topology, Random rand) {
+    MazeGraph result = new MazeGraph(topology);
+    PackedEdges allEdges = result.edges(rand);
+    allEdges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    PackedEdges treeEdges = new KruskalMaze(result.cellCount(), allEdges).packedAlgorithm();
+    for (int e = 0; e < treeEdges.size; e += 1) {
+      result.connect(treeEdges.from[e], treeEdges.to[e]);
+    }
+    return result;
+  }
+
+  // returns every passage of the board once, from the higher numbered cell
+  // to the lower, with a random weight
+  PackedEdges edges(Random rand) {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.BUILD_EDGES, this.neighbors.length / 2);
+    try {
+      PackedEdges edges = new PackedEdges(this.neighbors.length / 2);
+      for (int cell = 0; cell < this.cellCount(); cell += 1) {
+        for (int s = this.offsets[cell]; s < this.offsets[cell + 1]; s += 1) {
+          if (this.neighbors[s] < cell) {
+            edges.add(cell, this.neighbors[s], rand.nextInt(MazeGame.WEIGHT_BOUND));
+          }
+        }
+      }
+      return edges;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // returns the number of cells in this maze
+  public int cellCount() {
+    return this.offsets.length - 1;
+  }
+
+  // returns the most neighbors a cell of the board can have
+  public int maxDegree() {
+    return this.topology.maxDegree();
+  }
+
+  // returns the cell in slot k of the given cell, if the passage to it is open,
+  // or -1
+  public int openNeighbor(int cell, int k) {
+    int s = this.offsets[cell] + k;
+    if (s >= this.offsets[cell + 1] || !this.open.get(s)) {
+      return -1;
+    }
+    return this.neighbors[s];
+  }
+
+  // returns the slot of the neighbor in slot k of the given cell that goes
+  // back to it, as a number among the neighbor's slots
+  public int backWay(int cell, int k) {
+    int s = this.offsets[cell] + k;
+    return this.reverse[s] - this.offsets[this.neighbors[s]];
+  }
+
+  // a board can wrap around or have cells of any shape, so A* gets no help
+  public int minSteps(int from, int to) {
+    return 0;
+  }
+
+  // returns how many neighbors the given cell has
+  int degree(int cell) {
+    return this.offsets[cell + 1] - this.offsets[cell];
+  }
+
+  // returns the slot of the given neighbor of the given cell, or -1 if the
+  // cells are not neighbors
+  int slot(int cell, int neighbor) {
+    for (int s = this.offsets[cell]; s < this.offsets[cell + 1]; s += 1) {
+      if (this.neighbors[s] == neighbor) {
+        return s;
+      }
+    }
+    return -1;
+  }
+
+  // returns true if the two given cells are neighbors with an open passage
+  // between them
+  boolean isConnected(int cell1, int cell2) {
+    int s = this.slot(cell1, cell2);
+    return s >= 0 && this.open.get(s);
+  }
+
+  // EFFECT: opens the passage between the two given neighboring cells
+  void connect(int cell1, int cell2) {
+    int s = this.slot(cell1, cell2);
+    if (s < 0) {
+      throw new IllegalArgumentException("Cells " + cell1 + " and " + cell2 + " are not neighbors");
+    }
+    this.open.set(s);
+    this.open.set(this.reverse[s]);
+    this.version += 1;
+  }
+
+  // returns the number of open passages in this maze
+  long passageCount() {
+    return this.open.cardinality() / 2;
+  }
+
+  // returns how many passages every cell is from the given one, or
+  // DistanceField.UNREACHED for cells it cannot reach
+  int[] distances(int source) {
+    return new LevelSearch(this, ForkJoinPool.commonPool(), source).distances;
+  }
+
+  // returns the cells on a shortest way from the first given cell to the
+  // second, both included, or an empty array if there is no way
+  int[] solve(int from, int to) {
+    return new MazeSolver(this, MazeSolver.BFS, from, to).solve();
+  }
+
+  // returns what is in this maze, as MazeValidator checks any MazeBoard
+  MazeCheck check() {
+    return new MazeValidator(1).check(this);
+  }
+}
@@ -0,0 +1,638 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Random;
+
+// represents a maze on a grid of width x height cells as two bits per cell,
+// one for the passage to the right of the cell and one for the passage below
+// a set bit means the passage is open, a clear bit means there is a wall,
+// so a new grid has a wall between every pair of cells
+// the cell at column x and row y has the id y * width + x
+// as a MazeBoard, the ways out of a cell are the directions below
+class MazeGrid implements MazeBoard {
+  // the directions a passage can go from a cell
+  static final int RIGHT = 0;
+  static final int DOWN = 1;
+  static final int LEFT = 2;
+  static final int UP = 3;
+  // the first 4 bytes of a snapshot file, "MAZE"
+  static final int SNAPSHOT_MAGIC = 0x4D415A45;
+  // the version of the snapshots written now, which is in the header so the
+  // bits of a snapshot mapped into memory start on a multiple of 8 and can
+  // be set atomically
+  static final int SNAPSHOT_VERSION = 2;
+  // how many bytes of a snapshot come before the bits: the magic number,
+  // the width, the height and the version
+  static final int SNAPSHOT_HEADER = 16;
+  // how many bytes of a snapshot written before there were versions come
+  // before its bits: the magic number, the width and the height
+  static final int LEGACY_SNAPSHOT_HEADER = 12;
+
+  int width;
+  int height;
+  // bit 2 * id is the right passage of the cell id, bit 2 * id + 1 the one
+  // below, bit b being bit b % 64 of word b / 64
+  MazeStorage bits;
+  // goes up every time a passage is opened or walled off, so anything made
+  // from this grid (like a drawing of it) can tell when it is out of date
+  int version;
+
+  MazeGrid(int width, int height) {
+    this(width, height, null);
+  }
+
+  // keeps the bits in the given storage, which has to be the right size, or on
+  // the heap if it is null
+  MazeGrid(int width, int height, MazeStorage bits) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException(
+          "A maze cannot be " + width + " by " + height + " cells");
+    }
+    if ((long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "A maze of " + width + " by " + height + " cells has too many cells to number");
+    }
+    this.width = width;
+    this.height = height;
+    int words = MazeGrid.wordCount(width, height);
+    if (bits == null) {
+      bits = new HeapStorage(words);
+    }
+    else if (bits.wordCount() != words) {
+      throw new IllegalArgumentException("A " + width + " by " + height + " maze needs "
+          + words + " words, not " + bits.wordCount());
+    }
+    this.bits = bits;
+  }
+
+  // returns how many words the bits of a maze of the given size take up
+  static int wordCount(int width, int height) {
+    return (int) (((long) width * height * 2 + 63) >>> 6);
+  }
+
+  // returns a new maze of the given size with a wall between every pair of
+  // cells, kept in the given file as a snapshot (see writeSnapshot) mapped
+  // into memory, so it is on disk as it changes and never on the heap
+  static MazeGrid createMapped(File file, int width, int height) throws IOException {
+    int words = MazeGrid.wordCount(width, height);
+    try (RandomAccessFile out = new RandomAccessFile(file, "rw");
+        FileChannel channel = out.getChannel()) {
+      out.setLength(0);
+      ByteBuffer header = ByteBuffer.allocate(MazeGrid.SNAPSHOT_HEADER);
+      header.putInt(MazeGrid.SNAPSHOT_MAGIC).putInt(width).putInt(height)
+          .putInt(MazeGrid.SNAPSHOT_VERSION).flip();
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      OffHeapBuffer buffer = OffHeapBuffer.map(channel, FileChannel.MapMode.READ_WRITE,
+          MazeGrid.SNAPSHOT_HEADER, 8L * words);
+      return new MazeGrid(width, height, new OffHeapStorage(buffer, words));
+    }
+  }
+
+  // returns the maze in the given snapshot file mapped into memory, so
+  // changing it changes the file, without reading its bits onto the heap
+  // throws an IOException for a snapshot from before there were versions,
+  // whose bits are not on a multiple of 8 (readSnapshot can read it)
+  static MazeGrid openMapped(File file) throws IOException {
+    try (RandomAccessFile in = new RandomAccessFile(file, "rw");
+        FileChannel channel = in.getChannel()) {
+      ByteBuffer header = ByteBuffer.allocate(MazeGrid.SNAPSHOT_HEADER);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // reads until the header is full or the file ends
+      }
+      header.flip();
+      if (MazeGrid.checkSnapshot(file, header, channel.size()) != MazeGrid.SNAPSHOT_HEADER) {
+        throw new IOException(file + " is a snapshot from before versions, which cannot be "
+            + "mapped");
+      }
+      int words = MazeGrid.wordCount(header.getInt(4), header.getInt(8));
+      OffHeapBuffer buffer = OffHeapBuffer.map(channel, FileChannel.MapMode.READ_WRITE,
+          MazeGrid.SNAPSHOT_HEADER, 8L * words);
+      return new MazeGrid(header.getInt(4), header.getInt(8), new OffHeapStorage(buffer, words));
+    }
+  }
+
+  // returns how many bytes of the snapshot with the given header and size
+  // come before its bits: SNAPSHOT_HEADER, or LEGACY_SNAPSHOT_HEADER for a
+  // snapshot from before there were versions, told apart by its size, which
+  // is 4 more than a multiple of 8
+  // throws an IOException if it is not a snapshot, is the wrong size, or is
+  // a version this cannot read
+  static int checkSnapshot(File file, ByteBuffer header, long size) throws IOException {
+    if (size < MazeGrid.LEGACY_SNAPSHOT_HEADER || header.getInt(0) != MazeGrid.SNAPSHOT_MAGIC) {
+      throw new IOException(file + " is not a maze snapshot");
+    }
+    int width = header.getInt(4);
+    int height = header.getInt(8);
+    long bitBytes = width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE ? -1
+        : 8L * MazeGrid.wordCount(width, height);
+    if (bitBytes >= 0 && size == MazeGrid.LEGACY_SNAPSHOT_HEADER + bitBytes) {
+      return MazeGrid.LEGACY_SNAPSHOT_HEADER;
+    }
+    if (bitBytes < 0 || size != MazeGrid.SNAPSHOT_HEADER + bitBytes) {
+      throw new IOException(file + " is the wrong size for a " + width + " by " + height
+          + " maze");
+    }
+    if (header.getInt(12) != MazeGrid.SNAPSHOT_VERSION) {
+      throw new IOException(file + " is a version " + header.getInt(12) + " snapshot, not "
+          + "version " + MazeGrid.SNAPSHOT_VERSION);
+    }
+    return MazeGrid.SNAPSHOT_HEADER;
+  }
+
+  // EFFECT: makes sure the bits are all written to the file they are kept
+  // in, if they are kept in one
+  void flush() {
+    this.bits.flush();
+  }
+
+  // returns a copy of the words the bits are kept in, for comparing mazes
+  long[] words() {
+    long[] result = new long[this.bits.wordCount()];
+    for (int w = 0; w < result.length; w += 1) {
+      result[w] = this.bits.getWord(w);
+    }
+    return result;
+  }
+
+  // creates a random maze with x length and y height, using Kruskal's algo
+  // over the same weights makeConnectedBoard draws, so a Random with the same
+  // seed gives the same maze either way
+  static MazeGrid generate(int x, int y, Random rand) {
+    PackedEdges allEdges = MazeGrid.boardEdges(x, y, rand);
+    allEdges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    PackedEdges treeEdges = new KruskalMaze(x * y, allEdges).packedAlgorithm();
+    MazeGrid result = new MazeGrid(x, y);
+    for (int e = 0; e < treeEdges.size; e += 1) {
+      result.connect(treeEdges.from[e], treeEdges.to[e]);
+    }
+    return result;
+  }
+
+  // creates the list of every edge between neighboring cells of a board with
+  // x length and y height, in the order makeConnectedBoard has always drawn
+  // their random weights: for each cell, the edge up and then the edge left
+  static PackedEdges boardEdges(int x, int y, Random rand) {
+    int count = Math.max(0, (x - 1) * y) + Math.max(0, x * (y - 1));
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.BUILD_EDGES, count);
+    try {
+      PackedEdges edges = new PackedEdges(count);
+      for (int i = 0; i < y; i += 1) {
+        for (int j = 0; j < x; j += 1) {
+          if (i > 0) {
+            edges.add(i * x + j, (i - 1) * x + j, rand.nextInt(MazeGame.WEIGHT_BOUND));
+          }
+          if (j > 0) {
+            edges.add(i * x + j, i * x + j - 1, rand.nextInt(MazeGame.WEIGHT_BOUND));
+          }
+        }
+      }
+      return edges;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // returns the number of cells in this maze
+  public int cellCount() {
+    return this.width * this.height;
+  }
+
+  // every cell has a way out in each of the 4 directions
+  public int maxDegree() {
+    return 4;
+  }
+
+  // returns the cell through the open passage going in the given direction
+  // from the given cell, or -1 if there is a wall, reading the bits straight
+  // off instead of through isOpen, as every search does this for every cell
+  public int openNeighbor(int cell, int direction) {
+    if (direction == MazeGrid.RIGHT) {
+      return cell % this.width != this.width - 1 && this.getBit(cell, 0) ? cell + 1 : -1;
+    }
+    else if (direction == MazeGrid.DOWN) {
+      return cell < this.cellCount() - this.width && this.getBit(cell, 1)
+          ? cell + this.width : -1;
+    }
+    else if (direction == MazeGrid.LEFT) {
+      return cell % this.width != 0 && this.getBit(cell - 1, 0) ? cell - 1 : -1;
+    }
+    else if (direction == MazeGrid.UP) {
+      return cell >= this.width && this.getBit(cell - this.width, 1) ? cell - this.width : -1;
+    }
+    else {
+      throw new IllegalArgumentException("Not a direction: " + direction);
+    }
+  }
+
+  // the way back is the opposite direction
+  public int backWay(int cell, int direction) {
+    return (direction + 2) % 4;
+  }
+
+  // the cells are at least as many passages apart as they are rows and
+  // columns apart
+  public int minSteps(int from, int to) {
+    return Math.abs(from % this.width - to % this.width)
+        + Math.abs(from / this.width - to / this.width);
+  }
+
+  // returns the id of the cell at column x and row y
+  int cell(int x, int y) {
+    return y * this.width + x;
+  }
+
+  // returns true if the cell at column x and row y has an open passage going
+  // in the given direction, passages off the edge of the grid are never open
+  // throws an IllegalArgumentException if there is no such cell
+  boolean isOpen(int x, int y, int direction) {
+    if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+      throw new IllegalArgumentException("There is no cell at column " + x + " and row " + y
+          + " of a " + this.width + " by " + this.height + " maze");
+    }
+    if (direction == MazeGrid.RIGHT) {
+      return x + 1 < this.width && this.getBit(this.cell(x, y), 0);
+    }
+    else if (direction == MazeGrid.DOWN) {
+      return y + 1 < this.height && this.getBit(this.cell(x, y), 1);
+    }
+    else if (direction == MazeGrid.LEFT) {
+      return x > 0 && this.getBit(this.cell(x - 1, y), 0);
+    }
+    else if (direction == MazeGrid.UP) {
+      return y > 0 && this.getBit(this.cell(x, y - 1), 1);
+    }
+    else {
+      throw new IllegalArgumentException("Not a direction: " + direction);
+    }
+  }
+
+  // EFFECT: opens or walls off the passage going in the given direction from
+  // the cell at column x and row y
+  void setOpen(int x, int y, int direction, boolean isOpen) {
+    if (direction == MazeGrid.RIGHT && x + 1 < this.width) {
+      this.setBit(this.cell(x, y), 0, isOpen);
+    }
+    else if (direction == MazeGrid.DOWN && y + 1 < this.height) {
+      this.setBit(this.cell(x, y), 1, isOpen);
+    }
+    else if (direction == MazeGrid.LEFT && x > 0) {
+      this.setBit(this.cell(x - 1, y), 0, isOpen);
+    }
+    else if (direction == MazeGrid.UP && y > 0) {
+      this.setBit(this.cell(x, y - 1), 1, isOpen);
+    }
+    else {
+      throw new IllegalArgumentException(
+          "No passage in direction " + direction + " from (" + x + ", " + y + ")");
+    }
+  }
+
+  // returns true if the two given cells are neighbors with an open passage
+  // between them
+  boolean isConnected(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    int high = Math.max(cell1, cell2);
+    if (low < 0 || high >= this.cellCount()) {
+      // also covers a grid with no columns, where no cell has neighbors
+      return false;
+    }
+    else if (high - low == this.width) {
+      return this.getBit(low, 1);
+    }
+    else if (high - low == 1 && low % this.width != this.width - 1) {
+      return this.getBit(low, 0);
+    }
+    else {
+      return false;
+    }
+  }
+
+  // EFFECT: opens the passage between the two given neighboring cells
+  void connect(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    int high = Math.max(cell1, cell2);
+    if (low < 0 || high >= this.cellCount()) {
+      throw new IllegalArgumentException("Cells " + cell1 + " and " + cell2 + " are not "
+          + "both in a " + this.width + " by " + this.height + " maze");
+    }
+    else if (high - low == this.width) {
+      this.setBit(low, 1, true);
+    }
+    else if (high - low == 1 && low % this.width != this.width - 1) {
+      this.setBit(low, 0, true);
+    }
+    else {
+      throw new IllegalArgumentException("Cells " + cell1 + " and " + cell2 + " are not neighbors");
+    }
+  }
+
+  // EFFECT: opens the passage between the two given neighboring cells, safe to
+  // call from many threads at once, but it leaves this.version alone so the
+  // caller has to bump it once they are all done
+  void connectConcurrently(int cell1, int cell2) {
+    int low = Math.min(cell1, cell2);
+    // checked first, like connect does, since on a grid 1 cell wide the
+    // cells above and below each other are 1 apart too
+    int which = Math.max(cell1, cell2) - low == this.width ? 1 : 0;
+    long bit = 2L * low + which;
+    this.bits.orWordAtomically((int) (bit >>> 6), 1L << bit);
+  }
+
+  // EFFECT: sets the passages of row y to those of the given row, leaving out
+  // the passages down if y is the bottom row
+  void setRow(int y, MazeRow row) {
+    for (int x = 0; x < this.width; x += 1) {
+      if (x + 1 < this.width) {
+        this.setBit(this.cell(x, y), 0, row.isRight(x));
+      }
+      if (y + 1 < this.height) {
+        this.setBit(this.cell(x, y), 1, row.isDown(x));
+      }
+    }
+  }
+
+  // EFFECT: moves every row up one, dropping the top row, and walls off
+  // every passage of the bottom row
+  void shiftUp() {
+    long shift = 2L * this.width;
+    int words = (int) (shift >>> 6);
+    int bits = (int) (shift & 63);
+    int count = this.bits.wordCount();
+    for (int w = 0; w < count; w += 1) {
+      long low = w + words < count ? this.bits.getWord(w + words) : 0;
+      long high = w + words + 1 < count ? this.bits.getWord(w + words + 1) : 0;
+      this.bits.setWord(w, bits == 0 ? low : (low >>> bits) | (high << (64 - bits)));
+    }
+    for (int x = 0; x < this.width && this.height > 0; x += 1) {
+      this.setBit(this.cell(x, this.height - 1), 0, false);
+      this.setBit(this.cell(x, this.height - 1), 1, false);
+    }
+    this.version += 1;
+  }
+
+  // EFFECT: makes the w by h cells with the given top left corner into a new
+  // random maze, leaving every passage outside of them (and every passage
+  // into them from outside) as it was, so a perfect maze stays perfect
+  // the cells of the region may be tied together through the rest of the
+  // maze by the passages into them, so the corridors that join those
+  // passages to each other are kept, and everything else in the region is
+  // made over by Kruskal's algo, with the kept corridors as sets that are
+  // already merged and must not be merged with each other
+  // the work is all local to the region, so it costs the same however big
+  // the rest of the maze is
+  void regenerateRegion(int x0, int y0, int w, int h, Random rand) {
+    if (x0 < 0 || y0 < 0 || w < 0 || h < 0 || x0 + w > this.width || y0 + h > this.height) {
+      throw new IllegalArgumentException("The " + w + " by " + h + " region at (" + x0 + ", "
+          + y0 + ") is not inside this " + this.width + " by " + this.height + " maze");
+    }
+    int count = w * h;
+    // the cells of the region are numbered 0 .. count - 1 row by row
+    boolean[] kept = new boolean[count];
+    boolean[] anchored = new boolean[count];
+    int[] degree = new int[count];
+    for (int i = 0; i < h; i += 1) {
+      for (int j = 0; j < w; j += 1) {
+        int local = i * w + j;
+        kept[local] = true;
+        anchored[local] = (j == 0 && this.isOpen(x0, y0 + i, MazeGrid.LEFT))
+            || (j == w - 1 && this.isOpen(x0 + j, y0 + i, MazeGrid.RIGHT))
+            || (i == 0 && this.isOpen(x0 + j, y0, MazeGrid.UP))
+            || (i == h - 1 && this.isOpen(x0 + j, y0 + i, MazeGrid.DOWN));
+        if (j + 1 < w && this.isOpen(x0 + j, y0 + i, MazeGrid.RIGHT)) {
+          degree[local] += 1;
+          degree[local + 1] += 1;
+        }
+        if (i + 1 < h && this.isOpen(x0 + j, y0 + i, MazeGrid.DOWN)) {
+          degree[local] += 1;
+          degree[local + w] += 1;
+        }
+      }
+    }
+    // prunes the dead ends of the old passages in the region until only the
+    // corridors between anchored cells are left
+    int[] worklist = new int[count];
+    int size = 0;
+    for (int local = 0; local < count; local += 1) {
+      if (!anchored[local] && degree[local] <= 1) {
+        worklist[size] = local;
+        size += 1;
+      }
+    }
+    while (size > 0) {
+      size -= 1;
+      int local = worklist[size];
+      kept[local] = false;
+      int x = x0 + local % w;
+      int y = y0 + local / w;
+      for (int direction = MazeGrid.RIGHT; direction <= MazeGrid.UP; direction += 1) {
+        int next = this.regionNeighbor(local, w, h, direction);
+        if (next >= 0 && kept[next] && this.isOpen(x, y, direction)) {
+          degree[next] -= 1;
+          if (!anchored[next] && degree[next] == 1) {
+            worklist[size] = next;
+            size += 1;
+          }
+        }
+      }
+    }
+    // the kept corridors start out merged, everything else is walled off
+    UnionFind sets = MazeMetrics.makeUnionFind(count);
+    for (int local = 0; local < count; local += 1) {
+      int x = x0 + local % w;
+      int y = y0 + local / w;
+      if (local % w + 1 < w) {
+        if (kept[local] && kept[local + 1] && this.isOpen(x, y, MazeGrid.RIGHT)) {
+          sets.union(local, local + 1);
+        }
+        else {
+          this.setBit(this.cell(x, y), 0, false);
+        }
+      }
+      if (local / w + 1 < h) {
+        if (kept[local] && kept[local + w] && this.isOpen(x, y, MazeGrid.DOWN)) {
+          sets.union(local, local + w);
+        }
+        else {
+          this.setBit(this.cell(x, y), 1, false);
+        }
+      }
+    }
+    // a set holds a corridor if any of its cells were kept
+    boolean[] holdsCorridor = new boolean[count];
+    for (int local = 0; local < count; local += 1) {
+      if (kept[local]) {
+        holdsCorridor[sets.find(local)] = true;
+      }
+    }
+    PackedEdges edges = MazeGrid.boardEdges(w, h, rand);
+    edges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    int accepted = 0;
+    for (int e = 0; e < edges.size; e += 1) {
+      int rep1 = sets.find(edges.from[e]);
+      int rep2 = sets.find(edges.to[e]);
+      // two corridors are already joined through the rest of the maze
+      if (rep1 != rep2 && !(holdsCorridor[rep1] && holdsCorridor[rep2])) {
+        sets.union(rep1, rep2);
+        holdsCorridor[sets.find(rep1)] = holdsCorridor[rep1] || holdsCorridor[rep2];
+        this.connect(this.cell(x0 + edges.from[e] % w, y0 + edges.from[e] / w),
+            this.cell(x0 + edges.to[e] % w, y0 + edges.to[e] / w));
+        accepted += 1;
+      }
+    }
+    MazeMetrics.recordKruskal(sets, edges.size, accepted);
+  }
+
+  // returns the number of the cell next to the given one in the given
+  // direction, in a w by h region numbered row by row, or -1 if that is
+  // outside of the region
+  int regionNeighbor(int local, int w, int h, int direction) {
+    int j = local % w;
+    int i = local / w;
+    if (direction == MazeGrid.RIGHT) {
+      return j + 1 < w ? local + 1 : -1;
+    }
+    else if (direction == MazeGrid.DOWN) {
+      return i + 1 < h ? local + w : -1;
+    }
+    else if (direction == MazeGrid.LEFT) {
+      return j > 0 ? local - 1 : -1;
+    }
+    else {
+      return i > 0 ? local - w : -1;
+    }
+  }
+
+  // returns a maze with the same walls as this one that can be changed
+  // without changing this one, kept on the heap
+  MazeGrid copy() {
+    MazeGrid result = new MazeGrid(this.width, this.height);
+    for (int w = 0; w < this.bits.wordCount(); w += 1) {
+      result.bits.setWord(w, this.bits.getWord(w));
+    }
+    return result;
+  }
+
+  // EFFECT: writes this maze to the given file as a snapshot: a small header
+  // and then its passage bits as they are in memory, 2 bits a cell
+  // the file is written next to where it goes, under a name of its own so
+  // writers at the same time do not clash, and then moved there, so a
+  // snapshot file is never seen half written
+  void writeSnapshot(File file) throws IOException {
+    File temp = MazeGrid.tempFileNextTo(file);
+    try {
+      try (RandomAccessFile out = new RandomAccessFile(temp, "rw");
+          FileChannel channel = out.getChannel()) {
+        out.setLength(0);
+        ByteBuffer header = ByteBuffer.allocate(MazeGrid.SNAPSHOT_HEADER);
+        header.putInt(MazeGrid.SNAPSHOT_MAGIC).putInt(this.width).putInt(this.height)
+            .putInt(MazeGrid.SNAPSHOT_VERSION).flip();
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+        // the bits go out a chunk at a time so a big maze does not need a
+        // second copy of itself as bytes
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int count = this.bits.wordCount();
+        for (int w = 0; w < count; w += 1) {
+          chunk.putLong(this.bits.getWord(w));
+          if (!chunk.hasRemaining() || w == count - 1) {
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+              channel.write(chunk);
+            }
+            chunk.clear();
+          }
+        }
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      // only still there if the write or the move failed
+      Files.deleteIfExists(temp.toPath());
+    }
+  }
+
+  // returns a new empty file in the same directory as the given file, with a
+  // name no other writer has, to write into before moving it onto the file
+  static File tempFileNextTo(File file) throws IOException {
+    File directory = file.getAbsoluteFile().getParentFile();
+    return Files.createTempFile(directory.toPath(), file.getName() + ".", ".tmp").toFile();
+  }
+
+  // returns the maze written to the given snapshot file by writeSnapshot,
+  // reading its bits through a memory mapping of the file
+  // a snapshot from before there were versions is read too
+  static MazeGrid readSnapshot(File file) throws IOException {
+    try (RandomAccessFile in = new RandomAccessFile(file, "r");
+        FileChannel channel = in.getChannel()) {
+      MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      int start = MazeGrid.checkSnapshot(file, map, channel.size());
+      MazeGrid result = new MazeGrid(map.getInt(4), map.getInt(8));
+      map.position(start);
+      map.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer()
+          .get(((HeapStorage) result.bits).words);
+      return result;
+    }
+  }
+
+  // returns the number of open passages in this maze
+  long passageCount() {
+    long count = 0;
+    for (int w = 0; w < this.bits.wordCount(); w += 1) {
+      count += Long.bitCount(this.bits.getWord(w));
+    }
+    return count;
+  }
+
+  // returns the given bit (0 for right, 1 for down) of the given cell
+  boolean getBit(int cell, int which) {
+    long bit = 2L * cell + which;
+    return (this.bits.getWord((int) (bit >>> 6)) & (1L << bit)) != 0;
+  }
+
+  // EFFECT: sets or clears the given bit (0 for right, 1 for down) of the given cell
+  void setBit(int cell, int which, boolean value) {
+    long bit = 2L * cell + which;
+    int index = (int) (bit >>> 6);
+    this.version += 1;
+    if (value) {
+      this.bits.setWord(index, this.bits.getWord(index) | 1L << bit);
+    }
+    else {
+      this.bits.setWord(index, this.bits.getWord(index) & ~(1L << bit));
+    }
+  }
+
+  // returns this maze as the Node and Edge graph the rest of the game was
+  // first written against, with one Node per cell and one Edge per open
+  // passage (the edge weights are not kept in a grid, so they are all 0)
+  ArrayList<ArrayList<Node>> toNodeBoard() {
+    ArrayList<ArrayList<Node>> board = new ArrayList<ArrayList<Node>>(this.height);
+    for (int y = 0; y < this.height; y += 1) {
+      ArrayList<Node> row = new ArrayList<Node>(this.width);
+      for (int x = 0; x < this.width; x += 1) {
+        Node n = new Node(this.cell(x, y));
+        row.add(n);
+        if (this.isOpen(x, y, MazeGrid.UP)) {
+          n.connect(board.get(y - 1).get(x), 0);
+        }
+        if (this.isOpen(x, y, MazeGrid.LEFT)) {
+          n.connect(row.get(x - 1), 0);
+        }
+      }
+      board.add(row);
+    }
+    return board;
+  }
+}
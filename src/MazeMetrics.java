@@ -0,0 +1,124 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jdk.jfr.EventType;
+
+// counts where the time goes when making and drawing mazes
+// every phase sends a JFR event while a recording has it on, and when
+// MazeMetrics.enabled is set it also adds up the calls, time and allocations
+// of each phase and the work done by Kruskal's algo here, for reading with
+// report; with neither on, nothing is made or counted at all
+// enabled is meant to be set before the work to be measured starts
+class MazeMetrics {
+  // the phases that are measured
+  static final int BUILD_EDGES = 0;
+  static final int SORT_EDGES = 1;
+  static final int KRUSKAL = 2;
+  static final int REMOVE_LEFTOVER = 3;
+  static final int DRAW_MAZE = 4;
+  static final int RENDER_FRAME = 5;
+  static final String[] PHASE_NAMES = { "build edges", "sort edges", "kruskal",
+      "remove leftover", "draw maze", "render frame" };
+
+  static volatile boolean enabled = false;
+
+  // the JFR event types, asked whether a recording wants them before an
+  // event is made
+  static final EventType PHASE_EVENTS = EventType.getEventType(MazePhaseEvent.class);
+  static final EventType KRUSKAL_EVENTS = EventType.getEventType(KruskalEvent.class);
+
+  // per phase: how many times it ran, the total and longest time it took in
+  // nanoseconds, and the bytes allocated by the thread running it
+  static final AtomicLongArray CALLS = new AtomicLongArray(PHASE_NAMES.length);
+  static final AtomicLongArray NANOS = new AtomicLongArray(PHASE_NAMES.length);
+  static final AtomicLongArray MAX_NANOS = new AtomicLongArray(PHASE_NAMES.length);
+  static final AtomicLongArray BYTES = new AtomicLongArray(PHASE_NAMES.length);
+  // what Kruskal's algo did: edges looked at and skipped for making a loop,
+  // unions made, finds done, the steps taken up the trees by those finds,
+  // and the most steps one find took
+  static final AtomicLong EDGES_EXAMINED = new AtomicLong();
+  static final AtomicLong EDGES_REJECTED = new AtomicLong();
+  static final AtomicLong UNIONS = new AtomicLong();
+  static final AtomicLong FINDS = new AtomicLong();
+  static final AtomicLong FIND_STEPS = new AtomicLong();
+  static final AtomicLong MAX_FIND_DEPTH = new AtomicLong();
+
+  // EFFECT: sets every count back to 0
+  static void reset() {
+    for (int p = 0; p < PHASE_NAMES.length; p += 1) {
+      CALLS.set(p, 0);
+      NANOS.set(p, 0);
+      MAX_NANOS.set(p, 0);
+      BYTES.set(p, 0);
+    }
+    EDGES_EXAMINED.set(0);
+    EDGES_REJECTED.set(0);
+    UNIONS.set(0);
+    FINDS.set(0);
+    FIND_STEPS.set(0);
+    MAX_FIND_DEPTH.set(0);
+  }
+
+  // returns a union-find of the given size for Kruskal's algo, one that
+  // counts its finds if the metrics are on
+  static UnionFind makeUnionFind(int size) {
+    if (MazeMetrics.enabled) {
+      return new CountingUnionFind(size);
+    }
+    return new UnionFind(size);
+  }
+
+  // EFFECT: adds up what a run of Kruskal's algo did, and sends it as an event
+  static void recordKruskal(UnionFind sets, long examined, long accepted) {
+    if (KRUSKAL_EVENTS.isEnabled()) {
+      KruskalEvent event = new KruskalEvent();
+      event.edgesExamined = examined;
+      event.edgesRejected = examined - accepted;
+      event.unions = accepted;
+      if (sets instanceof CountingUnionFind) {
+        CountingUnionFind counted = (CountingUnionFind) sets;
+        event.finds = counted.finds;
+        event.maxFindDepth = counted.maxDepth;
+        event.meanFindDepth = counted.finds == 0 ? 0 : (double) counted.steps / counted.finds;
+      }
+      event.commit();
+    }
+    if (MazeMetrics.enabled) {
+      EDGES_EXAMINED.addAndGet(examined);
+      EDGES_REJECTED.addAndGet(examined - accepted);
+      UNIONS.addAndGet(accepted);
+      if (sets instanceof CountingUnionFind) {
+        CountingUnionFind counted = (CountingUnionFind) sets;
+        FINDS.addAndGet(counted.finds);
+        FIND_STEPS.addAndGet(counted.steps);
+        MAX_FIND_DEPTH.accumulateAndGet(counted.maxDepth, Math::max);
+      }
+    }
+  }
+
+  // returns the mean number of steps a find took
+  static double meanFindDepth() {
+    long finds = FINDS.get();
+    return finds == 0 ? 0 : (double) FIND_STEPS.get() / finds;
+  }
+
+  // returns every count, a line for each phase and then the Kruskal counts
+  static String report() {
+    StringBuilder result = new StringBuilder();
+    for (int p = 0; p < PHASE_NAMES.length; p += 1) {
+      long calls = CALLS.get(p);
+      result.append(PHASE_NAMES[p]).append(": ").append(calls).append(" calls, ")
+          .append(NANOS.get(p) / 1000).append(" us total, ")
+          .append(calls == 0 ? 0 : NANOS.get(p) / calls / 1000).append(" us mean, ")
+          .append(MAX_NANOS.get(p) / 1000).append(" us max, ")
+          .append(BYTES.get(p)).append(" bytes allocated\n");
+    }
+    result.append("edges examined: ").append(EDGES_EXAMINED.get())
+        .append(", rejected: ").append(EDGES_REJECTED.get())
+        .append(", unions: ").append(UNIONS.get())
+        .append(", finds: ").append(FINDS.get())
+        .append(", max find depth: ").append(MAX_FIND_DEPTH.get())
+        .append(", mean find depth: ").append(String.format("%.3f", meanFindDepth()));
+    return result.toString();
+  }
+}
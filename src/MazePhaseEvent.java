@@ -0,0 +1,19 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// the JFR event for one run of a phase of making or drawing a maze
+@Name("maze.Phase")
+@Label("Maze Phase")
+@Category("Maze")
+@Description("One run of a phase of making or drawing a maze")
+class MazePhaseEvent extends Event {
+  @Label("Phase")
+  String phase;
+
+  @Label("Items")
+  @Description("How many cells or edges the phase worked on")
+  long items;
+}
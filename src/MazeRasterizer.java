@@ -0,0 +1,138 @@
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import javalib.worldimages.ComputedPixelImage;
+
+// draws a whole MazeGame into an int ARGB pixel for every pixel, row by row,
+// looking the same as MazeGame.paintCell: a square of MazeGame.cellColor
+// with a 1 pixel black wall along its left and top sides where there is no
+// passage, and copies the pixels into a ComputedPixelImage when asked to
+// the pixels are cut into bands of whole rows of cells that are drawn in
+// parallel, each band filling only its own rows of the shared buffer (a
+// row of a cell at a time) and then copying just those rows into the image,
+// and nothing is made per cell, the colors are the ones cellColor already has
+class MazeRasterizer {
+  // about how many pixels are in a band
+  static final int BAND_PIXELS = 1 << 16;
+  static final int BLACK = Color.black.getRGB();
+
+  MazeGame game;
+  ForkJoinPool pool;
+  // when true, the same buffer is drawn into every time it is the right size,
+  // so a buffer handed out is only good until the next draw
+  boolean reuseBuffer;
+  int[] pixels;
+  int pixelWidth;
+  int pixelHeight;
+  // how many rows of cells are in a band, for the draw going on
+  int bandRows;
+
+  MazeRasterizer(MazeGame game, ForkJoinPool pool, boolean reuseBuffer) {
+    this.game = game;
+    this.pool = pool;
+    this.reuseBuffer = reuseBuffer;
+  }
+
+  // uses the common pool, which has a thread for every core
+  MazeRasterizer(MazeGame game, boolean reuseBuffer) {
+    this(game, ForkJoinPool.commonPool(), reuseBuffer);
+  }
+
+  // returns the maze drawn into pixelWidth by pixelHeight pixels, row by row
+  // EFFECT: draws the maze, into this.pixels again if buffers are reused
+  int[] rasterize() {
+    return this.rasterize(null);
+  }
+
+  // returns the maze drawn into pixelWidth by pixelHeight pixels, row by row
+  // EFFECT: draws the maze, into this.pixels again if buffers are reused, and
+  // then into the given image too if it is not null, a band at a time
+  int[] rasterize(ComputedPixelImage img) {
+    int count = this.measure();
+    if (!this.reuseBuffer || this.pixels == null || this.pixels.length != count) {
+      this.pixels = new int[count];
+    }
+    else if (this.game.grid.cellCount() == 0) {
+      // no cell covers the pixels of an empty maze
+      Arrays.fill(this.pixels, 0);
+    }
+    this.drawBands(img);
+    return this.pixels;
+  }
+
+  // returns how many pixels the maze is drawn into
+  // EFFECT: works out pixelWidth and pixelHeight
+  int measure() {
+    MazeGrid grid = this.game.grid;
+    int size = this.game.squareSize;
+    if ((long) grid.width * size * grid.height * size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A " + grid.width + " by " + grid.height
+          + " maze is too big to draw with " + size + " pixel cells");
+    }
+    this.pixelWidth = Math.max(1, grid.width * size);
+    this.pixelHeight = Math.max(1, grid.height * size);
+    return this.pixelWidth * this.pixelHeight;
+  }
+
+  // EFFECT: draws every band into this.pixels, and into the given image if it
+  // is not null
+  void drawBands(ComputedPixelImage img) {
+    if (this.game.heatmap) {
+      // works the distances out now, so no band has to
+      this.game.heatField();
+    }
+    int size = this.game.squareSize;
+    this.bandRows = Math.max(1, BAND_PIXELS / Math.max(1, this.pixelWidth * size));
+    int bands = (this.game.grid.height + this.bandRows - 1) / this.bandRows;
+    this.pool.invoke(new RasterizeBands(this, img, 0, bands));
+  }
+
+  // EFFECT: draws the rows of cells of the given band into this.pixels, then
+  // copies those rows into the given image if it is not null
+  void drawBand(int band, ComputedPixelImage img) {
+    MazeGrid grid = this.game.grid;
+    int size = this.game.squareSize;
+    int bottom = Math.min(grid.height, (band + 1) * this.bandRows);
+    for (int i = band * this.bandRows; i < bottom; i += 1) {
+      for (int j = 0; j < grid.width; j += 1) {
+        int argb = this.game.cellColor(j, i).getRGB();
+        boolean leftWall = j > 0 && !grid.isOpen(j, i, MazeGrid.LEFT);
+        boolean topWall = i > 0 && !grid.isOpen(j, i, MazeGrid.UP);
+        int left = j * size;
+        for (int py = 0; py < size; py += 1) {
+          int start = (i * size + py) * this.pixelWidth + left;
+          if (py == 0 && topWall) {
+            Arrays.fill(this.pixels, start, start + size, BLACK);
+          }
+          else {
+            Arrays.fill(this.pixels, start, start + size, argb);
+            if (leftWall) {
+              this.pixels[start] = BLACK;
+            }
+          }
+        }
+      }
+    }
+    if (img != null) {
+      this.copyRows(img, band * this.bandRows * size, bottom * size);
+    }
+  }
+
+  // EFFECT: sets the pixels of the given image in rows top (inclusive) to
+  // bottom (exclusive) to those of this.pixels, making a new Color only where
+  // a pixel is not the same as the one before it
+  void copyRows(ComputedPixelImage img, int top, int bottom) {
+    Color color = null;
+    int argb = 0;
+    for (int y = top; y < bottom; y += 1) {
+      for (int x = 0; x < this.pixelWidth; x += 1) {
+        int pixel = this.pixels[y * this.pixelWidth + x];
+        if (color == null || pixel != argb) {
+          argb = pixel;
+          color = new Color(pixel, true);
+        }
+        img.setPixel(x, y, color);
+      }
+    }
+  }
+}
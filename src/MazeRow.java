@@ -0,0 +1,57 @@
+// represents one row of a maze, as bits for the passages to the right of and
+// below each of its cells
+class MazeRow {
+  int width;
+  // which row of the maze this is, counting from 0
+  long index;
+  long[] right;
+  long[] down;
+
+  MazeRow(int width) {
+    this.width = width;
+    this.right = new long[(width + 63) >>> 6];
+    this.down = new long[(width + 63) >>> 6];
+  }
+
+  // returns true if the cell at column x has a passage to the right
+  boolean isRight(int x) {
+    return (this.right[x >>> 6] & (1L << x)) != 0;
+  }
+
+  // returns true if the cell at column x has a passage down
+  boolean isDown(int x) {
+    return (this.down[x >>> 6] & (1L << x)) != 0;
+  }
+
+  // EFFECT: opens the passage to the right of the cell at column x
+  void setRight(int x) {
+    this.right[x >>> 6] |= 1L << x;
+  }
+
+  // EFFECT: opens the passage below the cell at column x
+  void setDown(int x) {
+    this.down[x >>> 6] |= 1L << x;
+  }
+
+  // EFFECT: walls off every passage of this row
+  void clear() {
+    for (int w = 0; w < this.right.length; w += 1) {
+      this.right[w] = 0;
+      this.down[w] = 0;
+    }
+  }
+
+  // returns a copy of this row that will not change with the stream
+  MazeRow copy() {
+    MazeRow result = new MazeRow(this.width);
+    result.copyFrom(this);
+    return result;
+  }
+
+  // EFFECT: makes this row the same as the given row of the same width
+  void copyFrom(MazeRow other) {
+    this.index = other.index;
+    System.arraycopy(other.right, 0, this.right, 0, this.right.length);
+    System.arraycopy(other.down, 0, this.down, 0, this.down.length);
+  }
+}
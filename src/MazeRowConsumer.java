@@ -0,0 +1,5 @@
+// something that takes the rows of a maze as they are made
+interface MazeRowConsumer {
+  // EFFECT: takes in the given row, which may change after this returns
+  void accept(MazeRow row);
+}
@@ -0,0 +1,13 @@
+import java.io.IOException;
+
+// something that takes the mazes of a batch as they are made
+interface MazeSink {
+  // EFFECT: takes in the maze made for the given spec
+  void accept(MazeSpec spec, MazeGrid grid) throws IOException;
+
+  // returns true if accept can be called from many threads at once, so the
+  // batch does not have to hand it one maze at a time
+  default boolean isThreadSafe() {
+    return false;
+  }
+}
@@ -0,0 +1,301 @@
+import java.util.Arrays;
+
+// finds the path between two cells of a maze (a MazeGrid or a MazeGraph)
+// with a breadth first search, a depth first search or A*
+// everything the search needs is made once up front as arrays over the
+// cell ids, so the search itself makes no objects, and it can be run all at
+// once with solve or a bit at a time with step, for example once per tick
+class MazeSolver {
+  // the searches a solver can run
+  static final int BFS = 0;
+  static final int DFS = 1;
+  static final int ASTAR = 2;
+
+  MazeBoard board;
+  int algorithm;
+  int start;
+  int goal;
+  // the cells waiting to be looked at: a queue from head to tail for BFS,
+  // a stack of size cells for DFS, a binary heap of size cells for A*
+  int[] frontier;
+  int head;
+  int tail;
+  int size;
+  // for A*, where each cell is in the heap (or -1), the length of the best
+  // path to it so far, and that plus the distance left (see estimate)
+  int[] heapIndex;
+  int[] cost;
+  int[] priority;
+  // the cell each cell was first reached from
+  int[] cameFrom;
+  // one bit per cell, set once the cell has been reached, and once it has
+  // been looked at
+  long[] reached;
+  long[] visited;
+  // the cells in the order they were looked at, the first visitedCount of them
+  int[] visitOrder;
+  int visitedCount;
+  // one bit per cell, set for the cells on the path once it is found
+  long[] onPath;
+  boolean done;
+  boolean found;
+
+  MazeSolver(MazeBoard board, int algorithm, int start, int goal) {
+    if (algorithm != MazeSolver.BFS && algorithm != MazeSolver.DFS
+        && algorithm != MazeSolver.ASTAR) {
+      throw new IllegalArgumentException("Not a search: " + algorithm);
+    }
+    int n = board.cellCount();
+    this.board = board;
+    this.algorithm = algorithm;
+    this.frontier = new int[n];
+    this.cameFrom = new int[n];
+    this.reached = new long[(n + 63) >>> 6];
+    this.visited = new long[(n + 63) >>> 6];
+    this.onPath = new long[(n + 63) >>> 6];
+    this.visitOrder = new int[n];
+    if (algorithm == MazeSolver.ASTAR) {
+      this.heapIndex = new int[n];
+      this.cost = new int[n];
+      this.priority = new int[n];
+    }
+    this.reset(start, goal);
+  }
+
+  // solves from the top left cell to the bottom right cell, like the game
+  MazeSolver(MazeBoard board, int algorithm) {
+    this(board, algorithm, 0, board.cellCount() - 1);
+  }
+
+  // EFFECT: starts a new search between the given cells, reusing the arrays
+  void reset(int start, int goal) {
+    int n = this.board.cellCount();
+    if (start < 0 || start >= n || goal < 0 || goal >= n) {
+      throw new IllegalArgumentException(
+          "Cells " + start + " and " + goal + " are not both in the maze");
+    }
+    this.start = start;
+    this.goal = goal;
+    Arrays.fill(this.reached, 0);
+    Arrays.fill(this.visited, 0);
+    Arrays.fill(this.onPath, 0);
+    if (this.heapIndex != null) {
+      Arrays.fill(this.heapIndex, -1);
+    }
+    this.head = 0;
+    this.tail = 0;
+    this.size = 0;
+    this.visitedCount = 0;
+    this.done = false;
+    this.found = false;
+    this.cameFrom[start] = start;
+    this.reach(start, start, 0);
+  }
+
+  // returns the path from start to goal, running the rest of the search
+  // returns an empty array if there is no path
+  int[] solve() {
+    while (!this.step(Integer.MAX_VALUE)) {
+      // step gives up on its own once the search is over
+    }
+    return this.path();
+  }
+
+  // EFFECT: looks at up to the given number of cells
+  // returns true once the search is over
+  boolean step(int budget) {
+    for (int i = 0; i < budget && !this.done; i += 1) {
+      this.expand();
+    }
+    return this.done;
+  }
+
+  // EFFECT: looks at cells until the search is over or the given number of
+  // nanoseconds has gone by, checking the time every 1024 cells
+  // returns true once the search is over
+  boolean stepFor(long nanos) {
+    long end = System.nanoTime() + nanos;
+    while (!this.step(1024) && System.nanoTime() < end) {
+      // keeps stepping while there is time left
+    }
+    return this.done;
+  }
+
+  // returns true if the given cell has been reached by the search
+  boolean isReached(int cell) {
+    return (this.reached[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // returns true if the given cell has been looked at by the search
+  boolean isVisited(int cell) {
+    return (this.visited[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // returns true if the given cell is on the path found
+  boolean isOnPath(int cell) {
+    return (this.onPath[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // returns the path from start to goal the search found, or an empty array
+  // if it has not found one
+  int[] path() {
+    if (!this.found) {
+      return new int[0];
+    }
+    int length = 1;
+    for (int c = this.goal; c != this.start; c = this.cameFrom[c]) {
+      length += 1;
+    }
+    int[] result = new int[length];
+    int c = this.goal;
+    for (int i = length - 1; i >= 0; i -= 1) {
+      result[i] = c;
+      c = this.cameFrom[c];
+    }
+    return result;
+  }
+
+  // EFFECT: takes the next cell off the frontier and puts its neighbors on it
+  void expand() {
+    if (this.isFrontierEmpty()) {
+      this.done = true;
+      return;
+    }
+    int cell = this.takeNext();
+    this.visited[cell >>> 6] |= 1L << cell;
+    this.visitOrder[this.visitedCount] = cell;
+    this.visitedCount += 1;
+    if (cell == this.goal) {
+      this.done = true;
+      this.found = true;
+      for (int c = this.goal; c != this.start; c = this.cameFrom[c]) {
+        this.onPath[c >>> 6] |= 1L << c;
+      }
+      this.onPath[this.start >>> 6] |= 1L << this.start;
+      return;
+    }
+    int nextCost = this.cost == null ? 0 : this.cost[cell] + 1;
+    for (int k = 0; k < this.board.maxDegree(); k += 1) {
+      int next = this.board.openNeighbor(cell, k);
+      if (next >= 0) {
+        this.reach(next, cell, nextCost);
+      }
+    }
+  }
+
+  // EFFECT: puts the given cell on the frontier, reached from the given cell
+  // with a path of the given length, unless it has been reached already
+  // (for A*, a shorter path to a cell still in the heap moves it up)
+  void reach(int cell, int from, int pathCost) {
+    if (this.algorithm == MazeSolver.ASTAR) {
+      if (this.isReached(cell)) {
+        if (this.heapIndex[cell] >= 0 && pathCost < this.cost[cell]) {
+          this.cost[cell] = pathCost;
+          this.priority[cell] = this.estimate(cell);
+          this.cameFrom[cell] = from;
+          this.siftUp(this.heapIndex[cell]);
+        }
+        return;
+      }
+      this.cost[cell] = pathCost;
+      this.priority[cell] = this.estimate(cell);
+    }
+    else if (this.isReached(cell)) {
+      return;
+    }
+    this.reached[cell >>> 6] |= 1L << cell;
+    this.cameFrom[cell] = from;
+    if (this.algorithm == MazeSolver.BFS) {
+      this.frontier[this.tail] = cell;
+      this.tail += 1;
+    }
+    else if (this.algorithm == MazeSolver.DFS) {
+      this.frontier[this.size] = cell;
+      this.size += 1;
+    }
+    else {
+      this.frontier[this.size] = cell;
+      this.heapIndex[cell] = this.size;
+      this.size += 1;
+      this.siftUp(this.size - 1);
+    }
+  }
+
+  // returns true if there are no cells waiting to be looked at
+  boolean isFrontierEmpty() {
+    if (this.algorithm == MazeSolver.BFS) {
+      return this.head == this.tail;
+    }
+    return this.size == 0;
+  }
+
+  // EFFECT: takes the next cell to look at off the frontier
+  // returns that cell
+  int takeNext() {
+    if (this.algorithm == MazeSolver.BFS) {
+      this.head += 1;
+      return this.frontier[this.head - 1];
+    }
+    else if (this.algorithm == MazeSolver.DFS) {
+      this.size -= 1;
+      return this.frontier[this.size];
+    }
+    int cell = this.frontier[0];
+    this.heapIndex[cell] = -1;
+    this.size -= 1;
+    if (this.size > 0) {
+      this.frontier[0] = this.frontier[this.size];
+      this.heapIndex[this.frontier[0]] = 0;
+      this.siftDown(0);
+    }
+    return cell;
+  }
+
+  // returns the estimated length of a path from start to goal through the
+  // given cell: the path so far plus the fewest passages to the goal the
+  // board allows (the manhattan distance on a MazeGrid)
+  int estimate(int cell) {
+    return this.cost[cell] + this.board.minSteps(cell, this.goal);
+  }
+
+  // EFFECT: moves the cell at the given index of the heap up until its
+  // parent's priority is no bigger
+  void siftUp(int index) {
+    int cell = this.frontier[index];
+    int key = this.priority[cell];
+    while (index > 0) {
+      int parentIndex = (index - 1) >>> 1;
+      int parentCell = this.frontier[parentIndex];
+      if (this.priority[parentCell] <= key) {
+        break;
+      }
+      this.frontier[index] = parentCell;
+      this.heapIndex[parentCell] = index;
+      index = parentIndex;
+    }
+    this.frontier[index] = cell;
+    this.heapIndex[cell] = index;
+  }
+
+  // EFFECT: moves the cell at the given index of the heap down until neither
+  // child's priority is smaller
+  void siftDown(int index) {
+    int cell = this.frontier[index];
+    int key = this.priority[cell];
+    while (2 * index + 1 < this.size) {
+      int child = 2 * index + 1;
+      if (child + 1 < this.size
+          && this.priority[this.frontier[child + 1]] < this.priority[this.frontier[child]]) {
+        child += 1;
+      }
+      if (this.priority[this.frontier[child]] >= key) {
+        break;
+      }
+      this.frontier[index] = this.frontier[child];
+      this.heapIndex[this.frontier[index]] = index;
+      index = child;
+    }
+    this.frontier[index] = cell;
+    this.heapIndex[cell] = index;
+  }
+}
@@ -0,0 +1,17 @@
+// the size and seed of a maze to make
+class MazeSpec {
+  int width;
+  int height;
+  long seed;
+
+  MazeSpec(int width, int height, long seed) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+  }
+
+  // returns a name for the maze that is different for every spec
+  public String toString() {
+    return this.width + "x" + this.height + "-" + this.seed;
+  }
+}
@@ -0,0 +1,21 @@
+// where the passage bits of a MazeGrid are kept, as 64 bit words
+// the grid reads and writes every bit through this, so the same maze code
+// works on bits kept on the heap or kept off of it
+interface MazeStorage {
+  // returns how many words there are
+  int wordCount();
+
+  // returns the word at the given index
+  long getWord(int index);
+
+  // EFFECT: sets the word at the given index
+  void setWord(int index, long value);
+
+  // EFFECT: sets the given bits of the word at the given index, safe to call
+  // from many threads at once
+  void orWordAtomically(int index, long bits);
+
+  // EFFECT: makes sure every word written so far is in the file behind this
+  // storage, if there is one
+  void flush();
+}
@@ -0,0 +1,23 @@
+// the shape of the board a maze is made on: which cells there are and which
+// cells are next to each other, worked out from a cell's number instead of
+// being kept for every cell
+// the cells are numbered 0 .. cellCount() - 1, and every cell has up to
+// maxDegree() neighbors, neighbor k of a cell being -1 where there is none
+// being next to each other goes both ways, and no cell is next to itself or
+// next to another cell twice
+interface MazeTopology {
+  // returns how many cells there are
+  int cellCount();
+
+  // returns the most neighbors a cell can have
+  int maxDegree();
+
+  // returns neighbor k of the given cell, or -1 if it has no neighbor k
+  int neighbor(int cell, int k);
+
+  // returns where the center of the given cell is drawn, in cells across
+  // and down
+  double centerX(int cell);
+
+  double centerY(int cell);
+}
@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+// checks that a maze is perfect: a spanning tree of its grid, with exactly
+// one way between any two cells
+// a MazeGrid is cut into stripes of whole rows that are checked in parallel,
+// each with its own union-find over just its cells, then the passages
+// between stripes join the stripes' sets up on one thread, in a union-find
+// over just the top and bottom rows of every stripe
+class MazeValidator {
+  // about how many cells are in a stripe
+  static final int STRIPE_CELLS = 1 << 16;
+
+  // the pool to run on, or null to make one of this.parallelism threads for
+  // every check and shut it down after
+  ForkJoinPool pool;
+  int parallelism;
+
+  MazeValidator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  // uses a pool with the given number of threads, made for each check and
+  // shut down once it is done, like ParallelMazeGenerator
+  MazeValidator(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Cannot run on " + parallelism + " threads");
+    }
+    this.parallelism = parallelism;
+  }
+
+  // uses the common pool, which has a thread for every core
+  MazeValidator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  // returns what is in the given maze: its passages, parts, loops and any
+  // bits set for passages off the edge of the grid
+  MazeCheck check(MazeGrid grid) {
+    int rowsPerStripe = Math.max(1, STRIPE_CELLS / Math.max(1, grid.width));
+    int stripes = (grid.height + rowsPerStripe - 1) / rowsPerStripe;
+    StripeChecks checks = new StripeChecks(grid, rowsPerStripe, stripes);
+    ForkJoinPool pool = this.pool == null ? new ForkJoinPool(this.parallelism) : this.pool;
+    try {
+      pool.invoke(new CheckStripes(checks, 0, stripes));
+    }
+    finally {
+      if (this.pool == null) {
+        pool.shutdown();
+      }
+    }
+    MazeCheck result = new MazeCheck(grid.cellCount());
+    long unions = 0;
+    for (int s = 0; s < stripes; s += 1) {
+      result.passages += checks.passages[s];
+      result.cycles += checks.cycles[s];
+      result.strayLinks += checks.strayLinks[s];
+      unions += checks.unions[s];
+    }
+    // the stripes' sets, as their top and bottom rows see them, joined by
+    // the passages down from the last row of each stripe
+    int across = StripeChecks.seamCells(grid.width, rowsPerStripe);
+    UnionFind joined = new UnionFind(across * stripes);
+    for (int s = 0; s < stripes; s += 1) {
+      for (int k = 0; k < across; k += 1) {
+        joined.union(s * across + k, s * across + checks.seams[s][k]);
+      }
+    }
+    for (int s = 0; s + 1 < stripes; s += 1) {
+      int y = (s + 1) * rowsPerStripe - 1;
+      for (int x = 0; x < grid.width; x += 1) {
+        if (grid.getBit(grid.cell(x, y), 1)) {
+          result.passages += 1;
+          int above = s * across + across - grid.width + x;
+          int below = (s + 1) * across + x;
+          if (joined.union(above, below)) {
+            unions += 1;
+          }
+          else {
+            result.cycles += 1;
+          }
+        }
+      }
+    }
+    // the bits after the last cell are never passages
+    long bits = 2L * grid.cellCount();
+    for (long b = bits; b < 64L * grid.bits.wordCount(); b += 1) {
+      if ((grid.bits.getWord((int) (b >>> 6)) & (1L << b)) != 0) {
+        result.strayLinks += 1;
+      }
+    }
+    result.components = grid.cellCount() - unions;
+    return result;
+  }
+
+  // EFFECT: checks the given stripe of the grid, counting what it finds into checks
+  static void checkStripe(StripeChecks checks, int s) {
+    MazeGrid grid = checks.grid;
+    int top = s * checks.rowsPerStripe;
+    int bottom = Math.min(grid.height, top + checks.rowsPerStripe);
+    UnionFind sets = new UnionFind((bottom - top) * grid.width);
+    long passages = 0;
+    long cycles = 0;
+    long strayLinks = 0;
+    long unions = 0;
+    for (int y = top; y < bottom; y += 1) {
+      for (int x = 0; x < grid.width; x += 1) {
+        int cell = grid.cell(x, y);
+        int local = (y - top) * grid.width + x;
+        if (grid.getBit(cell, 0)) {
+          if (x + 1 == grid.width) {
+            strayLinks += 1;
+          }
+          else if (sets.union(local, local + 1)) {
+            passages += 1;
+            unions += 1;
+          }
+          else {
+            passages += 1;
+            cycles += 1;
+          }
+        }
+        // passages down out of the stripe are left for check to join up
+        if (grid.getBit(cell, 1)) {
+          if (y + 1 == grid.height) {
+            strayLinks += 1;
+          }
+          else if (y + 1 < bottom) {
+            passages += 1;
+            if (sets.union(local, local + grid.width)) {
+              unions += 1;
+            }
+            else {
+              cycles += 1;
+            }
+          }
+        }
+      }
+    }
+    checks.seams[s] = MazeValidator.seamSets(sets, grid.width, checks.rowsPerStripe,
+        bottom - top);
+    checks.passages[s] = passages;
+    checks.cycles[s] = cycles;
+    checks.strayLinks[s] = strayLinks;
+    checks.unions[s] = unions;
+  }
+
+  // returns the set of every cell of the top row and then the bottom row of
+  // a stripe of the given width and rows, as the first of those cells in the
+  // same set, out of the given sets of the stripe (a stripe of one row has
+  // only the one row)
+  static int[] seamSets(UnionFind sets, int width, int rowsPerStripe, int rows) {
+    int across = StripeChecks.seamCells(width, rowsPerStripe);
+    // the cells sorted by their representative, then by where they are
+    long[] byRoot = new long[across];
+    for (int k = 0; k < across; k += 1) {
+      int local = k < width ? k : (rows - 1) * width + k - width;
+      byRoot[k] = (long) sets.find(local) << 32 | k;
+    }
+    Arrays.sort(byRoot);
+    int[] seams = new int[across];
+    int first = 0;
+    for (int k = 0; k < across; k += 1) {
+      if (k == 0 || byRoot[k] >>> 32 != byRoot[k - 1] >>> 32) {
+        first = (int) byRoot[k];
+      }
+      seams[(int) byRoot[k]] = first;
+    }
+    return seams;
+  }
+
+  // returns what is in the given maze, walked a cell at a time on this thread
+  // through the ways out of every cell, for a maze kept some other way than
+  // a MazeGrid (like a MazeGraph): a passage has to be open from both of its
+  // ends, and one open from only one end is a stray link
+  MazeCheck check(MazeBoard board) {
+    MazeCheck result = new MazeCheck(board.cellCount());
+    UnionFind sets = new UnionFind(board.cellCount());
+    for (int cell = 0; cell < board.cellCount(); cell += 1) {
+      for (int k = 0; k < board.maxDegree(); k += 1) {
+        int next = board.openNeighbor(cell, k);
+        if (next < 0) {
+          continue;
+        }
+        if (board.openNeighbor(next, board.backWay(cell, k)) != cell) {
+          result.strayLinks += 1;
+        }
+        else if (next < cell) {
+          result.passages += 1;
+          if (!sets.union(cell, next)) {
+            result.cycles += 1;
+          }
+        }
+      }
+    }
+    result.components = sets.count;
+    return result;
+  }
+
+  // returns what is in the given Node board, where an edge has to join two
+  // nodes next to each other on the board (and every edge is in the
+  // outedges of both of its nodes)
+  MazeCheck check(ArrayList<ArrayList<Node>> board) {
+    IdentityHashMap<Node, Integer> ids = new IdentityHashMap<Node, Integer>();
+    int width = board.isEmpty() ? 0 : board.get(0).size();
+    for (int y = 0; y < board.size(); y += 1) {
+      for (int x = 0; x < board.get(y).size(); x += 1) {
+        ids.put(board.get(y).get(x), y * width + x);
+      }
+    }
+    MazeCheck result = new MazeCheck(ids.size());
+    UnionFind sets = new UnionFind(ids.size());
+    for (ArrayList<Node> row : board) {
+      for (Node n : row) {
+        for (Edge e : n.outedges) {
+          if (e.from != n) {
+            // counted from the other end
+            continue;
+          }
+          Integer from = ids.get(e.from);
+          Integer to = ids.get(e.to);
+          int distance = to == null ? -1
+              : Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+          if (distance != 1) {
+            result.strayLinks += 1;
+          }
+          else if (sets.union(from, to)) {
+            result.passages += 1;
+          }
+          else {
+            result.passages += 1;
+            result.cycles += 1;
+          }
+        }
+      }
+    }
+    result.components = sets.count;
+    return result;
+  }
+}
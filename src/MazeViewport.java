@@ -0,0 +1,338 @@
+import java.awt.Color;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javalib.impworld.*;
+import javalib.worldimages.*;
+
+// represents a window onto a maze that may be far bigger than the window
+// the maze is cut into square tiles of TILE_CELLS cells on a side (at the
+// current zoom), each tile is drawn the first time it is seen and kept,
+// and only the tiles the window overlaps are placed in a scene,
+// so the cost of a frame depends on the size of the window, not the maze
+class MazeViewport {
+  // how many cells (or blocks of cells, when zoomed out) are on a side of a tile
+  static final int TILE_CELLS = 64;
+  // the most pixels a cell can take up when zoomed in
+  static final int MAX_PIXELS_PER_CELL = 64;
+  // the bits a tile's column or row takes up in its key, see tileKey
+  static final long TILE_INDEX_MASK = (1L << 25) - 1;
+  // the shades a block of cells is drawn in when zoomed out, from no walls
+  // (gray) to all walls (black)
+  static final Color[] SHADES = MazeViewport.makeShades(16);
+
+  MazeGame game;
+  // the size of the window, in pixels
+  int windowWidth;
+  int windowHeight;
+  // the pixel of the whole maze (at the current zoom) at the top left of the window
+  int scrollX;
+  int scrollY;
+  // at most one of these is more than 1: either each cell is pixelsPerCell
+  // pixels on a side, or each pixel stands for cellsPerPixel cells on a side
+  int pixelsPerCell;
+  int cellsPerPixel;
+  // the tiles drawn so far, least recently used first
+  LinkedHashMap<Long, ComputedPixelImage> tiles;
+  // what the tiles were drawn from, to tell when they are out of date
+  MazeGrid tileGrid;
+  int tileVersion;
+  // how many tiles were reused and drawn
+  int tileHits;
+  int tileMisses;
+
+  MazeViewport(MazeGame game, int windowWidth, int windowHeight) {
+    if (windowWidth <= 0 || windowHeight <= 0) {
+      throw new IllegalArgumentException(
+          "A window cannot be " + windowWidth + " by " + windowHeight + " pixels");
+    }
+    this.game = game;
+    this.windowWidth = windowWidth;
+    this.windowHeight = windowHeight;
+    this.pixelsPerCell = Math.max(1, Math.min(MazeViewport.MAX_PIXELS_PER_CELL, game.squareSize));
+    this.cellsPerPixel = 1;
+    this.scrollX = 0;
+    this.scrollY = 0;
+    // enough tiles to cover the window a few times over before evicting
+    final int maxTiles = 4 * (windowWidth / MazeViewport.TILE_CELLS + 2)
+        * (windowHeight / MazeViewport.TILE_CELLS + 2);
+    this.tiles = new LinkedHashMap<Long, ComputedPixelImage>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, ComputedPixelImage> eldest) {
+        return this.size() > maxTiles;
+      }
+    };
+  }
+
+  // returns the gray to black shades used to draw blocks of cells
+  static Color[] makeShades(int count) {
+    Color[] shades = new Color[count];
+    for (int i = 0; i < count; i += 1) {
+      int level = Color.gray.getRed() * (count - 1 - i) / (count - 1);
+      shades[i] = new Color(level, level, level);
+    }
+    return shades;
+  }
+
+  // returns the width of the whole maze in pixels at the current zoom
+  int mazePixelWidth() {
+    return this.scaled(this.game.grid.width);
+  }
+
+  // returns the height of the whole maze in pixels at the current zoom
+  int mazePixelHeight() {
+    return this.scaled(this.game.grid.height);
+  }
+
+  // returns how many pixels the given number of cells takes at the current zoom
+  int scaled(int cells) {
+    return (int) Math.min(Integer.MAX_VALUE,
+        ((long) cells + this.cellsPerPixel - 1) / this.cellsPerPixel * this.pixelsPerCell);
+  }
+
+  // returns how many pixels a tile is on a side
+  int tilePixels() {
+    return MazeViewport.TILE_CELLS * this.pixelsPerCell;
+  }
+
+  // EFFECT: moves the window by the given number of pixels, keeping it over the maze
+  void scroll(int dx, int dy) {
+    this.scrollX = Math.max(0,
+        Math.min(this.mazePixelWidth() - this.windowWidth, this.scrollX + dx));
+    this.scrollY = Math.max(0,
+        Math.min(this.mazePixelHeight() - this.windowHeight, this.scrollY + dy));
+  }
+
+  // EFFECT: doubles the zoom, keeping the middle of the window where it is
+  void zoomIn() {
+    if (this.cellsPerPixel > 1) {
+      this.rezoom(this.pixelsPerCell, this.cellsPerPixel / 2);
+    }
+    else if (this.pixelsPerCell < MazeViewport.MAX_PIXELS_PER_CELL) {
+      this.rezoom(this.pixelsPerCell * 2, 1);
+    }
+  }
+
+  // EFFECT: halves the zoom, keeping the middle of the window where it is,
+  // down to where the whole maze fits in one tile
+  void zoomOut() {
+    if (this.pixelsPerCell > 1) {
+      this.rezoom(this.pixelsPerCell / 2, 1);
+    }
+    else if (this.mazePixelWidth() > MazeViewport.TILE_CELLS
+        || this.mazePixelHeight() > MazeViewport.TILE_CELLS) {
+      this.rezoom(1, this.cellsPerPixel * 2);
+    }
+  }
+
+  // EFFECT: switches to the given zoom, keeping the cell in the middle of the
+  // window in the middle
+  void rezoom(int newPixelsPerCell, int newCellsPerPixel) {
+    double midCellX = (this.scrollX + this.windowWidth / 2.0) * this.cellsPerPixel
+        / this.pixelsPerCell;
+    double midCellY = (this.scrollY + this.windowHeight / 2.0) * this.cellsPerPixel
+        / this.pixelsPerCell;
+    this.pixelsPerCell = newPixelsPerCell;
+    this.cellsPerPixel = newCellsPerPixel;
+    this.scrollX = (int) (midCellX * this.pixelsPerCell / this.cellsPerPixel)
+        - this.windowWidth / 2;
+    this.scrollY = (int) (midCellY * this.pixelsPerCell / this.cellsPerPixel)
+        - this.windowHeight / 2;
+    this.scroll(0, 0);
+  }
+
+  // EFFECT: scrolls or zooms for the arrow keys and + and -
+  void onKeyEvent(String key) {
+    int step = this.windowWidth / 8 + 1;
+    if (key.equals("left")) {
+      this.scroll(-step, 0);
+    }
+    else if (key.equals("right")) {
+      this.scroll(step, 0);
+    }
+    else if (key.equals("up")) {
+      this.scroll(0, -step);
+    }
+    else if (key.equals("down")) {
+      this.scroll(0, step);
+    }
+    else if (key.equals("+") || key.equals("=")) {
+      this.zoomIn();
+    }
+    else if (key.equals("-")) {
+      this.zoomOut();
+    }
+  }
+
+  // EFFECT: places every tile the window overlaps onto the given scene
+  // returns how many tiles were placed
+  int draw(WorldScene scene) {
+    this.checkTiles();
+    int tilePixels = this.tilePixels();
+    int firstCol = this.scrollX / tilePixels;
+    int firstRow = this.scrollY / tilePixels;
+    // the last pixel in the window, not the first one past it
+    int lastCol = Math.min(this.scrollX + this.windowWidth - 1, this.mazePixelWidth() - 1)
+        / tilePixels;
+    int lastRow = Math.min(this.scrollY + this.windowHeight - 1, this.mazePixelHeight() - 1)
+        / tilePixels;
+    for (int row = firstRow; row <= lastRow; row += 1) {
+      for (int col = firstCol; col <= lastCol; col += 1) {
+        ComputedPixelImage tile = this.getTile(col, row);
+        scene.placeImageXY(tile, col * tilePixels - this.scrollX + (int) tile.getWidth() / 2,
+            row * tilePixels - this.scrollY + (int) tile.getHeight() / 2);
+      }
+    }
+    return (lastRow - firstRow + 1) * (lastCol - firstCol + 1);
+  }
+
+  // EFFECT: forgets every tile if the maze changed since they were drawn
+  void checkTiles() {
+    if (this.tileGrid != this.game.grid || this.tileVersion != this.game.grid.version) {
+      this.tiles.clear();
+      this.tileGrid = this.game.grid;
+      this.tileVersion = this.game.grid.version;
+    }
+  }
+
+  // EFFECT: forgets just the tiles (at any zoom) that show any of the w by h
+  // cells with the given top left corner, when those cells are all that
+  // changed since the maze was at the given version, otherwise forgets
+  // every tile as checkTiles would
+  void invalidateCells(int x0, int y0, int w, int h, int oldVersion) {
+    if (this.tileGrid != this.game.grid || this.tileVersion != oldVersion) {
+      this.checkTiles();
+      return;
+    }
+    Iterator<Long> keys = this.tiles.keySet().iterator();
+    while (keys.hasNext()) {
+      long key = keys.next();
+      // undoes the key made by tileKey
+      long cellsPerTile = (long) MazeViewport.TILE_CELLS << ((key >>> 50) & 0x1F);
+      long left = (key & TILE_INDEX_MASK) * cellsPerTile;
+      long top = ((key >>> 25) & TILE_INDEX_MASK) * cellsPerTile;
+      if (left < x0 + w && x0 < left + cellsPerTile && top < y0 + h && y0 < top + cellsPerTile) {
+        keys.remove();
+      }
+    }
+    this.tileVersion = this.game.grid.version;
+  }
+
+  // EFFECT: forgets just the tiles (at any zoom) that show any of the first
+  // count of the given cells, when those cells are all that changed since
+  // the maze was at the given version, otherwise forgets every tile as
+  // checkTiles would
+  void invalidateCells(int[] cells, int count, int oldVersion) {
+    if (this.tileGrid != this.game.grid || this.tileVersion != oldVersion) {
+      this.checkTiles();
+      return;
+    }
+    // the zooms there are tiles at, as the bits of their keys above the
+    // column and the row
+    HashSet<Long> zooms = new HashSet<Long>();
+    for (long key : this.tiles.keySet()) {
+      zooms.add(key >>> 50);
+    }
+    int width = this.game.grid.width;
+    for (long zoom : zooms) {
+      long cellsPerTile = (long) MazeViewport.TILE_CELLS << (zoom & 0x1F);
+      for (int k = 0; k < count && !this.tiles.isEmpty(); k += 1) {
+        long col = cells[k] % width / cellsPerTile;
+        long row = cells[k] / width / cellsPerTile;
+        this.tiles.remove(zoom << 50 | row << 25 | col);
+      }
+    }
+    this.tileVersion = this.game.grid.version;
+  }
+
+  // returns the key the tile at the given column and row of tiles is kept
+  // under at the current zoom: the column and the row in 25 bits each, which
+  // is enough for any board (under 2^31 cells a side over 64 cells a tile),
+  // then the power of 2 cellsPerPixel is in 5 bits and pixelsPerCell above
+  // it, so no two tiles share a key
+  long tileKey(int col, int row) {
+    return ((long) this.pixelsPerCell << 55)
+        | ((long) Integer.numberOfTrailingZeros(this.cellsPerPixel) << 50)
+        | ((long) row << 25) | col;
+  }
+
+  // returns the tile at the given column and row of tiles, drawing it if it
+  // has not been drawn at the current zoom or was evicted
+  ComputedPixelImage getTile(int col, int row) {
+    long key = this.tileKey(col, row);
+    ComputedPixelImage tile = this.tiles.get(key);
+    if (tile != null) {
+      this.tileHits += 1;
+    }
+    else {
+      this.tileMisses += 1;
+      tile = this.renderTile(col, row);
+      this.tiles.put(key, tile);
+    }
+    return tile;
+  }
+
+  // returns a new drawing of the tile at the given column and row of tiles
+  ComputedPixelImage renderTile(int col, int row) {
+    MazeGrid grid = this.game.grid;
+    // the tile's top left, and how far it goes, in cells or blocks of cells
+    int unitsAcross = (grid.width + this.cellsPerPixel - 1) / this.cellsPerPixel;
+    int unitsDown = (grid.height + this.cellsPerPixel - 1) / this.cellsPerPixel;
+    int left = col * MazeViewport.TILE_CELLS;
+    int top = row * MazeViewport.TILE_CELLS;
+    int across = Math.min(MazeViewport.TILE_CELLS, unitsAcross - left);
+    int down = Math.min(MazeViewport.TILE_CELLS, unitsDown - top);
+    ComputedPixelImage tile = new ComputedPixelImage(across * this.pixelsPerCell,
+        down * this.pixelsPerCell);
+    for (int i = 0; i < down; i += 1) {
+      for (int j = 0; j < across; j += 1) {
+        if (this.cellsPerPixel == 1) {
+          this.game.paintCell(tile, left + j, top + i, j * this.pixelsPerCell,
+              i * this.pixelsPerCell, this.pixelsPerCell);
+        }
+        else {
+          tile.setPixel(j, i, this.blockColor((left + j) * this.cellsPerPixel,
+              (top + i) * this.cellsPerPixel));
+        }
+      }
+    }
+    return tile;
+  }
+
+  // returns the color of the block of cellsPerPixel cells on a side whose top
+  // left is at column x and row y: green or magenta if it holds the start or
+  // the goal, otherwise darker the more of its cells have walls, looking at
+  // no more than 8 by 8 of its cells
+  Color blockColor(int x, int y) {
+    MazeGrid grid = this.game.grid;
+    int endX = Math.min(grid.width, x + this.cellsPerPixel);
+    int endY = Math.min(grid.height, y + this.cellsPerPixel);
+    if (x == 0 && y == 0) {
+      return Color.green;
+    }
+    if (endX == grid.width && endY == grid.height) {
+      return Color.magenta;
+    }
+    int stride = Math.max(1, this.cellsPerPixel / 8);
+    int walls = 0;
+    int sides = 0;
+    for (int i = y; i < endY; i += stride) {
+      for (int j = x; j < endX; j += stride) {
+        if (j > 0) {
+          sides += 1;
+          walls += grid.isOpen(j, i, MazeGrid.LEFT) ? 0 : 1;
+        }
+        if (i > 0) {
+          sides += 1;
+          walls += grid.isOpen(j, i, MazeGrid.UP) ? 0 : 1;
+        }
+      }
+    }
+    if (sides == 0) {
+      return MazeViewport.SHADES[0];
+    }
+    return MazeViewport.SHADES[walls * (MazeViewport.SHADES.length - 1) / sides];
+  }
+}
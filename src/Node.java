@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+
+// represents a node that is connected by a list of edges
+class Node {
+
+  // We are aware there probably should be more fields in Node
+  // but for now, we are just focused on creating the Maze itself
+  ArrayList<Edge> outedges;
+  // this node's index in its board, used as its id in the union-find
+  int id;
+
+  Node(ArrayList<Edge> outedges) {
+    this.outedges = outedges;
+  }
+
+  // empty constructor if the constructed Node has no edges
+  Node() {
+    this.outedges = new ArrayList<Edge>();
+  }
+
+  // constructor for a Node with no edges at the given index of its board
+  Node(int id) {
+    this();
+    this.id = id;
+  }
+
+  // EFFECT:connects this Node to the given Node through an edge
+  // of the given weight
+  // returns the edge that was created to connect the two nodes
+  public Edge connect(Node other, int weight) {
+    Edge temp = new Edge(this, other, weight);
+    this.outedges.add(temp);
+    other.outedges.add(temp);
+    return temp;
+  }
+
+  // returns true if this node is connected to the given node
+  // through any of its outedges
+  public boolean isConnected(Node other) {
+    for (Edge e : this.outedges) {
+      if (e.connectsThisToThat(this, other)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // removes the given edge from this.outedges
+  public void remove(Edge e) {
+    this.outedges.remove(e);
+  }
+}
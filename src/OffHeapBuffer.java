@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// a run of bytes off the heap that can be longer than one ByteBuffer can
+// hold, kept as ByteBuffers of CHUNK_BYTES each (the last may be shorter)
+// ints and longs are little endian, and never cross from one chunk into the
+// next as long as they are at offsets that are a multiple of their size
+class OffHeapBuffer {
+  static final int CHUNK_SHIFT = 30;
+  static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+  // lets threads set bits in the same long without losing any
+  static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+      ByteOrder.LITTLE_ENDIAN);
+
+  ByteBuffer[] chunks;
+  long size;
+
+  OffHeapBuffer(ByteBuffer[] chunks, long size) {
+    this.chunks = chunks;
+    this.size = size;
+    for (ByteBuffer chunk : chunks) {
+      chunk.order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  // returns a new buffer of the given number of bytes, all 0, in direct memory
+  static OffHeapBuffer allocateDirect(long size) {
+    ByteBuffer[] chunks = new ByteBuffer[OffHeapBuffer.chunkCount(size)];
+    for (int c = 0; c < chunks.length; c += 1) {
+      chunks[c] = ByteBuffer.allocateDirect(OffHeapBuffer.chunkSize(size, c));
+    }
+    return new OffHeapBuffer(chunks, size);
+  }
+
+  // returns the given number of bytes of the given file from the given
+  // position on, mapped into memory with the given mode
+  // the file grows to fit them if it is mapped to be written
+  static OffHeapBuffer map(FileChannel channel, FileChannel.MapMode mode, long position,
+      long size) throws IOException {
+    ByteBuffer[] chunks = new ByteBuffer[OffHeapBuffer.chunkCount(size)];
+    for (int c = 0; c < chunks.length; c += 1) {
+      chunks[c] = channel.map(mode, position + c * CHUNK_BYTES, OffHeapBuffer.chunkSize(size, c));
+    }
+    return new OffHeapBuffer(chunks, size);
+  }
+
+  // returns how many chunks it takes to hold the given number of bytes
+  static int chunkCount(long size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("A buffer cannot be " + size + " bytes");
+    }
+    return (int) ((size + CHUNK_BYTES - 1) >>> CHUNK_SHIFT);
+  }
+
+  // returns how many of the given number of bytes go in the given chunk
+  static int chunkSize(long size, int chunk) {
+    return (int) Math.min(CHUNK_BYTES, size - chunk * CHUNK_BYTES);
+  }
+
+  // returns the chunk the given offset is in
+  ByteBuffer chunk(long offset) {
+    return this.chunks[(int) (offset >>> CHUNK_SHIFT)];
+  }
+
+  // returns the given offset within its chunk
+  static int within(long offset) {
+    return (int) (offset & (CHUNK_BYTES - 1));
+  }
+
+  long getLong(long offset) {
+    return this.chunk(offset).getLong(OffHeapBuffer.within(offset));
+  }
+
+  void putLong(long offset, long value) {
+    this.chunk(offset).putLong(OffHeapBuffer.within(offset), value);
+  }
+
+  // EFFECT: sets the given bits of the long at the given offset, which has to
+  // be a multiple of 8, safe to call from many threads at once
+  void orLongAtomically(long offset, long bits) {
+    LONGS.getAndBitwiseOr(this.chunk(offset), OffHeapBuffer.within(offset), bits);
+  }
+
+  int getInt(long offset) {
+    return this.chunk(offset).getInt(OffHeapBuffer.within(offset));
+  }
+
+  void putInt(long offset, int value) {
+    this.chunk(offset).putInt(OffHeapBuffer.within(offset), value);
+  }
+
+  byte get(long offset) {
+    return this.chunk(offset).get(OffHeapBuffer.within(offset));
+  }
+
+  void put(long offset, byte value) {
+    this.chunk(offset).put(OffHeapBuffer.within(offset), value);
+  }
+
+  // EFFECT: writes every mapped chunk out to its file
+  void force() {
+    for (ByteBuffer chunk : this.chunks) {
+      if (chunk instanceof MappedByteBuffer) {
+        ((MappedByteBuffer) chunk).force();
+      }
+    }
+  }
+}
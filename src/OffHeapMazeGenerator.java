@@ -0,0 +1,161 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+// generates mazes too big for the heap with Kruskal's algo, keeping the
+// weights, the sorted edges, the union-find and the maze itself off of it,
+// either in direct memory or in files mapped into memory
+// it draws the same weights in the same order as MazeGrid.generate, so a
+// Random with the same seed gives the same maze either way
+// an edge is a slot, 2 * id for the edge up from the cell id and 2 * id + 1
+// for the edge left from it, so going through the slots in order goes
+// through the edges in the order MazeGrid.boardEdges makes them
+class OffHeapMazeGenerator {
+  // the weight of a slot with no edge in it (the edges up from the top row
+  // and left from the left column)
+  static final int NO_EDGE = 0xFF;
+
+  // where the scratch file is made, or null to keep the scratch space in
+  // direct memory
+  File scratchDirectory;
+
+  OffHeapMazeGenerator(File scratchDirectory) {
+    this.scratchDirectory = scratchDirectory;
+  }
+
+  // keeps the scratch space in direct memory
+  OffHeapMazeGenerator() {
+    this(null);
+  }
+
+  // creates a random maze with x length and y height, kept in the given file
+  // as a snapshot mapped into memory (see MazeGrid.createMapped), or in
+  // direct memory if the file is null
+  MazeGrid generate(int x, int y, Random rand, File file) throws IOException {
+    MazeGrid grid;
+    if (file == null) {
+      int words = MazeGrid.wordCount(x, y);
+      grid = new MazeGrid(x, y,
+          new OffHeapStorage(OffHeapBuffer.allocateDirect(8L * words), words));
+    }
+    else {
+      grid = MazeGrid.createMapped(file, x, y);
+    }
+    int cells = grid.cellCount();
+    long edges = Math.max(0, (x - 1L) * y) + Math.max(0, x * (y - 1L));
+    // the sorted slots, then the union-find, then a weight byte per slot, so
+    // every int is at a multiple of 4 and never crosses into the next chunk
+    long setsAt = 4L * edges;
+    long weightsAt = setsAt + OffHeapUnionFind.bytesFor(cells);
+    long size = weightsAt + 2L * cells;
+    File scratch = null;
+    OffHeapBuffer buffer;
+    if (this.scratchDirectory == null) {
+      buffer = OffHeapBuffer.allocateDirect(size);
+    }
+    else {
+      scratch = File.createTempFile("maze", ".scratch", this.scratchDirectory);
+      try (RandomAccessFile out = new RandomAccessFile(scratch, "rw");
+          FileChannel channel = out.getChannel()) {
+        buffer = OffHeapBuffer.map(channel, FileChannel.MapMode.READ_WRITE, 0, size);
+      }
+    }
+    try {
+      long[] counts = OffHeapMazeGenerator.drawWeights(buffer, weightsAt, x, y, rand);
+      OffHeapMazeGenerator.sortSlots(buffer, weightsAt, 0, cells, edges, counts);
+      OffHeapMazeGenerator.connectTree(grid, new OffHeapUnionFind(cells, buffer, setsAt), buffer,
+          0, edges);
+    }
+    finally {
+      // a mapping stays good after its file is deleted, and is let go of
+      // once nothing can reach it
+      if (scratch != null && !scratch.delete()) {
+        scratch.deleteOnExit();
+      }
+    }
+    grid.flush();
+    return grid;
+  }
+
+  // EFFECT: draws a weight for every edge of an x by y board, in the order
+  // MazeGrid.boardEdges does, into the byte of its slot from the given offset on
+  // returns how many edges got each weight
+  static long[] drawWeights(OffHeapBuffer buffer, long weightsAt, int x, int y, Random rand) {
+    long[] counts = new long[MazeGame.WEIGHT_BOUND];
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.BUILD_EDGES,
+        Math.max(0, (x - 1L) * y) + Math.max(0, x * (y - 1L)));
+    try {
+      for (int i = 0; i < y; i += 1) {
+        for (int j = 0; j < x; j += 1) {
+          long slot = 2L * (i * x + j);
+          int up = NO_EDGE;
+          int left = NO_EDGE;
+          if (i > 0) {
+            up = rand.nextInt(MazeGame.WEIGHT_BOUND);
+            counts[up] += 1;
+          }
+          if (j > 0) {
+            left = rand.nextInt(MazeGame.WEIGHT_BOUND);
+            counts[left] += 1;
+          }
+          buffer.put(weightsAt + slot, (byte) up);
+          buffer.put(weightsAt + slot + 1, (byte) left);
+        }
+      }
+      return counts;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // EFFECT: writes the slot of every edge as an int from sortedAt on, by
+  // weight and then by slot, with a counting sort like PackedEdges.sortByWeight
+  static void sortSlots(OffHeapBuffer buffer, long weightsAt, long sortedAt, int cells,
+      long edges, long[] counts) {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.SORT_EDGES, edges);
+    try {
+      // next[w] is the index the next edge of weight w goes to
+      long[] next = new long[counts.length];
+      for (int w = 1; w < counts.length; w += 1) {
+        next[w] = next[w - 1] + counts[w - 1];
+      }
+      for (long slot = 0; slot < 2L * cells; slot += 1) {
+        int w = buffer.get(weightsAt + slot) & 0xFF;
+        if (w != NO_EDGE) {
+          buffer.putInt(sortedAt + 4L * next[w], (int) slot);
+          next[w] += 1;
+        }
+      }
+    }
+    finally {
+      timer.stop();
+    }
+  }
+
+  // EFFECT: runs Kruskal's algo over the given number of sorted slots from
+  // sortedAt on, opening the passages it picks in the grid
+  static void connectTree(MazeGrid grid, UnionFind sets, OffHeapBuffer buffer, long sortedAt,
+      long edges) {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.KRUSKAL, edges);
+    try {
+      int accepted = 0;
+      long next = 0;
+      for (; accepted < grid.cellCount() - 1 && next < edges; next += 1) {
+        int slot = buffer.getInt(sortedAt + 4L * next);
+        int cell = slot >>> 1;
+        int other = (slot & 1) == 0 ? cell - grid.width : cell - 1;
+        if (sets.union(cell, other)) {
+          grid.connect(cell, other);
+          accepted += 1;
+        }
+      }
+      MazeMetrics.recordKruskal(sets, next, accepted);
+    }
+    finally {
+      timer.stop();
+    }
+  }
+}
@@ -0,0 +1,35 @@
+// passage bits kept off the heap, in direct memory or in a file mapped
+// into memory, so the garbage collector never sees them
+class OffHeapStorage implements MazeStorage {
+  OffHeapBuffer buffer;
+  int wordCount;
+
+  OffHeapStorage(OffHeapBuffer buffer, int wordCount) {
+    if (buffer.size < 8L * wordCount) {
+      throw new IllegalArgumentException(
+          "A buffer of " + buffer.size + " bytes cannot hold " + wordCount + " words");
+    }
+    this.buffer = buffer;
+    this.wordCount = wordCount;
+  }
+
+  public int wordCount() {
+    return this.wordCount;
+  }
+
+  public long getWord(int index) {
+    return this.buffer.getLong(8L * index);
+  }
+
+  public void setWord(int index, long value) {
+    this.buffer.putLong(8L * index, value);
+  }
+
+  public void orWordAtomically(int index, long bits) {
+    this.buffer.orLongAtomically(8L * index, bits);
+  }
+
+  public void flush() {
+    this.buffer.force();
+  }
+}
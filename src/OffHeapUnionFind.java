@@ -0,0 +1,88 @@
+// a union-find with its parents and ranks kept in an OffHeapBuffer instead
+// of arrays: the parent of every id as an int from the given offset (a
+// multiple of 4) on, and then the rank of every id as a byte
+class OffHeapUnionFind extends UnionFind {
+  OffHeapBuffer buffer;
+  long offset;
+  int size;
+
+  // the ids start out each in a set of their own, whatever was in the buffer
+  OffHeapUnionFind(int size, OffHeapBuffer buffer, long offset) {
+    super(0);
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative: " + size);
+    }
+    if (buffer.size < offset + OffHeapUnionFind.bytesFor(size)) {
+      throw new IllegalArgumentException("A buffer of " + buffer.size + " bytes cannot hold "
+          + size + " ids from " + offset + " on");
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+    this.size = size;
+    this.count = size;
+    for (int i = 0; i < size; i += 1) {
+      this.setParent(i, i);
+      this.buffer.put(this.rankAt(i), (byte) 0);
+    }
+  }
+
+  // returns how many bytes the parents and ranks of the given number of ids take up
+  static long bytesFor(int size) {
+    return 5L * size;
+  }
+
+  @Override
+  int size() {
+    return this.size;
+  }
+
+  int parent(int id) {
+    return this.buffer.getInt(this.offset + 4L * id);
+  }
+
+  void setParent(int id, int parent) {
+    this.buffer.putInt(this.offset + 4L * id, parent);
+  }
+
+  // returns where the rank of the given id is in the buffer
+  long rankAt(int id) {
+    return this.offset + 4L * this.size + id;
+  }
+
+  @Override
+  int find(int id) {
+    int root = id;
+    while (this.parent(root) != root) {
+      root = this.parent(root);
+    }
+    while (this.parent(id) != root) {
+      int next = this.parent(id);
+      this.setParent(id, root);
+      id = next;
+    }
+    return root;
+  }
+
+  @Override
+  boolean union(int id1, int id2) {
+    int rep1 = this.find(id1);
+    int rep2 = this.find(id2);
+    if (rep1 == rep2) {
+      return false;
+    }
+    byte rank1 = this.buffer.get(this.rankAt(rep1));
+    byte rank2 = this.buffer.get(this.rankAt(rep2));
+    if (rank1 < rank2) {
+      this.setParent(rep1, rep2);
+    }
+    else if (rank1 > rank2) {
+      this.setParent(rep2, rep1);
+    }
+    else {
+      this.setParent(rep1, rep2);
+      this.buffer.put(this.rankAt(rep2), (byte) (rank2 + 1));
+    }
+    this.count -= 1;
+    return true;
+  }
+}
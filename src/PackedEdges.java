@@ -0,0 +1,68 @@
+// represents a list of edges between numbered nodes as parallel arrays,
+// so a board's worth of edges is three int arrays instead of an Edge per edge
+class PackedEdges {
+  // the edge at index i goes from from[i] to to[i] and costs weight[i]
+  int[] from;
+  int[] to;
+  int[] weight;
+  // how many edges are in the list
+  int size;
+
+  PackedEdges(int capacity) {
+    this.from = new int[capacity];
+    this.to = new int[capacity];
+    this.weight = new int[capacity];
+    this.size = 0;
+  }
+
+  // EFFECT: adds an edge between the two given node ids to the end of this list
+  void add(int from, int to, int weight) {
+    if (this.size == this.from.length) {
+      throw new IllegalStateException("This edge list is full: " + this.size);
+    }
+    this.from[this.size] = from;
+    this.to[this.size] = to;
+    this.weight[this.size] = weight;
+    this.size += 1;
+  }
+
+  // EFFECT: sorts the edges by weight with a counting sort, given that every
+  // weight is between 0 (inclusive) and bound (exclusive)
+  // the sort is stable, so it puts edges in the same order as sorting
+  // Edges with CompareByWeight would
+  void sortByWeight(int bound) {
+    PhaseTimer timer = PhaseTimer.start(MazeMetrics.SORT_EDGES, this.size);
+    try {
+      // counts[w + 1] starts as the number of edges of weight w, then becomes
+      // the index the first edge of weight w + 1 goes to
+      int[] counts = new int[bound + 1];
+      for (int i = 0; i < this.size; i += 1) {
+        int w = this.weight[i];
+        if (w < 0 || w >= bound) {
+          throw new IllegalArgumentException(
+              "Weight " + w + " is not between 0 and " + bound + " for a counting sort");
+        }
+        counts[w + 1] += 1;
+      }
+      for (int w = 1; w <= bound; w += 1) {
+        counts[w] += counts[w - 1];
+      }
+      int[] sortedFrom = new int[this.from.length];
+      int[] sortedTo = new int[this.to.length];
+      int[] sortedWeight = new int[this.weight.length];
+      for (int i = 0; i < this.size; i += 1) {
+        int dest = counts[this.weight[i]];
+        counts[this.weight[i]] += 1;
+        sortedFrom[dest] = this.from[i];
+        sortedTo[dest] = this.to[i];
+        sortedWeight[dest] = this.weight[i];
+      }
+      this.from = sortedFrom;
+      this.to = sortedTo;
+      this.weight = sortedWeight;
+    }
+    finally {
+      timer.stop();
+    }
+  }
+}
@@ -0,0 +1,331 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// generates mazes with Kruskal's algo on many cores at once
+// the board is cut into square tiles of TILE cells on a side, every tile
+// gets its own SplittableRandom split off the seed in order and runs
+// Kruskal's algo on the edges inside it in parallel, each with its own
+// union-find, which filters out every edge that closes a loop inside its
+// tile: such an edge is the heaviest on that loop, so it cannot be in the
+// tree of the whole board either
+// what is left of the tiles (their spanning trees) and the edges between
+// tiles then go through Kruskal's algo together, so the passages between
+// tiles are picked as freely as the ones inside them. Only the part of a
+// tile's tree that joins its seam cells can take part in a loop through a
+// seam, so each tile opens the rest of its tree itself, in parallel, and
+// cuts the part left down to one passage per path between seam or branch
+// cells (the heaviest on it, the only one a loop could leave out). That
+// leaves the Kruskal's algo done on one core with about 2 of every 100 cells
+// of the board (for a whole tile) instead of all of them, and it still
+// comes out with the same maze as running it on everything
+// the tiles never depend on how many threads there are, so a seed always
+// gives the same maze (though not the same maze as MazeGrid.generate,
+// which draws its weights from one Random in order)
+class ParallelMazeGenerator {
+  // how many cells are on a side of a tile
+  static final int TILE = 256;
+
+  // the pool to run on, or null to make one of this.parallelism threads for
+  // every maze and shut it down after
+  ForkJoinPool pool;
+  int parallelism;
+
+  ParallelMazeGenerator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  // uses a pool with the given number of threads, made for each maze and
+  // shut down once it is done, so nothing is left running
+  ParallelMazeGenerator(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Cannot run on " + parallelism + " threads");
+    }
+    this.parallelism = parallelism;
+  }
+
+  // uses the common pool, which has a thread for every core
+  ParallelMazeGenerator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  // creates a random maze with the given width and height from the given seed
+  MazeGrid generate(int width, int height, long seed) {
+    MazeGrid grid = new MazeGrid(width, height);
+    int tilesAcross = (width + TILE - 1) / TILE;
+    int tilesDown = (height + TILE - 1) / TILE;
+    SplittableRandom root = new SplittableRandom(seed);
+    SplittableRandom[] tileRandoms = new SplittableRandom[tilesAcross * tilesDown];
+    for (int t = 0; t < tileRandoms.length; t += 1) {
+      tileRandoms[t] = root.split();
+    }
+    TileTree[] trees = new TileTree[tileRandoms.length];
+    ForkJoinPool pool = this.pool == null ? new ForkJoinPool(this.parallelism) : this.pool;
+    try {
+      pool.invoke(new GenerateTiles(grid, trees, tileRandoms, tilesAcross, 0,
+          tileRandoms.length));
+    }
+    finally {
+      if (this.pool == null) {
+        pool.shutdown();
+      }
+    }
+    this.joinTiles(grid, trees, tilesAcross, root);
+    return grid;
+  }
+
+  // returns what is left of the spanning tree of the tile at the given column
+  // and row of tiles, found with a union-find over just the tile's cells, so
+  // tiles can run at the same time
+  // EFFECT: opens the passages of the tree that no loop through a seam can
+  // go through, which can be done while other tiles do the same
+  static TileTree generateTile(MazeGrid grid, SplittableRandom rand, int col, int row) {
+    int left = col * TILE;
+    int top = row * TILE;
+    int across = Math.min(grid.width, left + TILE) - left;
+    int down = Math.min(grid.height, top + TILE) - top;
+    // the cells are numbered across the tile, from 0 at its top left
+    PackedEdges edges = new PackedEdges((across - 1) * down + across * (down - 1));
+    // the same order MazeGrid.boardEdges uses, within the tile
+    for (int i = 0; i < down; i += 1) {
+      for (int j = 0; j < across; j += 1) {
+        if (i > 0) {
+          edges.add(i * across + j, (i - 1) * across + j, rand.nextInt(MazeGame.WEIGHT_BOUND));
+        }
+        if (j > 0) {
+          edges.add(i * across + j, i * across + j - 1, rand.nextInt(MazeGame.WEIGHT_BOUND));
+        }
+      }
+    }
+    edges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    UnionFind sets = new UnionFind(across * down);
+    PackedEdges forest = new PackedEdges(Math.max(0, across * down - 1));
+    for (int e = 0; e < edges.size && sets.count > 1; e += 1) {
+      if (sets.union(edges.from[e], edges.to[e])) {
+        forest.add(edges.from[e], edges.to[e], edges.weight[e]);
+      }
+    }
+    TileTree tree = new TileTree(left, top, across, across * down);
+    contract(grid, tree, forest, down);
+    return tree;
+  }
+
+  // EFFECT: cuts the given spanning tree of the tile of the given tree, in
+  // the order Kruskal's algo picked it and between the tile's cells, down to
+  // its keys and segments, opening every other passage of it
+  static void contract(MazeGrid grid, TileTree tree, PackedEdges forest, int down) {
+    int across = tree.across;
+    int cells = across * down;
+    // the passage going each way from every cell, as an index into the
+    // forest, or -1, and how many passages are left at every cell
+    int[] edgeAt = new int[4 * cells];
+    Arrays.fill(edgeAt, -1);
+    int[] degree = new int[cells];
+    for (int e = 0; e < forest.size; e += 1) {
+      int low = Math.min(forest.from[e], forest.to[e]);
+      int high = Math.max(forest.from[e], forest.to[e]);
+      // checked first, like MazeGrid.connect does, for a tile 1 cell wide
+      int which = high - low == across ? MazeGrid.DOWN : MazeGrid.RIGHT;
+      edgeAt[4 * low + which] = e;
+      edgeAt[4 * high + which + 2] = e;
+      degree[low] += 1;
+      degree[high] += 1;
+    }
+    // the cells next to another tile
+    boolean[] seam = new boolean[cells];
+    for (int c = 0; c < cells; c += 1) {
+      int j = c % across;
+      int i = c / across;
+      seam[c] = (j == 0 && tree.left > 0) || (i == 0 && tree.top > 0)
+          || (j == across - 1 && tree.left + across < grid.width)
+          || (i == down - 1 && tree.top + down < grid.height);
+    }
+    // the passages settled so far, opened or left to a segment
+    BitSet settled = new BitSet(forest.size);
+    // strips off the branches that end away from the seams, one dead end at
+    // a time, since no loop can go through them
+    int[] deadEnds = new int[cells];
+    int count = 0;
+    for (int c = 0; c < cells; c += 1) {
+      if (!seam[c] && degree[c] == 1) {
+        deadEnds[count] = c;
+        count += 1;
+      }
+    }
+    while (count > 0) {
+      count -= 1;
+      int c = deadEnds[count];
+      for (int k = 0; k < 4; k += 1) {
+        int e = edgeAt[4 * c + k];
+        if (e >= 0 && !settled.get(e)) {
+          settled.set(e);
+          grid.connectConcurrently(tree.cell(grid, forest.from[e]),
+              tree.cell(grid, forest.to[e]));
+          int other = forest.from[e] == c ? forest.to[e] : forest.from[e];
+          degree[c] -= 1;
+          degree[other] -= 1;
+          if (!seam[other] && degree[other] == 1) {
+            deadEnds[count] = other;
+            count += 1;
+          }
+        }
+      }
+    }
+    for (int c = 0; c < cells; c += 1) {
+      if (seam[c] || (degree[c] > 0 && degree[c] != 2)) {
+        tree.keyOf[c] = tree.keys;
+        tree.keys += 1;
+      }
+    }
+    // follows every path from a key to the next, opening all of its
+    // passages but the heaviest, which is the latest one picked
+    int[] segmentFrom = new int[forest.size];
+    int[] segmentTo = new int[forest.size];
+    BitSet heaviest = new BitSet(forest.size);
+    for (int c = 0; c < cells; c += 1) {
+      for (int k = 0; k < 4 && tree.keyOf[c] >= 0; k += 1) {
+        int e = edgeAt[4 * c + k];
+        if (e >= 0 && !settled.get(e)) {
+          settled.set(e);
+          int highest = e;
+          int at = forest.from[e] == c ? forest.to[e] : forest.from[e];
+          while (tree.keyOf[at] < 0) {
+            int next = -1;
+            for (int l = 0; l < 4; l += 1) {
+              int f = edgeAt[4 * at + l];
+              if (f >= 0 && !settled.get(f)) {
+                next = f;
+              }
+            }
+            settled.set(next);
+            int lighter = Math.min(highest, next);
+            grid.connectConcurrently(tree.cell(grid, forest.from[lighter]),
+                tree.cell(grid, forest.to[lighter]));
+            highest = Math.max(highest, next);
+            at = forest.from[next] == at ? forest.to[next] : forest.from[next];
+          }
+          segmentFrom[highest] = tree.keyOf[c];
+          segmentTo[highest] = tree.keyOf[at];
+          heaviest.set(highest);
+        }
+      }
+    }
+    tree.segments = new PackedEdges(heaviest.cardinality());
+    tree.passages = new PackedEdges(heaviest.cardinality());
+    for (int e = heaviest.nextSetBit(0); e >= 0; e = heaviest.nextSetBit(e + 1)) {
+      tree.segments.add(segmentFrom[e], segmentTo[e], forest.weight[e]);
+      tree.passages.add(tree.cell(grid, forest.from[e]), tree.cell(grid, forest.to[e]),
+          forest.weight[e]);
+    }
+  }
+
+  // EFFECT: runs Kruskal's algo over the segments of the given trees of the
+  // tiles and every edge that crosses from one tile to another, opening the
+  // passages it picks
+  // the segments go first and in tile order, and the sort keeps edges of the
+  // same weight in order, so ties are broken the way each tile broke them
+  void joinTiles(MazeGrid grid, TileTree[] trees, int tilesAcross, SplittableRandom rand) {
+    // the keys of each tile are numbered after those of the tiles before it
+    int[] firstKey = new int[trees.length];
+    int keys = 0;
+    int count = 0;
+    for (int t = 0; t < trees.length; t += 1) {
+      firstKey[t] = keys;
+      keys += trees[t].keys;
+      count += trees[t].segments.size;
+    }
+    for (int j = TILE; j < grid.width; j += TILE) {
+      count += grid.height;
+    }
+    for (int i = TILE; i < grid.height; i += TILE) {
+      count += grid.width;
+    }
+    // the same edges twice, between keys for Kruskal's algo and between
+    // cells for opening them, and sorted the same way by the stable sort
+    PackedEdges edges = new PackedEdges(count);
+    PackedEdges passages = new PackedEdges(count);
+    for (int t = 0; t < trees.length; t += 1) {
+      PackedEdges segments = trees[t].segments;
+      for (int e = 0; e < segments.size; e += 1) {
+        edges.add(firstKey[t] + segments.from[e], firstKey[t] + segments.to[e],
+            segments.weight[e]);
+        passages.add(trees[t].passages.from[e], trees[t].passages.to[e], segments.weight[e]);
+      }
+    }
+    // only the columns and rows of cells right after a seam
+    for (int j = TILE; j < grid.width; j += TILE) {
+      for (int i = 0; i < grid.height; i += 1) {
+        int weight = rand.nextInt(MazeGame.WEIGHT_BOUND);
+        edges.add(keyAt(trees, firstKey, tilesAcross, j, i),
+            keyAt(trees, firstKey, tilesAcross, j - 1, i), weight);
+        passages.add(grid.cell(j, i), grid.cell(j - 1, i), weight);
+      }
+    }
+    for (int i = TILE; i < grid.height; i += TILE) {
+      for (int j = 0; j < grid.width; j += 1) {
+        int weight = rand.nextInt(MazeGame.WEIGHT_BOUND);
+        edges.add(keyAt(trees, firstKey, tilesAcross, j, i),
+            keyAt(trees, firstKey, tilesAcross, j, i - 1), weight);
+        passages.add(grid.cell(j, i), grid.cell(j, i - 1), weight);
+      }
+    }
+    edges.sortByWeight(MazeGame.WEIGHT_BOUND);
+    passages.sortByWeight(MazeGame.WEIGHT_BOUND);
+    KruskalMaze kruskal = new KruskalMaze(keys, edges);
+    kruskal.packedAlgorithm();
+    for (int e = kruskal.inTree.nextSetBit(0); e >= 0; e = kruskal.inTree.nextSetBit(e + 1)) {
+      grid.connect(passages.from[e], passages.to[e]);
+    }
+  }
+
+  // returns the number of the key at the given board cell, which is on a seam,
+  // among the keys of every tile
+  static int keyAt(TileTree[] trees, int[] firstKey, int tilesAcross, int x, int y) {
+    int t = y / TILE * tilesAcross + x / TILE;
+    return firstKey[t] + trees[t].keyAt(x, y);
+  }
+}
+
+// the task of finding the trees of the tiles numbered start (inclusive) to
+// end (exclusive), split in half until there is only one tile left to do
+class GenerateTiles extends RecursiveAction {
+  static final long serialVersionUID = 1L;
+
+  MazeGrid grid;
+  // where each tile's tree goes, written by only the task for that tile
+  TileTree[] trees;
+  SplittableRandom[] tileRandoms;
+  int tilesAcross;
+  int start;
+  int end;
+
+  GenerateTiles(MazeGrid grid, TileTree[] trees, SplittableRandom[] tileRandoms,
+      int tilesAcross, int start, int end) {
+    this.grid = grid;
+    this.trees = trees;
+    this.tileRandoms = tileRandoms;
+    this.tilesAcross = tilesAcross;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  protected void compute() {
+    if (this.end - this.start <= 1) {
+      for (int t = this.start; t < this.end; t += 1) {
+        this.trees[t] = ParallelMazeGenerator.generateTile(this.grid, this.tileRandoms[t],
+            t % this.tilesAcross, t / this.tilesAcross);
+      }
+    }
+    else {
+      int mid = (this.start + this.end) >>> 1;
+      RecursiveAction.invokeAll(
+          new GenerateTiles(this.grid, this.trees, this.tileRandoms, this.tilesAcross,
+              this.start, mid),
+          new GenerateTiles(this.grid, this.trees, this.tileRandoms, this.tilesAcross, mid,
+              this.end));
+    }
+  }
+}
@@ -0,0 +1,345 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+// answers how far apart any two cells of a perfect maze are, and the way
+// between them, without searching the maze again for every question
+// the maze is a tree, so it is walked once from the top left cell to give
+// every cell its parent, its depth and its place in a depth first order
+// the lowest common ancestor of two cells is then the parent of the
+// shallowest cell between them in that order, which is found with a sparse
+// table over blocks of BLOCK cells plus a scan of at most two blocks, so a
+// distance takes constant time and a way takes time in its length
+// cells the top left cell cannot reach are walked from in turn, so the
+// index is a forest, and cells in different trees have no way between them
+// a maze with loops is indexed by the spanning tree the walk finds, so its
+// distances are along that tree and are not always the shortest
+class PathIndex {
+  // the first 4 bytes of a path index file, "PATH"
+  static final int MAGIC = 0x50415448;
+  // the version of the path index files written now
+  static final int VERSION = 1;
+  // how many bytes of a path index file come before the parents: the magic
+  // number, the width, the height and the version
+  static final int HEADER = 16;
+  // how many cells of the depth first order are in a block of the sparse table
+  static final int BLOCK_SHIFT = 6;
+  static final int BLOCK = 1 << BLOCK_SHIFT;
+
+  MazeGrid grid;
+  int version;
+  // the cell each cell was first reached from, or -1 for the cell a tree
+  // was walked from
+  int[] parent;
+  // how many passages each cell is from the cell its tree was walked from
+  int[] depth;
+  // the cells in depth first order, and where each cell is in that order
+  int[] order;
+  int[] place;
+  // the depth of the cell at each place in the order, so the sparse table
+  // and the scans of it read one array straight through
+  int[] placeDepth;
+  // blockMin[k][b] is the place of the shallowest cell in the 2^k blocks
+  // from block b on
+  int[][] blockMin;
+
+  // walks the given maze to index it
+  PathIndex(MazeGrid grid) {
+    this(grid, new int[grid.cellCount()], new int[grid.cellCount()]);
+    int count = grid.cellCount();
+    Arrays.fill(this.parent, -2);
+    // a cell is given its parent when it is pushed, and its place when it
+    // is popped, and in a tree the cells pushed by a cell are all popped
+    // before anything under them, so every subtree is a run of the order
+    int[] stack = new int[Math.max(1, count)];
+    int next = 0;
+    for (int root = 0; root < count; root += 1) {
+      if (this.parent[root] != -2) {
+        continue;
+      }
+      this.parent[root] = -1;
+      stack[0] = root;
+      int size = 1;
+      while (size > 0) {
+        size -= 1;
+        int cell = stack[size];
+        this.order[next] = cell;
+        next += 1;
+        int x = cell % grid.width;
+        int y = cell / grid.width;
+        for (int direction = MazeGrid.RIGHT; direction <= MazeGrid.UP; direction += 1) {
+          int neighbor = LevelSearch.neighbor(grid, x, y, direction);
+          if (neighbor >= 0 && this.parent[neighbor] == -2) {
+            this.parent[neighbor] = cell;
+            stack[size] = neighbor;
+            size += 1;
+          }
+        }
+      }
+    }
+    this.finish();
+  }
+
+  // an index of the given maze with the given parents and depth first order,
+  // which finish has to fill in the rest of
+  PathIndex(MazeGrid grid, int[] parent, int[] order) {
+    this.grid = grid;
+    this.version = grid.version;
+    this.parent = parent;
+    this.order = order;
+  }
+
+  // EFFECT: works out the depths, the places and the sparse table from the
+  // parents and the order
+  void finish() {
+    int count = this.order.length;
+    this.place = new int[count];
+    this.depth = new int[count];
+    this.placeDepth = new int[count];
+    for (int i = 0; i < count; i += 1) {
+      int cell = this.order[i];
+      this.place[cell] = i;
+      // a parent always comes before its children in the order
+      this.depth[cell] = this.parent[cell] < 0 ? 0 : this.depth[this.parent[cell]] + 1;
+      this.placeDepth[i] = this.depth[cell];
+    }
+    int blocks = (count + BLOCK - 1) >>> BLOCK_SHIFT;
+    int levels = 1;
+    while ((1 << levels) <= blocks) {
+      levels += 1;
+    }
+    this.blockMin = new int[levels][];
+    this.blockMin[0] = new int[blocks];
+    for (int b = 0; b < blocks; b += 1) {
+      this.blockMin[0][b] = this.shallowest(b << BLOCK_SHIFT,
+          Math.min(count, (b + 1) << BLOCK_SHIFT) - 1);
+    }
+    for (int k = 1; k < levels; k += 1) {
+      int[] below = this.blockMin[k - 1];
+      int[] level = new int[blocks - (1 << k) + 1];
+      for (int b = 0; b < level.length; b += 1) {
+        level[b] = this.shallower(below[b], below[b + (1 << (k - 1))]);
+      }
+      this.blockMin[k] = level;
+    }
+  }
+
+  // returns whichever of the two given places holds the shallower cell
+  int shallower(int place1, int place2) {
+    return this.placeDepth[place2] < this.placeDepth[place1] ? place2 : place1;
+  }
+
+  // returns the place of the shallowest cell from place lo to place hi
+  // (inclusive), looking at each of them
+  int shallowest(int lo, int hi) {
+    int best = lo;
+    int bestDepth = this.placeDepth[lo];
+    for (int i = lo + 1; i <= hi; i += 1) {
+      if (this.placeDepth[i] < bestDepth) {
+        best = i;
+        bestDepth = this.placeDepth[i];
+      }
+    }
+    return best;
+  }
+
+  // returns the place of the shallowest cell from place lo to place hi
+  // (inclusive), with the sparse table for the whole blocks between them
+  int minPlace(int lo, int hi) {
+    int loBlock = lo >>> BLOCK_SHIFT;
+    int hiBlock = hi >>> BLOCK_SHIFT;
+    if (loBlock == hiBlock) {
+      return this.shallowest(lo, hi);
+    }
+    int best = this.shallower(this.shallowest(lo, ((loBlock + 1) << BLOCK_SHIFT) - 1),
+        this.shallowest(hiBlock << BLOCK_SHIFT, hi));
+    if (hiBlock - loBlock > 1) {
+      int first = loBlock + 1;
+      int k = 31 - Integer.numberOfLeadingZeros(hiBlock - first);
+      best = this.shallower(best, this.shallower(this.blockMin[k][first],
+          this.blockMin[k][hiBlock - (1 << k)]));
+    }
+    return best;
+  }
+
+  // returns the deepest cell that both given cells are under (a cell is
+  // under itself), or -1 if they are in different trees
+  int ancestor(int cell1, int cell2) {
+    if (cell1 == cell2) {
+      return cell1;
+    }
+    int lo = Math.min(this.place[cell1], this.place[cell2]);
+    int hi = Math.max(this.place[cell1], this.place[cell2]);
+    // the shallowest cell after the first one up to the second is a child of
+    // the ancestor, or the root of the second's tree if they are in different trees
+    return this.parent[this.order[this.minPlace(lo + 1, hi)]];
+  }
+
+  // returns how many passages are on the way between the two given cells,
+  // or -1 if there is no way
+  int distance(int cell1, int cell2) {
+    int top = this.ancestor(cell1, cell2);
+    if (top < 0) {
+      return -1;
+    }
+    return this.depth[cell1] + this.depth[cell2] - 2 * this.depth[top];
+  }
+
+  // returns the cells on the way from the first given cell to the second,
+  // both included, or an empty array if there is no way
+  int[] path(int from, int to) {
+    int distance = this.distance(from, to);
+    if (distance < 0) {
+      return new int[0];
+    }
+    int[] result = new int[distance + 1];
+    int top = this.ancestor(from, to);
+    int i = 0;
+    for (int cell = from; cell != top; cell = this.parent[cell]) {
+      result[i] = cell;
+      i += 1;
+    }
+    // the way down from the ancestor is the way up from the end, backwards
+    int j = distance;
+    for (int cell = to; cell != top; cell = this.parent[cell]) {
+      result[j] = cell;
+      j -= 1;
+    }
+    result[i] = top;
+    return result;
+  }
+
+  // returns true if this was made from the given maze as it is now
+  boolean isCurrent(MazeGrid grid) {
+    return this.grid == grid && this.version == grid.version;
+  }
+
+  // EFFECT: writes this index to the given file: a small header and then
+  // the parent and the depth first order of every cell, so reading it back
+  // only has to rebuild the rest, without walking the maze
+  // like MazeGrid.writeSnapshot, the file is written next to where it goes,
+  // under a name of its own, and then moved there
+  void write(File file) throws IOException {
+    File temp = MazeGrid.tempFileNextTo(file);
+    try {
+      try (RandomAccessFile out = new RandomAccessFile(temp, "rw");
+          FileChannel channel = out.getChannel()) {
+        out.setLength(0);
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+        chunk.putInt(MAGIC).putInt(this.grid.width).putInt(this.grid.height).putInt(VERSION);
+        // the header is big endian and the rest little endian, like a snapshot
+        chunk.order(ByteOrder.LITTLE_ENDIAN);
+        for (int[] ints : new int[][] { this.parent, this.order }) {
+          for (int i = 0; i < ints.length; i += 1) {
+            chunk.putInt(ints[i]);
+            if (!chunk.hasRemaining()) {
+              PathIndex.writeAll(channel, chunk);
+            }
+          }
+        }
+        PathIndex.writeAll(channel, chunk);
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      // only still there if the write or the move failed
+      Files.deleteIfExists(temp.toPath());
+    }
+  }
+
+  // EFFECT: writes what is in the given buffer to the given channel and
+  // empties the buffer
+  static void writeAll(FileChannel channel, ByteBuffer chunk) throws IOException {
+    chunk.flip();
+    while (chunk.hasRemaining()) {
+      channel.write(chunk);
+    }
+    chunk.clear();
+  }
+
+  // returns the index of the given maze written to the given file by write
+  // throws an IOException if the file is not an index of that maze: every
+  // parent has to be through an open passage, the order has to be a depth
+  // first order of the trees the parents make, and there has to be a tree
+  // for every part of the maze
+  static PathIndex read(File file, MazeGrid grid) throws IOException {
+    int count = grid.cellCount();
+    try (RandomAccessFile in = new RandomAccessFile(file, "r");
+        FileChannel channel = in.getChannel()) {
+      MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (channel.size() < HEADER || map.getInt(0) != MAGIC) {
+        throw new IOException(file + " is not a path index");
+      }
+      if (map.getInt(12) != VERSION) {
+        throw new IOException(file + " is a version " + map.getInt(12) + " path index, not "
+            + "version " + VERSION);
+      }
+      if (map.getInt(4) != grid.width || map.getInt(8) != grid.height
+          || channel.size() != HEADER + 8L * count) {
+        throw new IOException(file + " is not a path index of a " + grid.width + " by "
+            + grid.height + " maze");
+      }
+      map.position(HEADER);
+      IntBuffer ints = map.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+      PathIndex result = new PathIndex(grid, new int[count], new int[count]);
+      ints.get(result.parent);
+      ints.get(result.order);
+      if (!result.matches()) {
+        throw new IOException(file + " is not a path index of this maze");
+      }
+      result.finish();
+      return result;
+    }
+  }
+
+  // returns true if the parents and order read from a file are a depth
+  // first walk of every cell of this.grid, with one tree for each of its
+  // parts: every cell comes right after its parent or after a cell under
+  // its parent, which is what ancestor needs to find the shallowest cell
+  // between two cells
+  // the cells from the root of the tree being walked down to the last cell
+  // are kept on a stack, so each cell is pushed and popped at most once
+  boolean matches() {
+    int count = this.order.length;
+    boolean[] seen = new boolean[count];
+    int[] open = new int[Math.max(1, count)];
+    int size = 0;
+    long roots = 0;
+    for (int i = 0; i < count; i += 1) {
+      int cell = this.order[i];
+      if (cell < 0 || cell >= count || seen[cell]) {
+        return false;
+      }
+      seen[cell] = true;
+      int up = this.parent[cell];
+      if (up == -1) {
+        roots += 1;
+        size = 0;
+      }
+      else if (up < 0 || up >= count || !this.grid.isConnected(cell, up)) {
+        return false;
+      }
+      else {
+        // the cells under the parent that were walked are done
+        while (size > 0 && open[size - 1] != up) {
+          size -= 1;
+        }
+        if (size == 0) {
+          return false;
+        }
+      }
+      open[size] = cell;
+      size += 1;
+    }
+    return roots == new MazeValidator().check(this.grid).components;
+  }
+}
@@ -0,0 +1,69 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// the timing of one run of a phase, started by start and ended by stop,
+// which is always called in a finally so a phase that throws is still ended
+class PhaseTimer {
+  // reads how much each thread has allocated, if this JVM can
+  static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  // the timer handed out while nothing is measured, whose stop does nothing
+  static final PhaseTimer NONE = new PhaseTimer(0, null, false);
+
+  int phase;
+  // the event to send, or null if no recording wants it
+  MazePhaseEvent event;
+  long startNanos;
+  long startBytes;
+
+  PhaseTimer(int phase, MazePhaseEvent event, boolean counted) {
+    this.phase = phase;
+    this.event = event;
+    if (event != null) {
+      event.begin();
+    }
+    if (counted) {
+      this.startBytes = PhaseTimer.allocatedBytes();
+      this.startNanos = System.nanoTime();
+    }
+  }
+
+  // returns a timer for a run of the given phase over the given number of
+  // cells or edges, started now, or NONE if nothing is measuring phases
+  static PhaseTimer start(int phase, long items) {
+    boolean counted = MazeMetrics.enabled;
+    if (!counted && !MazeMetrics.PHASE_EVENTS.isEnabled()) {
+      return PhaseTimer.NONE;
+    }
+    MazePhaseEvent event = null;
+    if (MazeMetrics.PHASE_EVENTS.isEnabled()) {
+      event = new MazePhaseEvent();
+      event.phase = MazeMetrics.PHASE_NAMES[phase];
+      event.items = items;
+    }
+    return new PhaseTimer(phase, event, counted);
+  }
+
+  // EFFECT: ends this run of the phase, adding it to the counts
+  void stop() {
+    if (this.event != null) {
+      this.event.commit();
+    }
+    if (this.startNanos != 0) {
+      long nanos = System.nanoTime() - this.startNanos;
+      MazeMetrics.CALLS.incrementAndGet(this.phase);
+      MazeMetrics.NANOS.addAndGet(this.phase, nanos);
+      MazeMetrics.MAX_NANOS.accumulateAndGet(this.phase, nanos, Math::max);
+      MazeMetrics.BYTES.addAndGet(this.phase, PhaseTimer.allocatedBytes() - this.startBytes);
+    }
+  }
+
+  // returns how many bytes the current thread has allocated so far, or 0 if
+  // this JVM does not say
+  static long allocatedBytes() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) THREADS)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.RecursiveAction;
+import javalib.worldimages.ComputedPixelImage;
+
+// the task of drawing the bands numbered start (inclusive) to end
+// (exclusive), split in half until there is only one band left to do
+class RasterizeBands extends RecursiveAction {
+  static final long serialVersionUID = 1L;
+
+  MazeRasterizer rasterizer;
+  ComputedPixelImage img;
+  int start;
+  int end;
+
+  RasterizeBands(MazeRasterizer rasterizer, ComputedPixelImage img, int start, int end) {
+    this.rasterizer = rasterizer;
+    this.img = img;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  protected void compute() {
+    if (this.end - this.start <= 1) {
+      for (int b = this.start; b < this.end; b += 1) {
+        this.rasterizer.drawBand(b, this.img);
+      }
+    }
+    else {
+      int mid = (this.start + this.end) >>> 1;
+      RecursiveAction.invokeAll(new RasterizeBands(this.rasterizer, this.img, this.start, mid),
+          new RasterizeBands(this.rasterizer, this.img, mid, this.end));
+    }
+  }
+}
@@ -0,0 +1,21 @@
+import java.io.File;
+import java.io.IOException;
+
+// a sink that writes every maze to a snapshot file named after its spec
+// in a directory
+class SnapshotSink implements MazeSink {
+  File directory;
+
+  SnapshotSink(File directory) {
+    this.directory = directory;
+  }
+
+  public void accept(MazeSpec spec, MazeGrid grid) throws IOException {
+    grid.writeSnapshot(new File(this.directory, spec + ".maze"));
+  }
+
+  // every maze goes to a file of its own, written under a name of its own
+  public boolean isThreadSafe() {
+    return true;
+  }
+}
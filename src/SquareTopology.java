@@ -0,0 +1,49 @@
+// a width by height grid of square cells, the board MazeGrid is a maze on
+// the neighbors are up, left, right and down, so the edges to lower
+// numbered cells come in the order MazeGrid.boardEdges makes them
+class SquareTopology implements MazeTopology {
+  int width;
+  int height;
+
+  SquareTopology(int width, int height) {
+    if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "A square board cannot be " + width + " by " + height + " cells");
+    }
+    this.width = width;
+    this.height = height;
+  }
+
+  public int cellCount() {
+    return this.width * this.height;
+  }
+
+  public int maxDegree() {
+    return 4;
+  }
+
+  public int neighbor(int cell, int k) {
+    int x = cell % this.width;
+    int y = cell / this.width;
+    if (k == 0) {
+      return y > 0 ? cell - this.width : -1;
+    }
+    else if (k == 1) {
+      return x > 0 ? cell - 1 : -1;
+    }
+    else if (k == 2) {
+      return x + 1 < this.width ? cell + 1 : -1;
+    }
+    else {
+      return y + 1 < this.height ? cell + this.width : -1;
+    }
+  }
+
+  public double centerX(int cell) {
+    return cell % this.width + 0.5;
+  }
+
+  public double centerY(int cell) {
+    return cell / this.width + 0.5;
+  }
+}
@@ -0,0 +1,27 @@
+// what the stripes of a grid being checked found, one slot per stripe
+class StripeChecks {
+  MazeGrid grid;
+  int rowsPerStripe;
+  // the sets of the cells of the top row and then the bottom row of every
+  // stripe, see MazeValidator.seamSets
+  int[][] seams;
+  long[] passages;
+  long[] cycles;
+  long[] strayLinks;
+  long[] unions;
+
+  StripeChecks(MazeGrid grid, int rowsPerStripe, int stripes) {
+    this.grid = grid;
+    this.rowsPerStripe = rowsPerStripe;
+    this.seams = new int[stripes][];
+    this.passages = new long[stripes];
+    this.cycles = new long[stripes];
+    this.strayLinks = new long[stripes];
+    this.unions = new long[stripes];
+  }
+
+  // returns how many cells the top and bottom rows of a stripe have
+  static int seamCells(int width, int rowsPerStripe) {
+    return rowsPerStripe == 1 ? width : 2 * width;
+  }
+}
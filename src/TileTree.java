@@ -0,0 +1,41 @@
+import java.util.Arrays;
+
+// what is left of the spanning tree of one tile of a ParallelMazeGenerator
+// once every passage the seams cannot change has been opened: the cells on
+// the tile's seams and the cells where the rest of the tree branches are its
+// keys, numbered from 0, and every path of the tree between two keys is one
+// segment, which only the heaviest passage on it stands for
+class TileTree {
+  // where the tile is on the board and how many cells wide it is
+  int left;
+  int top;
+  int across;
+  // the key number of every cell of the tile, numbered across the tile from
+  // 0 at its top left, or -1 for a cell that is not a key
+  int[] keyOf;
+  // how many keys there are
+  int keys;
+  // the segments between keys, in the order the tile's Kruskal's algo picked
+  // the passages standing for them, and those passages between board cells
+  PackedEdges segments;
+  PackedEdges passages;
+
+  TileTree(int left, int top, int across, int cells) {
+    this.left = left;
+    this.top = top;
+    this.across = across;
+    this.keyOf = new int[cells];
+    Arrays.fill(this.keyOf, -1);
+    this.keys = 0;
+  }
+
+  // returns the board cell of the given cell of the tile
+  int cell(MazeGrid grid, int local) {
+    return grid.cell(this.left + local % this.across, this.top + local / this.across);
+  }
+
+  // returns the key number of the given board cell, which is in this tile
+  int keyAt(int x, int y) {
+    return this.keyOf[(y - this.top) * this.across + x - this.left];
+  }
+}
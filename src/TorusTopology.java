@@ -0,0 +1,50 @@
+// a width by height grid of square cells whose edges wrap around, so the
+// left column is next to the right column and the top row to the bottom row
+// it has to be at least 3 cells each way, or a cell would be next to the
+// same cell twice (or to itself)
+class TorusTopology implements MazeTopology {
+  int width;
+  int height;
+
+  TorusTopology(int width, int height) {
+    if (width < 3 || height < 3 || (long) width * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "A torus cannot be " + width + " by " + height + " cells");
+    }
+    this.width = width;
+    this.height = height;
+  }
+
+  public int cellCount() {
+    return this.width * this.height;
+  }
+
+  public int maxDegree() {
+    return 4;
+  }
+
+  public int neighbor(int cell, int k) {
+    int x = cell % this.width;
+    int y = cell / this.width;
+    if (k == 0) {
+      return (y + this.height - 1) % this.height * this.width + x;
+    }
+    else if (k == 1) {
+      return y * this.width + (x + this.width - 1) % this.width;
+    }
+    else if (k == 2) {
+      return y * this.width + (x + 1) % this.width;
+    }
+    else {
+      return (y + 1) % this.height * this.width + x;
+    }
+  }
+
+  public double centerX(int cell) {
+    return cell % this.width + 0.5;
+  }
+
+  public double centerY(int cell) {
+    return cell / this.width + 0.5;
+  }
+}
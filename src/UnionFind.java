@@ -0,0 +1,73 @@
+// represents a disjoint-set forest over the dense ids 0 .. size - 1
+// used by Kruskal's algorithm instead of a HashMap of representatives,
+// so every find is a couple of array reads instead of a chain of hash lookups
+class UnionFind {
+  // the parent of every id, an id is a representative when it is its own parent
+  int[] parent;
+  // an upper bound on the height of the tree under every representative
+  // (ranks never go past log2(size), so a byte is plenty)
+  byte[] rank;
+  // how many disjoint sets there currently are
+  int count;
+
+  UnionFind(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative: " + size);
+    }
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    this.count = size;
+    for (int i = 0; i < size; i += 1) {
+      this.parent[i] = i;
+    }
+  }
+
+  // returns the number of ids in this forest
+  int size() {
+    return this.parent.length;
+  }
+
+  // returns the representative of the set the given id is in
+  // EFFECT: points every id on the way up directly at the representative
+  int find(int id) {
+    int root = id;
+    while (this.parent[root] != root) {
+      root = this.parent[root];
+    }
+    // second pass compresses the path so later finds are one hop
+    while (this.parent[id] != root) {
+      int next = this.parent[id];
+      this.parent[id] = root;
+      id = next;
+    }
+    return root;
+  }
+
+  // returns true if the two given ids are in the same set
+  boolean same(int id1, int id2) {
+    return this.find(id1) == this.find(id2);
+  }
+
+  // EFFECT: merges the sets of the two given ids, hanging the shorter tree
+  // under the taller one
+  // returns false if they were already in the same set
+  boolean union(int id1, int id2) {
+    int rep1 = this.find(id1);
+    int rep2 = this.find(id2);
+    if (rep1 == rep2) {
+      return false;
+    }
+    if (this.rank[rep1] < this.rank[rep2]) {
+      this.parent[rep1] = rep2;
+    }
+    else if (this.rank[rep1] > this.rank[rep2]) {
+      this.parent[rep2] = rep1;
+    }
+    else {
+      this.parent[rep1] = rep2;
+      this.rank[rep2] += 1;
+    }
+    this.count -= 1;
+    return true;
+  }
+}